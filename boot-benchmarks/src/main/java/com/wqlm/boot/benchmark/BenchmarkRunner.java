@@ -0,0 +1,111 @@
+package com.wqlm.boot.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 运行全部基准测试，附加 gc 分析器(每次调用的分配字节数 gc.alloc.rate.norm)，结果以 json 格式写入文件
+ * 指定基准文件时与之对比，有基准测试变慢或分配增加超过阈值时以退出码 1 结束，可用于 CI
+ * <p>
+ * 运行 : mvn package -pl boot-benchmarks -am -DskipTests && java -jar boot-benchmarks/target/benchmarks.jar [jmh 参数]
+ * jmh 参数与 jmh 自带的命令行一致，如只运行部分基准测试 : java -jar benchmarks.jar RedisSerializer
+ * -Dbench.result   : 结果文件，默认 jmh-result.json，也可以用 jmh 参数 -rff 指定
+ * -Dbench.baseline : 基准文件，即之前某次运行的结果文件，不指定时不对比
+ * -Dbench.threshold: 允许的退化比例，默认 0.1
+ */
+public class BenchmarkRunner {
+
+    private static final String ALLOC_METRIC = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class);
+        if (!commandLine.getResult().hasValue()) {
+            builder.result(System.getProperty("bench.result", "jmh-result.json"));
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        Collection<RunResult> results = new Runner(builder.build()).run();
+
+        String baseline = System.getProperty("bench.baseline");
+        if (baseline != null) {
+            double threshold = Double.parseDouble(System.getProperty("bench.threshold", "0.1"));
+            int regressions = compare(results, readBaseline(new File(baseline)), threshold);
+            if (regressions > 0) {
+                System.out.printf("%d 项超过基准 %.0f%%%n", regressions, threshold * 100);
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * 读取 jmh 的 json 结果文件
+     *
+     * @param file
+     * @return 基准测试名-指标名-分数，指标名为 score 或 gc.alloc.rate.norm
+     */
+    private static Map<String, Map<String, Double>> readBaseline(File file) throws Exception {
+        Map<String, Map<String, Double>> baseline = new HashMap<>();
+        for (JsonNode node : new ObjectMapper().readTree(file)) {
+            Map<String, Double> scores = new HashMap<>();
+            scores.put("score", node.path("primaryMetric").path("score").asDouble());
+            JsonNode alloc = node.path("secondaryMetrics").path(ALLOC_METRIC);
+            if (!alloc.isMissingNode()) {
+                scores.put(ALLOC_METRIC, alloc.path("score").asDouble());
+            }
+            baseline.put(node.path("benchmark").asText() + " " + node.path("mode").asText(), scores);
+        }
+        return baseline;
+    }
+
+    /**
+     * 逐项与基准对比并打印，耗时类模式分数越大越差，吞吐量模式分数越小越差，分配字节数越大越差
+     *
+     * @return 退化超过阈值的项数
+     */
+    private static int compare(Collection<RunResult> results, Map<String, Map<String, Double>> baseline,
+                               double threshold) {
+        int regressions = 0;
+        System.out.printf("%n%-80s %-20s %12s %12s %8s%n", "Benchmark", "Metric", "Baseline", "Current", "Change");
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            String mode = result.getParams().getMode().shortLabel();
+            Map<String, Double> scores = baseline.get(benchmark + " " + mode);
+            if (scores == null) {
+                continue;
+            }
+            Result primary = result.getPrimaryResult();
+            boolean higherIsBetter = "thrpt".equals(mode);
+            regressions += report(benchmark, "score", scores.get("score"), primary.getScore(), higherIsBetter, threshold);
+
+            Result alloc = result.getSecondaryResults().get(ALLOC_METRIC);
+            if (alloc != null && scores.containsKey(ALLOC_METRIC)) {
+                regressions += report(benchmark, ALLOC_METRIC, scores.get(ALLOC_METRIC), alloc.getScore(), false, threshold);
+            }
+        }
+        return regressions;
+    }
+
+    private static int report(String benchmark, String metric, double before, double after, boolean higherIsBetter,
+                              double threshold) {
+        double change = before == 0 ? 0 : (after - before) / before;
+        boolean regressed = higherIsBetter ? change < -threshold : change > threshold;
+        System.out.printf("%-80s %-20s %12.3f %12.3f %+7.1f%%%s%n", benchmark, metric, before, after, change * 100,
+                regressed ? " !" : "");
+        return regressed ? 1 : 0;
+    }
+}
@@ -0,0 +1,46 @@
+package com.wqlm.boot.user.config;
+
+import com.wqlm.boot.user.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.interceptor.KeyGenerator;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CacheConfig 中未指定 key 时使用的 key 生成器，每次读写缓存都会调用一次
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CacheKeyGeneratorBenchmark {
+
+    private KeyGenerator keyGenerator;
+
+    private UserService target;
+
+    private Method getUser;
+
+    private Method listUsers;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        keyGenerator = new CacheConfig().keyGenerator();
+        target = new UserService();
+        getUser = UserService.class.getMethod("getUser", Long.class);
+        listUsers = UserService.class.getMethod("listUsers", String.class, int.class, boolean.class);
+    }
+
+    @Benchmark
+    public Object singleParam() {
+        return keyGenerator.generate(target, getUser, 1234567890123456789L);
+    }
+
+    @Benchmark
+    public Object threeParams() {
+        return keyGenerator.generate(target, listUsers, "1234567890123456789", 20, true);
+    }
+}
@@ -0,0 +1,86 @@
+package com.wqlm.boot.user.config;
+
+import com.wqlm.boot.user.po.User;
+import com.wqlm.boot.user.vo.UserVO;
+import com.wqlm.boot.user.vo.result.Result;
+import com.wqlm.boot.user.vo.result.SuccessResult;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RedisConfig 中 RedisTemplate 的 value 序列化器及 CacheConfig 中缓存的 value 序列化器
+ * 两者都是外层包了 CountingRedisSerializer 的 Jackson2JsonRedisSerializer，缓存的序列化器带有类型信息
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RedisSerializerBenchmark {
+
+    private RedisSerializer<Object> templateSerializer;
+
+    private RedisSerializer<Object> cacheSerializer;
+
+    private User user;
+
+    private Result<UserVO> result;
+
+    private UserVO userVO;
+
+    private byte[] templateUserBytes;
+
+    private byte[] cacheUserVOBytes;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        // 只用于构建 RedisTemplate，不会建立连接
+        templateSerializer = (RedisSerializer<Object>) new RedisConfig()
+                .redisTemplate(new LettuceConnectionFactory()).getValueSerializer();
+        cacheSerializer = new CacheConfig().cacheValueSerializer();
+
+        user = new User();
+        user.setId(1234567890123456789L);
+        user.setUserName("benchmark-user");
+        user.setPassword("e10adc3949ba59abbe56e057f20f883e");
+        user.setSalt("0b0f4f4e-6c43-4cde-9d6a-0b3a3c0e8f7a");
+
+        userVO = new UserVO();
+        userVO.setId(user.getId());
+        userVO.setUserName(user.getUserName());
+        result = new SuccessResult<>(userVO);
+
+        templateUserBytes = templateSerializer.serialize(user);
+        cacheUserVOBytes = cacheSerializer.serialize(userVO);
+    }
+
+    @Benchmark
+    public byte[] templateSerializeUser() {
+        return templateSerializer.serialize(user);
+    }
+
+    @Benchmark
+    public byte[] templateSerializeResult() {
+        return templateSerializer.serialize(result);
+    }
+
+    @Benchmark
+    public Object templateDeserializeUser() {
+        return templateSerializer.deserialize(templateUserBytes);
+    }
+
+    @Benchmark
+    public byte[] cacheSerializeUserVO() {
+        return cacheSerializer.serialize(userVO);
+    }
+
+    @Benchmark
+    public Object cacheDeserializeUserVO() {
+        return cacheSerializer.deserialize(cacheUserVOBytes);
+    }
+}
@@ -0,0 +1,56 @@
+package com.wqlm.boot.user.handler;
+
+import com.wqlm.boot.user.enums.ApplicationEnum;
+import com.wqlm.boot.user.exception.ApplicationException;
+import com.wqlm.boot.user.vo.result.Result;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindException;
+import org.springframework.validation.FieldError;
+
+import javax.validation.ConstraintViolationException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ApplicationExceptionHandler 将异常转换为 FailResult 的耗时，包含创建异常(填充异常栈)的开销
+ * ApplicationExceptionHandler 的日志在 logback.xml 中关闭，不计入打印日志的耗时
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ExceptionHandlerBenchmark {
+
+    private ApplicationExceptionHandler handler;
+
+    @Setup
+    public void setUp() {
+        handler = new ApplicationExceptionHandler();
+    }
+
+    @Benchmark
+    public Result applicationException() {
+        return handler.handleApplicationException(new ApplicationException(ApplicationEnum.PASSWORD_ERR));
+    }
+
+    @Benchmark
+    public Result otherException() {
+        return handler.handleRuntimeException(new IllegalStateException("benchmark"));
+    }
+
+    @Benchmark
+    public Result constraintViolation() {
+        return handler.handleConstraintViolationException(new ConstraintViolationException(
+                "getUser.id: id不能为空, getUser.name: name不能为空", Collections.emptySet()));
+    }
+
+    @Benchmark
+    public Object bindException() throws Exception {
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(new Object(), "registerDTO");
+        bindingResult.addError(new FieldError("registerDTO", "userName", "用户名不能为空"));
+        return handler.handleException(new BindException(bindingResult), null);
+    }
+}
@@ -0,0 +1,33 @@
+package com.wqlm.boot.user.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 注册、登陆、修改密码时的加盐 hash
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PasswordHashBenchmark {
+
+    private String password;
+
+    private String salt;
+
+    @Setup
+    public void setUp() {
+        password = "p@ssw0rd-123456";
+        salt = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String addSaltHash() {
+        return UserService.addSaltHash(password, salt);
+    }
+}
@@ -0,0 +1,38 @@
+package com.wqlm.boot.user.vo.result;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wqlm.boot.user.enums.ApplicationEnum;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * token 无效时 LoginInterceptor 输出的 FailResult
+ * newObjectMapper 与 LoginInterceptor 的写法一致，每次新建 ObjectMapper；sharedObjectMapper 作为对照
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FailResultBenchmark {
+
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+    }
+
+    @Benchmark
+    public String newObjectMapper() throws JsonProcessingException {
+        return new ObjectMapper().writeValueAsString(new FailResult(ApplicationEnum.TOKEN_INVALID));
+    }
+
+    @Benchmark
+    public String sharedObjectMapper() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(new FailResult(ApplicationEnum.TOKEN_INVALID));
+    }
+}
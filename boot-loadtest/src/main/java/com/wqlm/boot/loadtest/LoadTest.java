@@ -0,0 +1,297 @@
+package com.wqlm.boot.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.fppt.jedismock.RedisServer;
+import com.wqlm.boot.user.BootUserApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * UserController 的压测，不依赖外部的 mysql 和 redis
+ * 在同一个进程中启动内嵌的 redis(jedis-mock) 和 h2(MySQL 模式)，以 loadtest 环境启动用户模块，再通过 http 按比例调用各接口
+ * 先注册 loadTest.users 个用户并登陆，预热后统计每种操作的吞吐量和 p50/p99/p999 延迟，结果打印并写入 json 文件
+ * 失败率、p99、吞吐量超出阈值时以退出码 1 结束，可用于发布前的性能检查
+ * <p>
+ * 运行 : mvn install -pl boot-loadtest -am -DskipTests && mvn exec:java -pl boot-loadtest [-D参数]
+ * -DloadTest.threads=32          并发数
+ * -DloadTest.seconds=30          统计时长，单位秒
+ * -DloadTest.warmup=10           预热时长，单位秒，预热期间的请求不统计
+ * -DloadTest.users=1000          预先注册的用户数
+ * -DloadTest.mix=getUser:70,login:20,register:8,modifyPassword:2  各操作的比例
+ * -DloadTest.report=loadtest-result.json  结果文件
+ * -DloadTest.maxErrorRate=0.001  允许的失败率
+ * -DloadTest.maxP99=             每种操作 p99 的上限，单位毫秒，不指定时不检查
+ * -DloadTest.minThroughput=      总吞吐量的下限，单位次/秒，不指定时不检查
+ * 内嵌的 redis、h2 及客户端与应用在同一台机器上竞争 cpu，结果只能与同一台机器上的历史结果对比
+ */
+public class LoadTest {
+
+    private static final String USER_NAME_PREFIX = "loadtest-";
+
+    /**
+     * 修改密码时在两个密码之间切换
+     */
+    private static final String[] PASSWORDS = {"password-a", "password-b"};
+
+    private static final String[] OPERATIONS = {"getUser", "login", "register", "modifyPassword"};
+
+    private final int threads = Integer.getInteger("loadTest.threads", 32);
+
+    private final int seconds = Integer.getInteger("loadTest.seconds", 30);
+
+    private final int warmup = Integer.getInteger("loadTest.warmup", 10);
+
+    private final int userCount = Integer.getInteger("loadTest.users", 1000);
+
+    private final Map<String, OperationStats> stats = new LinkedHashMap<>();
+
+    /**
+     * 按比例累加的上界，与 OPERATIONS 一一对应
+     */
+    private final int[] mixBounds = new int[OPERATIONS.length];
+
+    private UserClient client;
+
+    private List<LoadUser> users;
+
+    private long[] ids;
+
+    private volatile boolean running = true;
+
+    public static void main(String[] args) throws Exception {
+        System.exit(new LoadTest().run() ? 0 : 1);
+    }
+
+    private boolean run() throws Exception {
+        parseMix(System.getProperty("loadTest.mix", "getUser:70,login:20,register:8,modifyPassword:2"));
+        for (String operation : OPERATIONS) {
+            stats.put(operation, new OperationStats(operation));
+        }
+
+        RedisServer redis = RedisServer.newRedisServer(0).start();
+        ConfigurableApplicationContext context = null;
+        try {
+            context = new SpringApplicationBuilder(BootUserApplication.class)
+                    .run("--spring.profiles.active=loadtest", "--loadtest.redisPort=" + redis.getBindPort());
+            String port = context.getEnvironment().getProperty("local.server.port");
+            // HttpURLConnection 默认每个地址只保持 5 个长连接
+            System.setProperty("http.maxConnections", String.valueOf(threads));
+            client = new UserClient("http://localhost:" + port);
+
+            prepareUsers(context.getBean(DataSource.class));
+            System.out.printf("已准备 %d 个用户，预热 %d 秒%n", users.size(), warmup);
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            for (int i = 0; i < threads; i++) {
+                int worker = i;
+                executor.execute(() -> work(worker));
+            }
+            TimeUnit.SECONDS.sleep(warmup);
+            stats.values().forEach(OperationStats::reset);
+            long start = System.nanoTime();
+            TimeUnit.SECONDS.sleep(seconds);
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            running = false;
+            executor.shutdown();
+            executor.awaitTermination(60, TimeUnit.SECONDS);
+
+            return report(elapsed);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            redis.stop();
+        }
+    }
+
+    /**
+     * 并发注册并登陆压测用户，用户按序号分给各个压测线程，登陆和修改密码只由所属的线程执行，密码和 token 不需要同步
+     */
+    private void prepareUsers(DataSource dataSource) throws InterruptedException {
+        users = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            users.add(new LoadUser(USER_NAME_PREFIX + i));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (LoadUser user : users) {
+            executor.execute(() -> {
+                client.register(user.userName, user.password);
+                user.token = client.login(user.userName, user.password);
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.MINUTES);
+
+        ids = new JdbcTemplate(dataSource).queryForList("SELECT id FROM user WHERE user_name LIKE ?", Long.class,
+                USER_NAME_PREFIX + "%").stream().mapToLong(Long::longValue).toArray();
+        if (ids.length == 0 || users.stream().anyMatch(user -> user.token == null)) {
+            throw new IllegalStateException("压测用户注册或登陆失败");
+        }
+    }
+
+    private void work(int worker) {
+        List<LoadUser> own = new ArrayList<>();
+        for (int i = worker; i < users.size(); i += threads) {
+            own.add(users.get(i));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long sequence = 0;
+        while (running) {
+            LoadUser user = own.isEmpty() ? users.get(random.nextInt(users.size())) : own.get(random.nextInt(own.size()));
+            String operation = pickOperation(random.nextInt(mixBounds[mixBounds.length - 1]));
+            long start = System.nanoTime();
+            boolean success;
+            try {
+                success = execute(operation, user, worker, sequence++, random);
+            } catch (Exception e) {
+                success = false;
+            }
+            stats.get(operation).record(System.nanoTime() - start, success);
+        }
+    }
+
+    private boolean execute(String operation, LoadUser user, int worker, long sequence, ThreadLocalRandom random) {
+        switch (operation) {
+            case "getUser":
+                return client.getUser(user.token, ids[random.nextInt(ids.length)]);
+            case "login":
+                String token = client.login(user.userName, user.password);
+                if (token != null) {
+                    user.token = token;
+                }
+                return token != null;
+            case "register":
+                return client.register(USER_NAME_PREFIX + "new-" + worker + "-" + sequence + "-" + System.nanoTime(),
+                        PASSWORDS[0]);
+            case "modifyPassword":
+                String newPassword = PASSWORDS[0].equals(user.password) ? PASSWORDS[1] : PASSWORDS[0];
+                boolean modified = client.modifyPassword(user.token, user.password, newPassword);
+                if (modified) {
+                    user.password = newPassword;
+                }
+                return modified;
+            default:
+                throw new IllegalArgumentException(operation);
+        }
+    }
+
+    private String pickOperation(int value) {
+        for (int i = 0; i < mixBounds.length; i++) {
+            if (value < mixBounds[i]) {
+                return OPERATIONS[i];
+            }
+        }
+        return OPERATIONS[0];
+    }
+
+    private void parseMix(String mix) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String item : mix.split(",")) {
+            String[] pair = item.trim().split(":");
+            if (!Arrays.asList(OPERATIONS).contains(pair[0])) {
+                throw new IllegalArgumentException("未知的操作 " + pair[0] + "，可选 " + Arrays.toString(OPERATIONS));
+            }
+            weights.put(pair[0], Integer.parseInt(pair[1]));
+        }
+        int bound = 0;
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            bound += weights.getOrDefault(OPERATIONS[i], 0);
+            mixBounds[i] = bound;
+        }
+        if (bound <= 0) {
+            throw new IllegalArgumentException("loadTest.mix 中至少有一个操作的比例大于 0");
+        }
+    }
+
+    /**
+     * 打印并写入结果，检查阈值
+     *
+     * @param elapsed 统计时长，单位秒
+     * @return 是否通过
+     */
+    private boolean report(double elapsed) throws Exception {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("threads", threads);
+        result.put("seconds", elapsed);
+        List<Map<String, Object>> operations = new ArrayList<>();
+        long total = 0;
+        long errors = 0;
+        boolean passed = true;
+        String maxP99 = System.getProperty("loadTest.maxP99");
+
+        System.out.printf("%n%-16s %10s %10s %10s %10s %10s %10s %10s%n",
+                "operation", "count", "errors", "ops/s", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)");
+        for (OperationStats stat : stats.values()) {
+            if (stat.getCount() == 0) {
+                continue;
+            }
+            total += stat.getCount();
+            errors += stat.getErrors();
+            double p99 = stat.percentileMillis(99);
+            System.out.printf("%-16s %10d %10d %10.1f %10.2f %10.2f %10.2f %10.2f%n", stat.getName(), stat.getCount(),
+                    stat.getErrors(), stat.getCount() / elapsed, stat.percentileMillis(50), p99,
+                    stat.percentileMillis(99.9), stat.maxMillis());
+
+            Map<String, Object> operation = new LinkedHashMap<>();
+            operation.put("name", stat.getName());
+            operation.put("count", stat.getCount());
+            operation.put("errors", stat.getErrors());
+            operation.put("throughput", stat.getCount() / elapsed);
+            operation.put("p50", stat.percentileMillis(50));
+            operation.put("p99", p99);
+            operation.put("p999", stat.percentileMillis(99.9));
+            operation.put("max", stat.maxMillis());
+            operations.add(operation);
+
+            if (maxP99 != null && p99 > Double.parseDouble(maxP99)) {
+                System.out.printf("%s 的 p99 %.2fms 超过 %sms%n", stat.getName(), p99, maxP99);
+                passed = false;
+            }
+        }
+        double throughput = total / elapsed;
+        double errorRate = total == 0 ? 1 : errors / (double) total;
+        System.out.printf("%-16s %10d %10d %10.1f%n", "total", total, errors, throughput);
+        result.put("throughput", throughput);
+        result.put("errorRate", errorRate);
+        result.put("operations", operations);
+
+        double maxErrorRate = Double.parseDouble(System.getProperty("loadTest.maxErrorRate", "0.001"));
+        if (errorRate > maxErrorRate) {
+            System.out.printf("失败率 %.4f 超过 %s%n", errorRate, maxErrorRate);
+            passed = false;
+        }
+        String minThroughput = System.getProperty("loadTest.minThroughput");
+        if (minThroughput != null && throughput < Double.parseDouble(minThroughput)) {
+            System.out.printf("吞吐量 %.1f 低于 %s%n", throughput, minThroughput);
+            passed = false;
+        }
+
+        File file = new File(System.getProperty("loadTest.report", "loadtest-result.json"));
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, result);
+        System.out.println("结果已写入 " + file.getAbsolutePath());
+        return passed;
+    }
+
+    /**
+     * 压测用户，由所属的压测线程修改
+     */
+    private static class LoadUser {
+
+        private final String userName;
+
+        private String password = PASSWORDS[0];
+
+        private volatile String token;
+
+        LoadUser(String userName) {
+            this.userName = userName;
+        }
+    }
+}
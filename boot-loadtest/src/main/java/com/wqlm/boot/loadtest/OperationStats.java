@@ -0,0 +1,63 @@
+package com.wqlm.boot.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一种操作的请求数、失败数及延迟分布，延迟以微秒记录
+ * 请求出错(连接失败、超时等)和业务失败(Result 的 status 为 false)都计为失败，失败的请求同样记录延迟
+ */
+class OperationStats {
+
+    private final String name;
+
+    private final Histogram histogram = new ConcurrentHistogram(3);
+
+    private final LongAdder errors = new LongAdder();
+
+    OperationStats(String name) {
+        this.name = name;
+    }
+
+    void record(long elapsedNanos, boolean success) {
+        histogram.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(elapsedNanos)));
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * 预热结束时清空
+     */
+    void reset() {
+        histogram.reset();
+        errors.reset();
+    }
+
+    String getName() {
+        return name;
+    }
+
+    long getCount() {
+        return histogram.getTotalCount();
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * @param percentile 0 到 100
+     * @return 单位毫秒
+     */
+    double percentileMillis(double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    double maxMillis() {
+        return histogram.getMaxValue() / 1000.0;
+    }
+}
@@ -0,0 +1,256 @@
+package com.wqlm.boot.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.fppt.jedismock.RedisServer;
+import com.wqlm.boot.user.BootUserApplication;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户模块的启动耗时及内存占用测试，记录从启动 jvm 到第一个请求成功(time-to-first-request)的耗时和就绪后进程的常驻内存(RSS)
+ * 每轮在新的 jvm 进程中以 loadtest 环境启动用户模块，内嵌的 redis 由本进程提供，每个进程使用自己的 h2 内存库
+ * 进程启动后不断调用注册接口直到成功，记录此时的耗时及这次请求本身的耗时，再等待 /actuator/health 返回 200(预热完成)，
+ * 最后从 /proc/{pid}/status 读取进程的 VmRSS，只支持 linux，其他系统为 -1
+ * 结果打印并写入 json 文件，各轮取最小值、中位数和最大值
+ * <p>
+ * 运行 : mvn install -pl boot-loadtest -am -DskipTests
+ * && mvn exec:java -pl boot-loadtest -Dloadtest.main=com.wqlm.boot.loadtest.StartupBenchmark [-D参数]
+ * -Dstartup.runs=5                        轮数
+ * -Dstartup.profiles=loadtest,faststart   spring.profiles.active，默认 loadtest，加上 faststart 对比快速启动配置
+ * -Dstartup.jvmArgs="-Xshare:auto -XX:TieredStopAtLevel=1"  子进程的 jvm 参数，空格分隔
+ *                                         对比缩容到零等场景下的内存占用，如 "-XX:+UseSerialGC -Xss256k -XX:MaxRAM=512m"
+ * -Dstartup.classpath=                    子进程的 classpath，默认与本进程相同；测试 AppCDS 归档时需要与生成归档时一致
+ * -Dstartup.timeout=120                   每轮等待的最长时间，单位秒
+ * -Dstartup.report=startup-result.json    结果文件
+ * -Dstartup.maxFirstRequest=              time-to-first-request 中位数的上限，单位毫秒，超过时以退出码 1 结束，不指定时不检查
+ * -Dstartup.maxRss=                       RSS 中位数的上限，单位 MB，超过时以退出码 1 结束，不指定时不检查
+ * 子进程的输出写入临时目录下的 boot-startup-{轮数}.log
+ */
+public class StartupBenchmark {
+
+    private final int runs = Integer.getInteger("startup.runs", 5);
+
+    private final String profiles = System.getProperty("startup.profiles", "loadtest");
+
+    private final String jvmArgs = System.getProperty("startup.jvmArgs", "");
+
+    private final int timeout = Integer.getInteger("startup.timeout", 120);
+
+    public static void main(String[] args) throws Exception {
+        System.exit(new StartupBenchmark().run() ? 0 : 1);
+    }
+
+    private boolean run() throws Exception {
+        RedisServer redis = RedisServer.newRedisServer(0).start();
+        List<Map<String, Object>> results = new ArrayList<>(runs);
+        try {
+            System.out.printf("%-6s %20s %20s %12s %10s%n", "run", "firstRequest(ms)", "firstLatency(ms)", "ready(ms)",
+                    "rss(MB)");
+            for (int i = 1; i <= runs; i++) {
+                Map<String, Object> result = runOnce(i, redis.getBindPort());
+                System.out.printf("%-6d %20d %20d %12d %10d%n", i, result.get("firstRequest"), result.get("firstLatency"),
+                        result.get("ready"), result.get("rss"));
+                results.add(result);
+            }
+        } finally {
+            redis.stop();
+        }
+        return report(results);
+    }
+
+    /**
+     * 启动一个用户模块进程，测量到第一个请求成功及到就绪的耗时，以及就绪后的常驻内存
+     *
+     * @param run       轮数
+     * @param redisPort
+     * @return firstRequest : 从启动进程到第一个注册请求成功的耗时；firstLatency : 这次请求本身的耗时；ready : 从启动进程到就绪的耗时，单位毫秒；
+     * rss : 就绪后进程的常驻内存，单位 MB
+     */
+    private Map<String, Object> runOnce(int run, int redisPort) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        for (String arg : jvmArgs.trim().split("\\s+")) {
+            if (!arg.isEmpty()) {
+                command.add(arg);
+            }
+        }
+        command.add("-cp");
+        command.add(classpath());
+        command.add(BootUserApplication.class.getName());
+        command.add("--spring.profiles.active=" + profiles);
+        command.add("--loadtest.redisPort=" + redisPort);
+        command.add("--server.port=" + port);
+
+        File log = new File(System.getProperty("java.io.tmpdir"), "boot-startup-" + run + ".log");
+        UserClient client = new UserClient("http://localhost:" + port);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout);
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start();
+        try {
+            long firstLatency;
+            while (true) {
+                long requestStart = System.nanoTime();
+                if (tryRegister(client, "startup-" + run)) {
+                    firstLatency = System.nanoTime() - requestStart;
+                    break;
+                }
+                waitOrFail(process, deadline, log);
+            }
+            long firstRequest = System.nanoTime() - start;
+
+            while (!tryHealth(client)) {
+                waitOrFail(process, deadline, log);
+            }
+            long ready = System.nanoTime() - start;
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("run", run);
+            result.put("firstRequest", TimeUnit.NANOSECONDS.toMillis(firstRequest));
+            result.put("firstLatency", TimeUnit.NANOSECONDS.toMillis(firstLatency));
+            result.put("ready", TimeUnit.NANOSECONDS.toMillis(ready));
+            result.put("rss", rssOf(process));
+            return result;
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static boolean tryRegister(UserClient client, String userName) {
+        try {
+            return client.register(userName, "password");
+        } catch (Exception e) {
+            // 端口还没有监听
+            return false;
+        }
+    }
+
+    private static boolean tryHealth(UserClient client) {
+        try {
+            return client.isHealthy();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static void waitOrFail(Process process, long deadline, File log) throws InterruptedException {
+        if (!process.isAlive()) {
+            throw new IllegalStateException("用户模块进程已退出，退出码 " + process.exitValue() + "，日志见 " + log.getAbsolutePath());
+        }
+        if (System.nanoTime() > deadline) {
+            throw new IllegalStateException("等待用户模块启动超时，日志见 " + log.getAbsolutePath());
+        }
+        TimeUnit.MILLISECONDS.sleep(5);
+    }
+
+    /**
+     * 打印并写入结果，检查阈值
+     *
+     * @return 是否通过
+     */
+    private boolean report(List<Map<String, Object>> results) throws Exception {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("profiles", profiles);
+        report.put("jvmArgs", jvmArgs);
+        report.put("runs", results);
+        System.out.printf("%n%-14s %10s %10s %10s%n", "", "min", "median", "max");
+        for (String name : Arrays.asList("firstRequest", "firstLatency", "ready", "rss")) {
+            long[] values = results.stream().mapToLong(result -> (Long) result.get(name)).sorted().toArray();
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("min", values[0]);
+            summary.put("median", values[values.length / 2]);
+            summary.put("max", values[values.length - 1]);
+            report.put(name, summary);
+            System.out.printf("%-14s %10d %10d %10d%n", name, values[0], values[values.length / 2],
+                    values[values.length - 1]);
+        }
+
+        boolean passed = true;
+        String maxFirstRequest = System.getProperty("startup.maxFirstRequest");
+        long median = (Long) ((Map<?, ?>) report.get("firstRequest")).get("median");
+        if (maxFirstRequest != null && median > Long.parseLong(maxFirstRequest)) {
+            System.out.printf("time-to-first-request 中位数 %dms 超过 %sms%n", median, maxFirstRequest);
+            passed = false;
+        }
+        String maxRss = System.getProperty("startup.maxRss");
+        long rss = (Long) ((Map<?, ?>) report.get("rss")).get("median");
+        if (maxRss != null && rss > Long.parseLong(maxRss)) {
+            System.out.printf("RSS 中位数 %dMB 超过 %sMB%n", rss, maxRss);
+            passed = false;
+        }
+
+        File file = new File(System.getProperty("startup.report", "startup-result.json"));
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("结果已写入 " + file.getAbsolutePath());
+        return passed;
+    }
+
+    /**
+     * 从 /proc/{pid}/status 读取进程的常驻内存
+     *
+     * @return 单位 MB，非 linux 或无法读取时返回 -1
+     */
+    private static long rssOf(Process process) {
+        try {
+            File status = new File("/proc/" + pidOf(process) + "/status");
+            for (String line : Files.readAllLines(status.toPath())) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", "")) / 1024;
+                }
+            }
+        } catch (Exception e) {
+            // 非 linux 或无法取得 pid
+        }
+        return -1;
+    }
+
+    /**
+     * java 9 以上使用 Process#pid，java 8 读取 UNIXProcess 的 pid 字段
+     */
+    private static long pidOf(Process process) throws ReflectiveOperationException {
+        try {
+            return (Long) Process.class.getMethod("pid").invoke(process);
+        } catch (NoSuchMethodException e) {
+            Field field = process.getClass().getDeclaredField("pid");
+            field.setAccessible(true);
+            return field.getInt(process);
+        }
+    }
+
+    /**
+     * exec:java 在独立的 URLClassLoader 中运行，java.class.path 是 maven 自身的 classpath，需要从 classloader 中取
+     */
+    private static String classpath() throws Exception {
+        String classpath = System.getProperty("startup.classpath");
+        if (classpath != null) {
+            return classpath;
+        }
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader instanceof URLClassLoader) {
+            StringJoiner joiner = new StringJoiner(File.pathSeparator);
+            for (URL url : ((URLClassLoader) loader).getURLs()) {
+                joiner.add(new File(url.toURI()).getPath());
+            }
+            return joiner.toString();
+        }
+        return System.getProperty("java.class.path");
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
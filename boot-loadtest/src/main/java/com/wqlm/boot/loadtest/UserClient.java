@@ -0,0 +1,103 @@
+package com.wqlm.boot.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 调用 UserController 的 http 客户端，各方法只关心返回的 Result 中的 status
+ * 使用 HttpURLConnection 的长连接，最大连接数由系统属性 http.maxConnections 决定，需要在第一次请求前设置
+ */
+class UserClient {
+
+    private final String baseUrl;
+
+    private final RestTemplate restTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    UserClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(5000);
+        requestFactory.setReadTimeout(30000);
+        this.restTemplate = new RestTemplate(requestFactory);
+        // 业务失败时接口返回 500，由调用方根据 Result 判断
+        this.restTemplate.setErrorHandler(new DefaultResponseErrorHandler() {
+            @Override
+            public boolean hasError(ClientHttpResponse response) throws IOException {
+                return false;
+            }
+        });
+    }
+
+    boolean register(String userName, String password) {
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("userName", userName);
+        form.add("password", password);
+        return isSuccess(post("/user/register", form));
+    }
+
+    /**
+     * @return 登陆成功时返回 token，否则返回 null
+     */
+    String login(String userName, String password) {
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("userName", userName);
+        form.add("password", password);
+        JsonNode result = post("/user/login", form);
+        return isSuccess(result) ? result.path("data").path("token").asText(null) : null;
+    }
+
+    boolean getUser(String token, long id) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("token", token);
+        return isSuccess(exchange("/user?id=" + id, HttpMethod.GET, new HttpEntity<>(headers)));
+    }
+
+    boolean modifyPassword(String token, String oldPassword, String newPassword) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("token", token);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        Map<String, String> body = new HashMap<>(4);
+        body.put("oldPassword", oldPassword);
+        body.put("newPassword", newPassword);
+        return isSuccess(exchange("/user/password", HttpMethod.PUT, new HttpEntity<>(body, headers)));
+    }
+
+    /**
+     * @return /actuator/health 是否返回 200，应用预热完成前返回 503
+     */
+    boolean isHealthy() {
+        return restTemplate.getForEntity(baseUrl + "/actuator/health", String.class).getStatusCode() == HttpStatus.OK;
+    }
+
+    private JsonNode post(String path, MultiValueMap<String, String> form) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        return exchange(path, HttpMethod.POST, new HttpEntity<>(form, headers));
+    }
+
+    private JsonNode exchange(String path, HttpMethod method, HttpEntity<?> entity) {
+        ResponseEntity<String> response = restTemplate.exchange(baseUrl + path, method, entity, String.class);
+        try {
+            return response.getBody() == null ? null : objectMapper.readTree(response.getBody());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static boolean isSuccess(JsonNode result) {
+        return result != null && result.path("status").asBoolean(false);
+    }
+}
@@ -0,0 +1,17 @@
+-- 压测使用的 h2 数据库的表结构，与 boot.sql 一致
+CREATE TABLE IF NOT EXISTS `user` (
+	`id` BIGINT NOT NULL,
+	`user_name` VARCHAR ( 255 ) NOT NULL,
+	`password` VARCHAR ( 255 ) NOT NULL,
+	`salt` VARCHAR ( 255 ) NOT NULL,
+	PRIMARY KEY ( `id` )
+);
+
+CREATE TABLE IF NOT EXISTS `user_event` (
+	`id` BIGINT NOT NULL AUTO_INCREMENT,
+	`type` VARCHAR ( 32 ) NOT NULL,
+	`user_id` BIGINT NOT NULL,
+	`user_name` VARCHAR ( 255 ) NOT NULL,
+	`create_time` DATETIME NOT NULL,
+	PRIMARY KEY ( `id` )
+);
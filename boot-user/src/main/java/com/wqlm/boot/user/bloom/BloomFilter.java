@@ -0,0 +1,20 @@
+package com.wqlm.boot.user.bloom;
+
+/**
+ * 布隆过滤器，mightContain 返回 false 时元素一定没有加入过，返回 true 时有 fpp 的概率误判
+ */
+public interface BloomFilter {
+
+    void put(String value);
+
+    /**
+     * 批量加入，用于启动时的全量加载
+     */
+    default void putAll(Iterable<String> values) {
+        for (String value : values) {
+            put(value);
+        }
+    }
+
+    boolean mightContain(String value);
+}
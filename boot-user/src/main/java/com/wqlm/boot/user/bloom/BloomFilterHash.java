@@ -0,0 +1,66 @@
+package com.wqlm.boot.user.bloom;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 布隆过滤器的位数组大小、哈希函数个数及 bit 下标的计算
+ * 对元素做一次 64 位哈希，用高低 32 位做双重哈希得到 k 个下标(Kirsch-Mitzenmacher)
+ */
+public final class BloomFilterHash {
+
+    private final long bitSize;
+
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions 预计的元素个数
+     * @param fpp                期望的误判率
+     */
+    public BloomFilterHash(long expectedInsertions, double fpp) {
+        long n = Math.max(1, expectedInsertions);
+        this.bitSize = Math.max(64, (long) (-n * Math.log(fpp) / (Math.log(2) * Math.log(2))));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / n * Math.log(2)));
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * @param value
+     * @return value 对应的 k 个 bit 下标
+     */
+    public long[] offsets(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long[] offsets = new long[hashCount];
+        long combined = h1;
+        for (int i = 0; i < hashCount; i++) {
+            offsets[i] = Math.floorMod(combined, bitSize);
+            combined += h2;
+        }
+        return offsets;
+    }
+
+    /**
+     * FNV-1a 64 位哈希，再用 murmur3 的 fmix64 打散
+     */
+    static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,44 @@
+package com.wqlm.boot.user.bloom;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 进程内的布隆过滤器，位数组为 AtomicLongArray，无锁
+ * 只能看到本进程加入的元素，多实例部署时应使用 RedisBloomFilter
+ */
+public class LocalBloomFilter implements BloomFilter {
+
+    private final BloomFilterHash hash;
+
+    private final AtomicLongArray bits;
+
+    public LocalBloomFilter(BloomFilterHash hash) {
+        this.hash = hash;
+        this.bits = new AtomicLongArray((int) ((hash.getBitSize() + 63) >>> 6));
+    }
+
+    @Override
+    public void put(String value) {
+        for (long offset : hash.offsets(value)) {
+            int index = (int) (offset >>> 6);
+            long mask = 1L << offset;
+            long word;
+            do {
+                word = bits.get(index);
+                if ((word & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(index, word, word | mask));
+        }
+    }
+
+    @Override
+    public boolean mightContain(String value) {
+        for (long offset : hash.offsets(value)) {
+            if ((bits.get((int) (offset >>> 6)) & (1L << offset)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
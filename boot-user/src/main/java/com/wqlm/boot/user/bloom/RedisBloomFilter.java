@@ -0,0 +1,94 @@
+package com.wqlm.boot.user.bloom;
+
+import com.wqlm.boot.user.util.redis.RedisOperator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基于 redis bitmap 的布隆过滤器，多个实例共享
+ * 位数组保存在 key 中，全量加载完成后将位数组之后的一个 bit(下标为 bitSize)设为 1 作为加载完成的标记
+ * 标记与位数组在同一个 key 中，key 被淘汰或丢失时标记也随之消失；
+ * 标记不为 1(未加载完成、key 丢失、已停用)时 mightContain 一律返回 true，不会误拒
+ */
+public class RedisBloomFilter implements BloomFilter {
+
+    private final BloomFilterHash hash;
+
+    private final RedisOperator redisOperator;
+
+    private final String key;
+
+    /**
+     * 加载完成标记的 bit 下标，位数组之后的第一个 bit
+     */
+    private final long readyOffset;
+
+    public RedisBloomFilter(BloomFilterHash hash, RedisOperator redisOperator, String key) {
+        this.hash = hash;
+        this.redisOperator = redisOperator;
+        this.key = key;
+        this.readyOffset = hash.getBitSize();
+    }
+
+    @Override
+    public void put(String value) {
+        redisOperator.setBits(key, toList(hash.offsets(value)));
+    }
+
+    @Override
+    public void putAll(Iterable<String> values) {
+        List<Long> offsets = new ArrayList<>();
+        for (String value : values) {
+            for (long offset : hash.offsets(value)) {
+                offsets.add(offset);
+            }
+        }
+        redisOperator.setBits(key, offsets);
+    }
+
+    /**
+     * 与加载完成标记一起读取，标记不为 1 时返回 true
+     */
+    @Override
+    public boolean mightContain(String value) {
+        long[] offsets = hash.offsets(value);
+        List<Long> list = new ArrayList<>(offsets.length + 1);
+        list.add(readyOffset);
+        for (long offset : offsets) {
+            list.add(offset);
+        }
+        List<Boolean> results = redisOperator.getBits(key, list);
+        if (!results.get(0)) {
+            return true;
+        }
+        return !results.contains(Boolean.FALSE);
+    }
+
+    /**
+     * @return 位数组是否已经完成了全量加载(可能由其他实例完成)
+     */
+    public boolean isReady() {
+        return redisOperator.getBits(key, Collections.singletonList(readyOffset)).get(0);
+    }
+
+    public void markReady() {
+        redisOperator.setBit(key, readyOffset, true);
+    }
+
+    /**
+     * 清除加载完成的标记，所有实例都不再使用该过滤器
+     */
+    public void invalidate() {
+        redisOperator.setBit(key, readyOffset, false);
+    }
+
+    private static List<Long> toList(long[] offsets) {
+        List<Long> list = new ArrayList<>(offsets.length);
+        for (long offset : offsets) {
+            list.add(offset);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,178 @@
+package com.wqlm.boot.user.bloom;
+
+import com.wqlm.boot.user.config.ApplicationProperty;
+import com.wqlm.boot.user.event.UserRegisteredEvent;
+import com.wqlm.boot.user.service.UserExportService;
+import com.wqlm.boot.user.util.redis.RedisOperator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 已注册用户名的布隆过滤器，登陆和注册时先判断用户名是否可能存在，一定不存在时不再查询数据库
+ * bloom.mode 选择实现 : none 不使用，local 进程内(只适合单实例)，redis 多实例共享的 redis bitmap
+ * 应用启动完成后在后台线程中流式读取所有用户名加载(redis 模式下已有实例加载过时跳过)，之后随注册增量更新
+ * 加载完成前、redis 出错、redis 中的位数组丢失时都视为用户名可能存在，只会多查数据库，不会误拒
+ */
+@Component
+public class UserNameFilter implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserNameFilter.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private RedisOperator redisOperator;
+
+    private BloomFilter filter;
+
+    private volatile boolean ready;
+
+    private volatile ExecutorService loader;
+
+    @PostConstruct
+    public void init() {
+        BloomFilterHash hash = new BloomFilterHash(applicationProperty.getBloomExpectedInsertions(),
+                applicationProperty.getBloomFpp());
+        switch (applicationProperty.getBloomMode()) {
+            case "local":
+                filter = new LocalBloomFilter(hash);
+                break;
+            case "redis":
+                // key 中包含位数组大小和哈希函数个数，修改参数后使用新的 bitmap 重新加载
+                filter = new RedisBloomFilter(hash, redisOperator,
+                        applicationProperty.getBloomKey() + ":" + hash.getBitSize() + ":" + hash.getHashCount());
+                break;
+            default:
+                filter = null;
+        }
+    }
+
+    /**
+     * 在后台线程中加载所有用户名，不阻塞启动，加载失败时不使用过滤器
+     * 应用关闭时中断加载
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (filter == null) {
+            return;
+        }
+        ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-name-filter-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        loader.execute(this::loadFilter);
+        loader.shutdown();
+        this.loader = loader;
+    }
+
+    private void loadFilter() {
+        long start = System.currentTimeMillis();
+        try {
+            if (filter instanceof RedisBloomFilter && ((RedisBloomFilter) filter).isReady()) {
+                ready = true;
+                logger.info("用户名布隆过滤器已由其他实例加载");
+                return;
+            }
+            List<String> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+            long count = userExportService.forEachUser(vo -> {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new LoadStoppedException();
+                }
+                batch.add(vo.getUserName());
+                if (batch.size() >= LOAD_BATCH_SIZE) {
+                    filter.putAll(batch);
+                    batch.clear();
+                }
+            });
+            filter.putAll(batch);
+            if (filter instanceof RedisBloomFilter) {
+                ((RedisBloomFilter) filter).markReady();
+            }
+            ready = true;
+            logger.info("用户名布隆过滤器加载完成，用户数 {}，耗时 {}ms", count, System.currentTimeMillis() - start);
+        } catch (LoadStoppedException e) {
+            logger.info("应用关闭，停止加载用户名布隆过滤器");
+        } catch (RuntimeException e) {
+            logger.warn("用户名布隆过滤器加载失败，登陆和注册将直接查询数据库", e);
+        }
+    }
+
+    /**
+     * 加载期间注册的用户也直接加入，加载完成后不会遗漏
+     * redis 写入失败时清除加载完成标记，使所有实例都不再使用过滤器，避免新用户被误拒，需要重启一个实例重新加载
+     */
+    @EventListener
+    public void onRegistered(UserRegisteredEvent event) {
+        if (filter == null) {
+            return;
+        }
+        try {
+            filter.put(event.getUserName());
+        } catch (RuntimeException e) {
+            logger.error("用户名 {} 加入布隆过滤器失败，停用过滤器", event.getUserName(), e);
+            ready = false;
+            if (filter instanceof RedisBloomFilter) {
+                try {
+                    ((RedisBloomFilter) filter).invalidate();
+                } catch (RuntimeException ex) {
+                    logger.error("删除布隆过滤器的加载完成标记失败", ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param userName
+     * @return false 表示用户名一定没有注册过
+     */
+    public boolean mightExist(String userName) {
+        if (!ready) {
+            return true;
+        }
+        try {
+            return filter.mightContain(userName.trim());
+        } catch (RuntimeException e) {
+            logger.warn("查询用户名布隆过滤器失败", e);
+            return true;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        ExecutorService loader = this.loader;
+        if (loader != null) {
+            loader.shutdownNow();
+        }
+    }
+
+
+    /**
+     * 应用关闭时抛出，停止读取用户
+     */
+    private static final class LoadStoppedException extends RuntimeException {
+
+        private static final long serialVersionUID = 6412530927541088217L;
+
+        LoadStoppedException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.wqlm.boot.user.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.*;
+import org.springframework.cache.Cache;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 缓存管理端点 /actuator/cacheadmin
+ * GET    /actuator/cacheadmin                         : 所有缓存的统计
+ * GET    /actuator/cacheadmin/{name}[?key=]           : 单个缓存的统计，指定 key 时同时返回缓存的值
+ * POST   /actuator/cacheadmin/{name} {keys, limit}    : 预热缓存，keys 为逗号分隔的 key，需要有对应的 CacheWarmer
+ * DELETE /actuator/cacheadmin/{name}[?key=]           : 清除指定的 key，不指定时清空整个缓存
+ * spring boot 自带的 caches 端点只能列出和清空缓存，不包含统计
+ */
+@Component
+@Endpoint(id = "cacheadmin")
+public class CacheAdminEndpoint {
+
+    private static final int DEFAULT_WARM_LIMIT = 1000;
+
+    @Autowired
+    private MeteredCacheManager cacheManager;
+
+    @Autowired
+    private List<CacheWarmer> warmers;
+
+    @ReadOperation
+    public Map<String, CacheStatistics.Snapshot> caches() {
+        Map<String, CacheStatistics.Snapshot> caches = new TreeMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            caches.put(name, cacheManager.getCache(name).getStatistics().snapshot());
+        }
+        return caches;
+    }
+
+    /**
+     * @param name
+     * @param key
+     * @return 缓存不存在时返回 null，即 404
+     */
+    @ReadOperation
+    public Map<String, Object> cache(@Selector String name, @Nullable String key) {
+        MeteredCache cache = findCache(name);
+        if (cache == null) {
+            return null;
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statistics", cache.getStatistics().snapshot());
+        if (key != null) {
+            Cache.ValueWrapper value = cache.peek(key);
+            result.put("key", key);
+            result.put("value", value == null ? null : value.get());
+        }
+        return result;
+    }
+
+    @WriteOperation
+    public Map<String, Object> warm(@Selector String name, @Nullable String keys, @Nullable Integer limit) {
+        for (CacheWarmer warmer : warmers) {
+            if (warmer.getCacheName().equals(name)) {
+                List<String> keyList = keys == null || keys.trim().isEmpty()
+                        ? Collections.emptyList() : Arrays.asList(keys.split(","));
+                int warmed = warmer.warm(keyList, limit == null ? DEFAULT_WARM_LIMIT : limit);
+                return Collections.singletonMap("warmed", warmed);
+            }
+        }
+        return null;
+    }
+
+    @DeleteOperation
+    public void evict(@Selector String name, @Nullable String key) {
+        MeteredCache cache = findCache(name);
+        if (cache == null) {
+            return;
+        }
+        if (key == null) {
+            cache.clear();
+        } else {
+            cache.evict(key);
+        }
+    }
+
+    /**
+     * redis 缓存管理器会为任意名称创建缓存，这里只返回已经存在的
+     */
+    private MeteredCache findCache(String name) {
+        return cacheManager.getCacheNames().contains(name) ? cacheManager.getCache(name) : null;
+    }
+}
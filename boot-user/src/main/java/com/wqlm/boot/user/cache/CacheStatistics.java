@@ -0,0 +1,114 @@
+package com.wqlm.boot.user.cache;
+
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个缓存自应用启动以来的统计
+ * 过期由 redis 完成，evictions 只包含主动清除(@CacheEvict、管理端点)的次数
+ */
+public class CacheStatistics {
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder puts = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder loads = new LongAdder();
+
+    private final LongAdder loadNanos = new LongAdder();
+
+    private final LongAdder entryBytes = new LongAdder();
+
+    void hit(long count) {
+        hits.add(count);
+    }
+
+    void miss(long count) {
+        misses.add(count);
+    }
+
+    void put(long count, long bytes) {
+        puts.add(count);
+        entryBytes.add(bytes);
+    }
+
+    void evict() {
+        evictions.increment();
+    }
+
+    void load(long nanos) {
+        loads.increment();
+        loadNanos.add(nanos);
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long putCount() {
+        return puts.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return 当前统计的快照，用于管理端点
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+
+    @Getter
+    public static final class Snapshot {
+
+        private final long hits;
+
+        private final long misses;
+
+        /**
+         * 命中率，没有读取过时为 0
+         */
+        private final double hitRatio;
+
+        private final long puts;
+
+        private final long evictions;
+
+        private final long loads;
+
+        /**
+         * 未命中时加载数据的平均耗时，单位毫秒
+         */
+        private final double averageLoadMillis;
+
+        /**
+         * 写入缓存的 value 的平均字节数
+         */
+        private final double averageEntryBytes;
+
+        private Snapshot(CacheStatistics statistics) {
+            this.hits = statistics.hits.sum();
+            this.misses = statistics.misses.sum();
+            this.hitRatio = hits + misses == 0 ? 0 : hits / (double) (hits + misses);
+            this.puts = statistics.puts.sum();
+            this.evictions = statistics.evictions.sum();
+            this.loads = statistics.loads.sum();
+            this.averageLoadMillis = loads == 0 ? 0
+                    : statistics.loadNanos.sum() / (double) loads / TimeUnit.MILLISECONDS.toNanos(1);
+            this.averageEntryBytes = puts == 0 ? 0 : statistics.entryBytes.sum() / (double) puts;
+        }
+    }
+}
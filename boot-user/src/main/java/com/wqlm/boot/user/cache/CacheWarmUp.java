@@ -0,0 +1,55 @@
+package com.wqlm.boot.user.cache;
+
+import com.wqlm.boot.user.config.ApplicationProperty;
+import com.wqlm.boot.user.startup.WarmUpTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 预热所有有 CacheWarmer 的缓存
+ * 优先加载 HotKeyStore 保存的热点 key(上次运行时访问最多的)；没有保存时由 CacheWarmer 决定，如 user 缓存按用户ID加载前 warmup.cacheSize 个用户
+ * 单个缓存预热失败时打印警告，继续预热下一个
+ */
+@Component
+@Order(20)
+public class CacheWarmUp implements WarmUpTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmUp.class);
+
+    @Autowired
+    private List<CacheWarmer> warmers;
+
+    @Autowired
+    private HotKeyStore hotKeyStore;
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    @Override
+    public String getName() {
+        return "cache";
+    }
+
+    @Override
+    public void warmUp() {
+        int limit = applicationProperty.getWarmupCacheSize();
+        for (CacheWarmer warmer : warmers) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            String name = warmer.getCacheName();
+            List<String> keys = hotKeyStore.load(name);
+            try {
+                int count = warmer.warm(keys, limit);
+                logger.info("缓存 {} 预热了 {} 个 key，来源 : {}", name, count, keys.isEmpty() ? "扫描" : "保存的热点 key");
+            } catch (Exception e) {
+                logger.warn("预热缓存 {} 失败", name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.wqlm.boot.user.cache;
+
+import java.util.List;
+
+/**
+ * 缓存预热，由 CacheAdminEndpoint 按缓存名称调用
+ */
+public interface CacheWarmer {
+
+    /**
+     * @return 负责预热的缓存名称
+     */
+    String getCacheName();
+
+    /**
+     * 将数据加载到缓存中
+     *
+     * @param keys  要预热的 key，为空时由实现决定预热哪些数据
+     * @param limit keys 为空时最多预热的个数
+     * @return 预热的个数
+     */
+    int warm(List<String> keys, int limit);
+}
@@ -0,0 +1,122 @@
+package com.wqlm.boot.user.cache;
+
+import com.wqlm.boot.user.config.ApplicationProperty;
+import com.wqlm.boot.user.util.redis.RedisOperator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 保存和读取各缓存的热点 key，重启后由 CacheWarmUp 按保存的 key 预热缓存
+ * 只保存有 CacheWarmer 的缓存，每隔 warmup.hotKeyInterval 毫秒及应用关闭时，
+ * 将访问最多的 warmup.cacheSize 个 key 以列表写入 redis 的 cache:hot:{缓存名称}，过期时间为 warmup.hotKeyTtl 秒
+ * 多个实例各自统计，后写入的覆盖先写入的；还没有记录到 key 时不写入，避免刚启动的实例清空已保存的 key
+ */
+@Component
+public class HotKeyStore implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotKeyStore.class);
+
+    private static final String KEY_PREFIX = "cache:hot:";
+
+    @Autowired
+    private MeteredCacheManager cacheManager;
+
+    @Autowired
+    private List<CacheWarmer> warmers;
+
+    @Autowired
+    private RedisOperator redisOperator;
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    private volatile ScheduledExecutorService executor;
+
+    /**
+     * 应用启动完成后开始定期保存
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long interval = applicationProperty.getWarmupHotKeyInterval();
+        if (interval <= 0) {
+            return;
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hot-key-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::save, interval, interval, TimeUnit.MILLISECONDS);
+        this.executor = executor;
+    }
+
+    /**
+     * 保存所有有 CacheWarmer 的缓存的热点 key，redis 出错时忽略
+     */
+    public void save() {
+        for (CacheWarmer warmer : warmers) {
+            MeteredCache cache = cacheManager.getCache(warmer.getCacheName());
+            if (cache == null) {
+                continue;
+            }
+            List<String> keys = cache.getHotKeys().top(applicationProperty.getWarmupCacheSize());
+            if (keys.isEmpty()) {
+                continue;
+            }
+            try {
+                redisOperator.set(KEY_PREFIX + cache.getName(), keys, applicationProperty.getWarmupHotKeyTtl());
+            } catch (Exception e) {
+                logger.warn("保存缓存 {} 的热点 key 失败", cache.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * 读取保存的热点 key
+     *
+     * @param cacheName
+     * @return 按访问次数降序，没有保存或 redis 出错时为空
+     */
+    public List<String> load(String cacheName) {
+        Object value;
+        try {
+            value = redisOperator.get(KEY_PREFIX + cacheName);
+        } catch (Exception e) {
+            logger.warn("读取缓存 {} 的热点 key 失败", cacheName, e);
+            return Collections.emptyList();
+        }
+        if (!(value instanceof List)) {
+            return Collections.emptyList();
+        }
+        List<String> keys = new ArrayList<>();
+        for (Object key : (List<?>) value) {
+            keys.add(String.valueOf(key));
+        }
+        return keys;
+    }
+
+    /**
+     * 停止定期保存，并保存最后一次
+     */
+    @Override
+    public void destroy() {
+        ScheduledExecutorService executor = this.executor;
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        save();
+    }
+}
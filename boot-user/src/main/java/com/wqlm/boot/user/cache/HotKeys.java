@@ -0,0 +1,93 @@
+package com.wqlm.boot.user.cache;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 采样统计缓存中访问最多的 key，用于重启后预热缓存
+ * 每 sampleRate 次访问随机记录一次；最多记录 capacity 个 key，记满时所有计数减半并移除减为 0 的 key，
+ * 近期的访问权重更高，偶尔被访问的 key 会被淘汰；减半后仍然记满时忽略新的 key
+ */
+public class HotKeys {
+
+    private final int capacity;
+
+    private final int sampleRate;
+
+    private final Map<String, AtomicLong> counts = new ConcurrentHashMap<>();
+
+    /**
+     * @param capacity   最多记录的 key 个数
+     * @param sampleRate 采样间隔，1 表示记录每一次访问
+     */
+    public HotKeys(int capacity, int sampleRate) {
+        this.capacity = capacity;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * 记录一次访问
+     *
+     * @param key
+     */
+    public void record(Object key) {
+        if (key == null || (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0)) {
+            return;
+        }
+        String name = key.toString();
+        AtomicLong count = counts.get(name);
+        if (count == null) {
+            if (counts.size() >= capacity && !decay()) {
+                return;
+            }
+            count = counts.computeIfAbsent(name, k -> new AtomicLong());
+        }
+        count.incrementAndGet();
+    }
+
+    /**
+     * @param n
+     * @return 访问次数最多的 n 个 key，按次数降序
+     */
+    public List<String> top(int n) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(counts.size());
+        for (Map.Entry<String, AtomicLong> entry : counts.entrySet()) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue().get()));
+        }
+        entries.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        List<String> keys = new ArrayList<>(Math.min(n, entries.size()));
+        for (int i = 0; i < entries.size() && i < n; i++) {
+            keys.add(entries.get(i).getKey());
+        }
+        return keys;
+    }
+
+    public int size() {
+        return counts.size();
+    }
+
+    /**
+     * 所有计数减半，移除减为 0 的 key
+     *
+     * @return 是否腾出了位置
+     */
+    private synchronized boolean decay() {
+        if (counts.size() < capacity) {
+            return true;
+        }
+        counts.entrySet().removeIf(entry -> {
+            AtomicLong count = entry.getValue();
+            long value;
+            do {
+                value = count.get();
+            } while (!count.compareAndSet(value, value / 2));
+            return value / 2 == 0;
+        });
+        return counts.size() < capacity;
+    }
+}
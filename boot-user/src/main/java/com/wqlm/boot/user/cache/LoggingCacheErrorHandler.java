@@ -0,0 +1,35 @@
+package com.wqlm.boot.user.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+
+/**
+ * @Cacheable 等注解读写缓存出错(如 redis 不可用)时只打印警告，不影响被缓存方法的执行
+ * 读取出错视为未命中，直接查询数据库；写入、清除出错时忽略，缓存中可能残留旧值，直到过期(cache.expireTime)
+ */
+public class LoggingCacheErrorHandler implements CacheErrorHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingCacheErrorHandler.class);
+
+    @Override
+    public void handleCacheGetError(RuntimeException exception, Cache cache, Object key) {
+        logger.warn("读取缓存 {} 的 {} 失败，视为未命中 : {}", cache.getName(), key, exception.toString());
+    }
+
+    @Override
+    public void handleCachePutError(RuntimeException exception, Cache cache, Object key, Object value) {
+        logger.warn("写入缓存 {} 的 {} 失败 : {}", cache.getName(), key, exception.toString());
+    }
+
+    @Override
+    public void handleCacheEvictError(RuntimeException exception, Cache cache, Object key) {
+        logger.warn("清除缓存 {} 的 {} 失败 : {}", cache.getName(), key, exception.toString());
+    }
+
+    @Override
+    public void handleCacheClearError(RuntimeException exception, Cache cache) {
+        logger.warn("清空缓存 {} 失败 : {}", cache.getName(), exception.toString());
+    }
+}
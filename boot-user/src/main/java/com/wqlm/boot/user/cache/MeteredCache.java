@@ -0,0 +1,227 @@
+package com.wqlm.boot.user.cache;
+
+import com.wqlm.boot.user.util.redis.PayloadSize;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 统计命中、未命中、写入、清除、加载耗时和 value 大小的缓存，实际的读写交给 delegate
+ * 加载耗时 : @Cacheable 未命中时，从读取缓存到同一个线程写入同一个 key 的时间，即执行被缓存方法的时间；
+ * sync = true 时为 valueLoader 的执行时间
+ * value 大小 : 写入时序列化后的字节数，需要缓存的 value 序列化器为 CountingRedisSerializer
+ * 热点 key : 采样记录读取的 key，由 HotKeyStore 定期保存，重启后用于预热
+ */
+public class MeteredCache implements Cache {
+
+    /**
+     * 最多记录的热点 key 个数
+     */
+    private static final int HOT_KEY_CAPACITY = 10000;
+
+    /**
+     * 每 8 次读取采样一次
+     */
+    private static final int HOT_KEY_SAMPLE_RATE = 8;
+
+    private final Cache delegate;
+
+    private final CacheStatistics statistics = new CacheStatistics();
+
+    private final HotKeys hotKeys = new HotKeys(HOT_KEY_CAPACITY, HOT_KEY_SAMPLE_RATE);
+
+    private final Timer loadTimer;
+
+    private final DistributionSummary entrySize;
+
+    /**
+     * 当前线程最近一次未命中的 key 及时间
+     */
+    private final ThreadLocal<PendingLoad> pendingLoad = new ThreadLocal<>();
+
+    /**
+     * @param delegate
+     * @param loadTimer cache.load 指标
+     * @param entrySize cache.entry.size 指标
+     */
+    MeteredCache(Cache delegate, Timer loadTimer, DistributionSummary entrySize) {
+        this.delegate = delegate;
+        this.loadTimer = loadTimer;
+        this.entrySize = entrySize;
+    }
+
+    static Tags tagsOf(String cacheName, String cacheManager) {
+        return Tags.of("cache", cacheName, "cacheManager", cacheManager);
+    }
+
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    public HotKeys getHotKeys() {
+        return hotKeys;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper value = delegate.get(key);
+        afterGet(key, value != null);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        T value = delegate.get(key, type);
+        afterGet(key, value != null);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        boolean[] loaded = new boolean[1];
+        hotKeys.record(key);
+        T value = delegate.get(key, () -> {
+            loaded[0] = true;
+            long start = System.nanoTime();
+            try {
+                return valueLoader.call();
+            } finally {
+                recordLoad(System.nanoTime() - start);
+            }
+        });
+        if (loaded[0]) {
+            statistics.miss(1);
+        } else {
+            statistics.hit(1);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        PayloadSize.reset();
+        delegate.put(key, value);
+        afterPut(key, 1, PayloadSize.get());
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        PayloadSize.reset();
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        afterPut(key, existing == null ? 1 : 0, PayloadSize.get());
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        statistics.evict();
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        statistics.evict();
+    }
+
+    /**
+     * 记录绕过 Cache 接口的批量读取(如 UserCache 的 MGET)的结果
+     *
+     * @param hits
+     * @param misses
+     */
+    public void recordBatchGet(int hits, int misses) {
+        statistics.hit(hits);
+        statistics.miss(misses);
+    }
+
+    /**
+     * 记录绕过 Cache 接口的批量读取的 key，用于统计热点 key
+     *
+     * @param keys
+     */
+    public void recordKeys(Collection<?> keys) {
+        for (Object key : keys) {
+            hotKeys.record(key);
+        }
+    }
+
+    /**
+     * 读取缓存，不计入统计，用于管理端点查看缓存的值
+     *
+     * @param key
+     * @return
+     */
+    public ValueWrapper peek(Object key) {
+        return delegate.get(key);
+    }
+
+    /**
+     * 记录一次绕过 Cache 接口的写入(如 UserCache 的 pipeline 批量写入)
+     *
+     * @param bytes value 序列化后的字节数
+     */
+    public void recordPut(long bytes) {
+        statistics.put(1, bytes);
+        entrySize.record(bytes);
+    }
+
+    private void afterGet(Object key, boolean hit) {
+        hotKeys.record(key);
+        if (hit) {
+            statistics.hit(1);
+            pendingLoad.remove();
+        } else {
+            statistics.miss(1);
+            pendingLoad.set(new PendingLoad(key, System.nanoTime()));
+        }
+    }
+
+    private void afterPut(Object key, int count, long bytes) {
+        statistics.put(count, bytes);
+        if (count > 0) {
+            entrySize.record(bytes);
+        }
+        PendingLoad pending = pendingLoad.get();
+        if (pending != null) {
+            pendingLoad.remove();
+            if (Objects.equals(pending.key, key)) {
+                recordLoad(System.nanoTime() - pending.startNanos);
+            }
+        }
+    }
+
+    private void recordLoad(long nanos) {
+        statistics.load(nanos);
+        loadTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+
+    private static final class PendingLoad {
+
+        private final Object key;
+
+        private final long startNanos;
+
+        PendingLoad(Object key, long startNanos) {
+            this.key = key;
+            this.startNanos = startNanos;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.wqlm.boot.user.cache;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 为 delegate 创建的每个缓存包装一个 MeteredCache，并注册以下指标，tag cache 为缓存名称
+ * cache.gets(result=hit/miss)、cache.puts、cache.evictions : 见 CacheStatistics
+ * cache.load       : 未命中时加载数据的耗时
+ * cache.entry.size : 写入的 value 的字节数
+ */
+public class MeteredCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final String name;
+
+    private final ConcurrentMap<String, MeteredCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate
+     * @param meterRegistry
+     * @param name          缓存管理器的名称，作为指标的 cacheManager tag
+     */
+    public MeteredCacheManager(CacheManager delegate, MeterRegistry meterRegistry, String name) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.name = name;
+    }
+
+    @Override
+    public MeteredCache getCache(String cacheName) {
+        MeteredCache cache = caches.get(cacheName);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(cacheName);
+        if (target == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(cacheName, key -> create(target));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    private MeteredCache create(Cache target) {
+        Tags tags = MeteredCache.tagsOf(target.getName(), name);
+        Timer loadTimer = Timer.builder("cache.load")
+                .description("缓存未命中时加载数据的耗时")
+                .tags(tags)
+                .register(meterRegistry);
+        DistributionSummary entrySize = DistributionSummary.builder("cache.entry.size")
+                .description("写入缓存的 value 的字节数")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(meterRegistry);
+        MeteredCache cache = new MeteredCache(target, loadTimer, entrySize);
+        new MeteredCacheMetrics(cache, name).bindTo(meterRegistry);
+        return cache;
+    }
+}
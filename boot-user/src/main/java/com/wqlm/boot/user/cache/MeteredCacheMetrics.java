@@ -0,0 +1,48 @@
+package com.wqlm.boot.user.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * 以 micrometer 的标准缓存指标(cache.gets、cache.puts、cache.evictions)导出 MeteredCache 的统计
+ * redis 中的缓存个数需要扫描 key 才能得到，不导出 cache.size
+ */
+class MeteredCacheMetrics extends CacheMeterBinder {
+
+    private final CacheStatistics statistics;
+
+    MeteredCacheMetrics(MeteredCache cache, String cacheManager) {
+        super(cache, cache.getName(), Tags.of("cacheManager", cacheManager));
+        this.statistics = cache.getStatistics();
+    }
+
+    @Override
+    protected Long size() {
+        return null;
+    }
+
+    @Override
+    protected long hitCount() {
+        return statistics.hitCount();
+    }
+
+    @Override
+    protected Long missCount() {
+        return statistics.missCount();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        return statistics.evictionCount();
+    }
+
+    @Override
+    protected long putCount() {
+        return statistics.putCount();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+    }
+}
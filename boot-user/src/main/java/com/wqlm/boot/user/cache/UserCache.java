@@ -0,0 +1,122 @@
+package com.wqlm.boot.user.cache;
+
+import com.wqlm.boot.user.config.ApplicationProperty;
+import com.wqlm.boot.user.vo.UserVO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 用户信息缓存的批量读写
+ * 与 spring cache 中名为 user 的缓存共用 key 和序列化方式，key 为 user::用户ID
+ * 单个用户的读写由 @Cacheable 等注解完成，这里只负责 spring cache 不支持的批量操作
+ */
+@Component
+public class UserCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserCache.class);
+
+    /**
+     * spring cache 中用户信息缓存的名称
+     */
+    public static final String CACHE_NAME = "user";
+
+    private static final String KEY_PREFIX = CACHE_NAME + "::";
+
+    private static final StringRedisSerializer KEY_SERIALIZER = new StringRedisSerializer();
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private RedisSerializer<Object> cacheValueSerializer;
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    @Autowired
+    private MeteredCacheManager cacheManager;
+
+    /**
+     * 实现命令 : MGET user::id1 [user::id2 ...]
+     * 一次读取多个用户的缓存，redis 出错时视为全部未命中
+     * 命中和未命中的个数计入 user 缓存的统计，读取的 key 计入热点 key
+     *
+     * @param ids
+     * @return 命中缓存的 用户ID-用户信息
+     */
+    public Map<Long, UserVO> getAll(Collection<Long> ids) {
+        Map<Long, UserVO> hits = new HashMap<>(ids.size() * 2);
+        if (ids.isEmpty()) {
+            return hits;
+        }
+
+        List<Long> idList = new ArrayList<>(ids);
+        byte[][] keys = new byte[idList.size()][];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = KEY_SERIALIZER.serialize(KEY_PREFIX + idList.get(i));
+        }
+
+        List<byte[]> values;
+        try {
+            values = redisTemplate.execute((RedisCallback<List<byte[]>>) connection -> connection.mGet(keys));
+        } catch (Exception e) {
+            logger.warn("批量读取用户缓存失败", e);
+            values = null;
+        }
+
+        if (values != null) {
+            for (int i = 0; i < values.size(); i++) {
+                byte[] value = values.get(i);
+                if (value != null) {
+                    hits.put(idList.get(i), (UserVO) cacheValueSerializer.deserialize(value));
+                }
+            }
+        }
+        MeteredCache cache = cacheManager.getCache(CACHE_NAME);
+        cache.recordBatchGet(hits.size(), idList.size() - hits.size());
+        cache.recordKeys(idList);
+        return hits;
+    }
+
+    /**
+     * 实现命令 : SET user::id value EX 秒 (pipeline)
+     * 通过 pipeline 一次写入多个用户的缓存，过期时间与 spring cache 一致，redis 出错时忽略
+     *
+     * @param users 用户ID-用户信息
+     */
+    public void putAll(Map<Long, UserVO> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        Expiration expiration = Expiration.seconds(applicationProperty.getCacheExpireTime());
+        List<Integer> sizes = new ArrayList<>(users.size());
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Map.Entry<Long, UserVO> entry : users.entrySet()) {
+                    byte[] value = cacheValueSerializer.serialize(entry.getValue());
+                    sizes.add(value.length);
+                    connection.set(KEY_SERIALIZER.serialize(KEY_PREFIX + entry.getKey()), value,
+                            expiration, RedisStringCommands.SetOption.UPSERT);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            logger.warn("批量写入用户缓存失败", e);
+            return;
+        }
+        MeteredCache cache = cacheManager.getCache(CACHE_NAME);
+        for (int size : sizes) {
+            cache.recordPut(size);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.wqlm.boot.user.cache;
+
+import com.wqlm.boot.user.service.UserService;
+import com.wqlm.boot.user.vo.UserVO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预热 user 缓存
+ * 指定了用户ID时加载这些用户中未缓存的；没有指定时按用户ID升序加载前 limit 个用户
+ */
+@Component
+public class UserCacheWarmer implements CacheWarmer {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Override
+    public String getCacheName() {
+        return UserCache.CACHE_NAME;
+    }
+
+    @Override
+    public int warm(List<String> keys, int limit) {
+        if (!keys.isEmpty()) {
+            List<Long> ids = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                ids.add(Long.valueOf(key.trim()));
+            }
+            return userService.getUsers(ids).size();
+        }
+
+        List<UserVO> users = userService.listFirstUsers(limit);
+        Map<Long, UserVO> map = new LinkedHashMap<>(users.size() * 2);
+        for (UserVO user : users) {
+            map.put(user.getId(), user);
+        }
+        userCache.putAll(map);
+        return map.size();
+    }
+}
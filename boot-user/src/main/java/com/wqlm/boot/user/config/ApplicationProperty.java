@@ -20,7 +20,171 @@ public class ApplicationProperty {
     @Value("${sessionTtl}")
     private int sessionTtl;
 
-    public String[] getNoAuthUrls() {
-        return noAuthUrls.split(",");
-    }
+    @Value("${execution.mode:sync}")
+    private String executionMode;
+
+    @Value("${execution.poolSize:200}")
+    private int executionPoolSize;
+
+    @Value("${execution.queueCapacity:10000}")
+    private int executionQueueCapacity;
+
+    @Value("${execution.timeout:30000}")
+    private long executionTimeout;
+
+    @Value("${reactive.jdbcPoolSize:10}")
+    private int reactiveJdbcPoolSize;
+
+    @Value("${replica.urls:}")
+    private String replicaUrls;
+
+    @Value("${replica.checkInterval:5000}")
+    private long replicaCheckInterval;
+
+    @Value("${replica.stickyTime:0}")
+    private long replicaStickyTime;
+
+    @Value("${shard.urls:}")
+    private String shardUrls;
+
+    @Value("${id.workerId:0}")
+    private int idWorkerId;
+
+    @Value("${id.maxDrift:5000}")
+    private long idMaxDrift;
+
+    @Value("${id.segment.step:1000}")
+    private int idSegmentStep;
+
+    @Value("${id.segment.key:id:user}")
+    private String idSegmentKey;
+
+    @Value("${search.enabled:false}")
+    private boolean searchEnabled;
+
+    @Value("${search.maxUsers:1000000}")
+    private long searchMaxUsers;
+
+    @Value("${bloom.mode:none}")
+    private String bloomMode;
+
+    @Value("${bloom.expectedInsertions:10000000}")
+    private long bloomExpectedInsertions;
+
+    @Value("${bloom.fpp:0.001}")
+    private double bloomFpp;
+
+    @Value("${bloom.key:bloom:user:name}")
+    private String bloomKey;
+
+    @Value("${login.limitEnabled:true}")
+    private boolean loginLimitEnabled;
+
+    @Value("${login.window:900}")
+    private int loginWindow;
+
+    @Value("${login.delayAfter:3}")
+    private int loginDelayAfter;
+
+    @Value("${login.delayBase:1000}")
+    private long loginDelayBase;
+
+    @Value("${login.delayMax:60000}")
+    private long loginDelayMax;
+
+    @Value("${login.userLockThreshold:10}")
+    private int loginUserLockThreshold;
+
+    @Value("${login.ipLockThreshold:100}")
+    private int loginIpLockThreshold;
+
+    @Value("${login.trustedProxies:10.0.0.0/8,172.16.0.0/12,192.168.0.0/16,127.0.0.0/8,::1}")
+    private String loginTrustedProxies;
+
+    @Value("${redis.slowThreshold:50}")
+    private long redisSlowThreshold;
+
+    @Value("${redis.commandTimeouts:}")
+    private String redisCommandTimeouts;
+
+    @Value("${redis.breaker.failureThreshold:5}")
+    private int redisBreakerFailureThreshold;
+
+    @Value("${redis.breaker.openTime:5000}")
+    private long redisBreakerOpenTime;
+
+    @Value("${redis.bulkhead.maxConcurrent:64}")
+    private int redisBulkheadMaxConcurrent;
+
+    @Value("${redis.bulkhead.maxWait:20}")
+    private long redisBulkheadMaxWait;
+
+    @Value("${redis.fallback.maxSize:10000}")
+    private int redisFallbackMaxSize;
+
+    @Value("${redis.fallback.maxStaleness:300}")
+    private int redisFallbackMaxStaleness;
+
+    @Value("${sql.slowThreshold:100}")
+    private long sqlSlowThreshold;
+
+    @Value("${sql.slowLogSize:100}")
+    private int sqlSlowLogSize;
+
+    @Value("${outbox.relayEnabled:true}")
+    private boolean outboxRelayEnabled;
+
+    @Value("${outbox.sinks:local}")
+    private String outboxSinks;
+
+    @Value("${outbox.interval:1000}")
+    private long outboxInterval;
+
+    @Value("${outbox.batchSize:100}")
+    private int outboxBatchSize;
+
+    @Value("${outbox.streamKey:user:events}")
+    private String outboxStreamKey;
+
+    @Value("${outbox.streamMaxLen:100000}")
+    private long outboxStreamMaxLen;
+
+    @Value("${trace.enabled:true}")
+    private boolean traceEnabled;
+
+    @Value("${trace.sampleRate:0.01}")
+    private double traceSampleRate;
+
+    @Value("${trace.exporter:none}")
+    private String traceExporter;
+
+    @Value("${trace.file:logs/spans.json}")
+    private String traceFile;
+
+    @Value("${trace.bufferSize:10000}")
+    private int traceBufferSize;
+
+    @Value("${startup.exitWhenReady:false}")
+    private boolean startupExitWhenReady;
+
+    @Value("${warmup.enabled:true}")
+    private boolean warmupEnabled;
+
+    @Value("${warmup.timeout:60000}")
+    private long warmupTimeout;
+
+    @Value("${warmup.iterations:2000}")
+    private int warmupIterations;
+
+    @Value("${warmup.queries:200}")
+    private int warmupQueries;
+
+    @Value("${warmup.cacheSize:1000}")
+    private int warmupCacheSize;
+
+    @Value("${warmup.hotKeyInterval:300000}")
+    private long warmupHotKeyInterval;
+
+    @Value("${warmup.hotKeyTtl:604800}")
+    private int warmupHotKeyTtl;
 }
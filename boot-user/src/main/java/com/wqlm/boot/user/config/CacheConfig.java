@@ -3,10 +3,14 @@ package com.wqlm.boot.user.config;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wqlm.boot.user.cache.LoggingCacheErrorHandler;
+import com.wqlm.boot.user.cache.MeteredCacheManager;
+import com.wqlm.boot.user.util.redis.CountingRedisSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -15,6 +19,7 @@ import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.lang.reflect.Method;
@@ -28,6 +33,17 @@ public class CacheConfig extends CachingConfigurerSupport {
     @Autowired
     private  ApplicationProperty applicationProperty;
 
+    /**
+     * 缓存出错时降级为直接执行被缓存的方法，redis 不可用时查询用户信息仍然可用，见 LoggingCacheErrorHandler
+     *
+     * @return
+     */
+    @Override
+    @Bean
+    public CacheErrorHandler errorHandler() {
+        return new LoggingCacheErrorHandler();
+    }
+
     /**
      * 配置@Cacheable、@CacheEvict等注解在没有指定Key的情况下，key生成策略
      * 该配置作用于缓存管理器管理的所有缓存
@@ -57,31 +73,44 @@ public class CacheConfig extends CachingConfigurerSupport {
 
 
     /**
-     * 配置缓存管理器
+     * 缓存 value 的 json 序列化器 - Jackson2JsonRedisSerializer
+     * 序列化结果中带有类型信息，直接读取缓存(如 UserCache 的批量读取)时也需要使用该序列化器
+     * 外层的 CountingRedisSerializer 用于统计写入缓存的 value 大小
      */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory factory) {
-        // 配置 json 序列化器 - Jackson2JsonRedisSerializer
+    public RedisSerializer<Object> cacheValueSerializer() {
         Jackson2JsonRedisSerializer<Object> jacksonSerializer = new Jackson2JsonRedisSerializer<>(Object.class);
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
         objectMapper.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_FINAL);
         jacksonSerializer.setObjectMapper(objectMapper);
+        return new CountingRedisSerializer<>(jacksonSerializer);
+    }
 
+
+    /**
+     * 配置缓存管理器
+     * 外层的 MeteredCacheManager 统计每个缓存的命中率、加载耗时等指标，见 CacheAdminEndpoint
+     */
+    @Bean
+    public MeteredCacheManager cacheManager(RedisConnectionFactory factory, RedisSerializer<Object> cacheValueSerializer,
+                                            MeterRegistry meterRegistry) {
         //关键点，spring cache 的注解使用的序列化都从这来，没有这个配置的话使用的jdk自己的序列化，实际上不影响使用，只是打印出来不适合人眼识别
         RedisCacheConfiguration cacheConfig = RedisCacheConfiguration.defaultCacheConfig()
                 // 将 key 序列化成字符串
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 // 将 value 序列化成 json
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(jacksonSerializer))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(cacheValueSerializer))
                 // 设置缓存过期时间，单位秒
                 .entryTtl(Duration.ofSeconds(applicationProperty.getCacheExpireTime()))
                 // 不缓存空值
                 .disableCachingNullValues();
 
-        return RedisCacheManager.builder(factory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(factory)
                 .cacheDefaults(cacheConfig)
                 .build();
+        redisCacheManager.afterPropertiesSet();
+        return new MeteredCacheManager(redisCacheManager, meterRegistry, "cacheManager");
     }
 
 }
@@ -0,0 +1,136 @@
+package com.wqlm.boot.user.config;
+
+import com.wqlm.boot.user.trace.Tracer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 请求执行模式配置，通过 execution.mode 选择
+ * sync : 默认，接口在 tomcat 工作线程中同步执行
+ * async : 接口返回 Callable，在专用线程池 userExecutor 中执行，见 ResultExecutor
+ * virtual : 将 tomcat 的工作线程池替换为虚拟线程，需要运行在 JDK 21 及以上
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ExecutionConfig implements WebMvcConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionConfig.class);
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    @Autowired
+    private Tracer tracer;
+
+    @Autowired
+    @Qualifier("userExecutor")
+    private ObjectProvider<ThreadPoolTaskExecutor> userExecutorProvider;
+
+    /**
+     * async 模式下执行接口的专用线程池
+     * 线程池满且队列满时抛出 TaskRejectedException，由统一异常处理返回失败结果
+     * 任务在提交线程的当前 span 下执行，span 和日志的 traceId 延续到线程池中
+     * 同时传递 RequestAttributes，线程池中仍能通过 RequestContextHolder 取到当前请求(如读写分离按 token 粘主库)
+     */
+    @Bean
+    @ConditionalOnProperty(name = "execution.mode", havingValue = "async")
+    public ThreadPoolTaskExecutor userExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(applicationProperty.getExecutionPoolSize());
+        executor.setMaxPoolSize(applicationProperty.getExecutionPoolSize());
+        executor.setQueueCapacity(applicationProperty.getExecutionQueueCapacity());
+        executor.setThreadNamePrefix("user-exec-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setTaskDecorator(task -> tracer.wrap(withRequestAttributes(task)));
+        return executor;
+    }
+
+    /**
+     * virtual 模式下，将 tomcat 的工作线程池替换为每个任务一个虚拟线程的线程池
+     * 当前 JDK 不支持虚拟线程时，保留 tomcat 默认线程池
+     */
+    @Bean
+    @ConditionalOnProperty(name = "execution.mode", havingValue = "virtual")
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadCustomizer() {
+        return factory -> {
+            ExecutorService executor = newVirtualThreadPerTaskExecutor();
+            if (executor == null) {
+                logger.warn("当前 JDK {} 不支持虚拟线程，继续使用 tomcat 默认线程池", System.getProperty("java.version"));
+                return;
+            }
+            factory.addConnectorCustomizers(connector -> connector.getProtocolHandler().setExecutor(executor));
+            logger.info("tomcat 工作线程已替换为虚拟线程");
+        };
+    }
+
+    /**
+     * 配置 servlet 异步请求的线程池和超时时间
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        ThreadPoolTaskExecutor userExecutor = userExecutorProvider.getIfAvailable();
+        if (userExecutor != null) {
+            configurer.setTaskExecutor(userExecutor);
+        }
+        configurer.setDefaultTimeout(applicationProperty.getExecutionTimeout());
+    }
+
+    /**
+     * 在提交线程的 RequestAttributes 下执行任务，执行完恢复线程原有的 RequestAttributes
+     * servlet 异步请求在 Callable 执行完之前不会结束，请求对象在线程池中仍然有效
+     *
+     * @param task
+     * @return 提交线程没有 RequestAttributes 时返回原任务
+     */
+    static Runnable withRequestAttributes(Runnable task) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return task;
+        }
+        return () -> {
+            RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+            RequestContextHolder.setRequestAttributes(attributes);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    RequestContextHolder.resetRequestAttributes();
+                } else {
+                    RequestContextHolder.setRequestAttributes(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * 字节码仍以 1.8 为目标，所以通过反射调用 JDK 21 的 Executors.newVirtualThreadPerTaskExecutor()
+     *
+     * @return 不支持虚拟线程时返回 null
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
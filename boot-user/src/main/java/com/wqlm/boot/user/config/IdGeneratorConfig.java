@@ -0,0 +1,42 @@
+package com.wqlm.boot.user.config;
+
+import com.wqlm.boot.user.shard.ShardRouter;
+import com.wqlm.boot.user.util.id.FallbackIdGenerator;
+import com.wqlm.boot.user.util.id.IdGenerator;
+import com.wqlm.boot.user.util.id.SegmentIdGenerator;
+import com.wqlm.boot.user.util.id.SnowflakeIdGenerator;
+import com.wqlm.boot.user.util.id.UserIdGenId;
+import com.wqlm.boot.user.util.redis.RedisOperator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * 用户ID生成器配置
+ * 优先使用雪花算法，降级时使用 redis 计数器分配号段，模数为分片数，ID 与分片的对应规则见 ShardRouter
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    /**
+     * 创建时设置 UserIdGenId 的生成方法，没有其他 bean 依赖它，延迟初始化时也要在启动时创建
+     */
+    @Bean
+    @Lazy(false)
+    public IdGenerator userIdGenerator(ShardRouter shardRouter, RedisOperator redisOperator) {
+        int modulus = shardRouter.getShardCount();
+        SnowflakeIdGenerator snowflake = new SnowflakeIdGenerator(applicationProperty.getIdWorkerId(), modulus,
+                applicationProperty.getIdMaxDrift());
+        String key = applicationProperty.getIdSegmentKey();
+        SegmentIdGenerator segment = new SegmentIdGenerator(size -> redisOperator.inCrBy(key, (long) size),
+                applicationProperty.getIdSegmentStep(), modulus);
+
+        IdGenerator generator = new FallbackIdGenerator(snowflake, segment);
+        UserIdGenId.setIdSupplier(() -> generator.nextId(shardRouter.currentIdResidue()));
+        return generator;
+    }
+}
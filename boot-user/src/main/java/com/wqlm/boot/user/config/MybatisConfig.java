@@ -0,0 +1,33 @@
+package com.wqlm.boot.user.config;
+
+import com.wqlm.boot.user.mybatis.SlowStatementLog;
+import com.wqlm.boot.user.mybatis.StatementMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * mybatis 插件配置，Interceptor 类型的 bean 会被 mybatis 的自动配置加入 SqlSessionFactory
+ */
+@Configuration
+public class MybatisConfig {
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    @Bean
+    public SlowStatementLog slowStatementLog() {
+        return new SlowStatementLog(applicationProperty.getSqlSlowLogSize());
+    }
+
+    /**
+     * 统计每个 mapper 方法的耗时、行数，并记录慢 sql
+     */
+    @Bean
+    public StatementMetricsInterceptor statementMetricsInterceptor(MeterRegistry meterRegistry,
+                                                                   SlowStatementLog slowStatementLog) {
+        return new StatementMetricsInterceptor(meterRegistry, applicationProperty.getSqlSlowThreshold(),
+                slowStatementLog);
+    }
+}
@@ -0,0 +1,87 @@
+package com.wqlm.boot.user.config;
+
+import com.wqlm.boot.user.datasource.HikariDataSources;
+import com.wqlm.boot.user.datasource.ReadOnlyAspect;
+import com.wqlm.boot.user.datasource.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离数据源配置，只有配置了 replica.urls 且没有配置分库(shard.urls)时才生效
+ * 主库使用 spring.datasource.* 配置，从库复用主库的用户名、密码及 spring.datasource.hikari.* 连接池配置，只替换 url
+ * 由于没有单独的 HikariDataSource bean，所有连接池的监控指标在这里手动注册
+ */
+@Configuration
+@ConditionalOnExpression("!environment.getProperty('replica.urls', '').isEmpty()"
+        + " && environment.getProperty('shard.urls', '').isEmpty()")
+public class ReadWriteDataSourceConfig {
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    @Bean
+    public ReadWriteRoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+                                                 ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable();
+
+        HikariDataSource primary = HikariDataSources.fromProperties(properties, environment);
+
+        // 连接池在第一次获取连接时才初始化，从库不可用时不影响启动
+        List<HikariDataSource> replicas = new ArrayList<>();
+        String[] urls = applicationProperty.getReplicaUrls().split(",");
+        for (int i = 0; i < urls.length; i++) {
+            HikariDataSource replica = HikariDataSources.copyOf(primary, urls[i], primary.getPoolName() + "-replica-" + i);
+            HikariDataSources.bindMetrics(replica, meterRegistry);
+            replicas.add(replica);
+        }
+        HikariDataSources.bindMetrics(primary, meterRegistry);
+
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(primary, replicas,
+                applicationProperty.getReplicaCheckInterval(), applicationProperty.getReplicaStickyTime(),
+                ReadWriteDataSourceConfig::currentToken);
+
+        if (meterRegistry != null) {
+            for (int i = 0; i < dataSource.getReplicaCount(); i++) {
+                int index = i;
+                Gauge.builder("datasource.replica.healthy", dataSource, ds -> ds.isReplicaHealthy(index) ? 1 : 0)
+                        .tag("pool", dataSource.getReplicaPoolName(index))
+                        .description("从库是否健康，1 健康，0 已剔除")
+                        .register(meterRegistry);
+            }
+        }
+        return dataSource;
+    }
+
+    @Bean
+    public ReadOnlyAspect readOnlyAspect() {
+        return new ReadOnlyAspect();
+    }
+
+    /**
+     * 以当前请求的 token 作为 sticky key，非 web 请求返回 null
+     * async 模式下由 userExecutor 的 TaskDecorator 将 RequestAttributes 传递到线程池，见 ExecutionConfig
+     *
+     * @return
+     */
+    static String currentToken() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            return ((ServletRequestAttributes) attributes).getRequest().getHeader("token");
+        }
+        return null;
+    }
+}
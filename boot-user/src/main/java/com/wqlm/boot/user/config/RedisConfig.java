@@ -4,13 +4,23 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.wqlm.boot.user.util.redis.*;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.TimeoutOptions;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.*;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
+
 @Configuration
 public class RedisConfig {
     
@@ -24,6 +34,8 @@ public class RedisConfig {
                 .registerModule(new Jdk8Module())
                 .registerModule(new JavaTimeModule());
         jacksonSerializer.setObjectMapper(objectMapper);
+        // 统计每个命令读写的字节数
+        RedisSerializer<Object> valueSerializer = new CountingRedisSerializer<>(jacksonSerializer);
 
         // 创建并配置自定义 RedisTemplateRedisOperator
         RedisTemplate<String, Object> template = new RedisTemplate<>();
@@ -32,14 +44,56 @@ public class RedisConfig {
         // 将 hash 的 key 序列化成字符串
         template.setHashKeySerializer(new StringRedisSerializer());
         // 将 value 序列化成 json
-        template.setValueSerializer(jacksonSerializer);
+        template.setValueSerializer(valueSerializer);
         // 将 hash 的 value 序列化成 json
-        template.setHashValueSerializer(jacksonSerializer);
+        template.setHashValueSerializer(valueSerializer);
         // 设置连接器
         template.setConnectionFactory(redisConnectionFactory);
         return template;
     }
 
+    /**
+     * 统计 RedisOperator 每个命令的耗时、错误数和数据量
+     */
+    @Bean
+    public RedisOperatorMetricsAspect redisOperatorMetricsAspect(MeterRegistry meterRegistry,
+                                                                 ApplicationProperty applicationProperty) {
+        return new RedisOperatorMetricsAspect(meterRegistry, applicationProperty.getRedisSlowThreshold());
+    }
+
+    /**
+     * RedisOperator 的熔断、舱壁和本地降级，见 RedisResilienceAspect
+     */
+    @Bean
+    public RedisResilienceAspect redisResilienceAspect(MeterRegistry meterRegistry,
+                                                       ApplicationProperty applicationProperty) {
+        RedisCircuitBreaker breaker = new RedisCircuitBreaker(applicationProperty.getRedisBreakerFailureThreshold(),
+                applicationProperty.getRedisBreakerOpenTime());
+        LocalFallbackCache fallbackCache = new LocalFallbackCache(applicationProperty.getRedisFallbackMaxSize(),
+                applicationProperty.getRedisFallbackMaxStaleness() * 1000L);
+        return new RedisResilienceAspect(breaker, applicationProperty.getRedisBulkheadMaxConcurrent(),
+                applicationProperty.getRedisBulkheadMaxWait(), fallbackCache, meterRegistry);
+    }
+
+    /**
+     * lettuce 按 redis.commandTimeouts 为每种命令设置超时时间，未配置的命令使用 spring.redis.timeout；
+     * 连接断开期间直接拒绝命令，而不是缓存在队列中等待重连，由 RedisResilienceAspect 降级
+     */
+    @Bean
+    public LettuceClientConfigurationBuilderCustomizer lettuceResilienceCustomizer(RedisProperties redisProperties,
+                                                                                 ApplicationProperty applicationProperty) {
+        Duration timeout = redisProperties.getTimeout();
+        TimeoutOptions timeoutOptions = TimeoutOptions.builder()
+                .timeoutSource(CommandTimeoutSource.parse(applicationProperty.getRedisCommandTimeouts(),
+                        (timeout == null ? RedisURI.DEFAULT_TIMEOUT_DURATION : timeout).toMillis()))
+                .build();
+        ClientOptions clientOptions = ClientOptions.builder()
+                .timeoutOptions(timeoutOptions)
+                .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                .build();
+        return builder -> builder.clientOptions(clientOptions);
+    }
+
     @Bean
     public HashOperations<String, String, Object> hashOperations(RedisTemplate<String, Object> redisTemplate) {
         return redisTemplate.opsForHash();
@@ -0,0 +1,47 @@
+package com.wqlm.boot.user.config;
+
+import com.wqlm.boot.user.datasource.HikariDataSources;
+import com.wqlm.boot.user.shard.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分库数据源配置，只有配置了 shard.urls 时才生效，此时不再做读写分离
+ * 各分片复用 spring.datasource.* 的用户名、密码及 spring.datasource.hikari.* 连接池配置，只替换 url
+ * 用户ID由应用生成，不依赖各分片的自增列，ID 与分片的对应规则见 ShardRouter
+ */
+@Configuration
+@ConditionalOnExpression("!environment.getProperty('shard.urls', '').isEmpty()")
+public class ShardingDataSourceConfig {
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    @Bean
+    public ShardRoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+                                             ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable();
+
+        // 只作为各分片的配置模板，本身不会初始化
+        HikariDataSource template = HikariDataSources.fromProperties(properties, environment);
+
+        List<HikariDataSource> shards = new ArrayList<>();
+        String[] urls = applicationProperty.getShardUrls().split(",");
+        for (int i = 0; i < urls.length; i++) {
+            HikariDataSource shard = HikariDataSources.copyOf(template, urls[i], template.getPoolName() + "-shard-" + i);
+            HikariDataSources.bindMetrics(shard, meterRegistry);
+            shards.add(shard);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+}
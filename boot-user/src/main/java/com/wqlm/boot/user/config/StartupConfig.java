@@ -0,0 +1,50 @@
+package com.wqlm.boot.user.config;
+
+import com.wqlm.boot.user.startup.PoolWarmUp;
+import com.wqlm.boot.user.startup.SelectiveLazyInitPostProcessor;
+import com.wqlm.boot.user.startup.StartupHealthIndicator;
+import com.wqlm.boot.user.startup.WarmUpRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+
+/**
+ * 启动配置
+ * startup.lazy=true 时除必要的 bean 外延迟初始化(faststart 配置中开启)；无论是否延迟初始化，都在就绪前执行所有 WarmUpTask
+ */
+@Configuration
+public class StartupConfig {
+
+    /**
+     * BeanFactoryPostProcessor 先于其他 bean 创建，必须是 static 方法，也不能使用 ApplicationProperty，直接从 Environment 读取配置
+     */
+    @Bean
+    @ConditionalOnProperty(name = "startup.lazy", havingValue = "true")
+    public static SelectiveLazyInitPostProcessor selectiveLazyInitPostProcessor(Environment environment) {
+        String[] eagerBeans = StringUtils.commaDelimitedListToStringArray(
+                StringUtils.trimAllWhitespace(environment.getProperty("startup.eagerBeans", "")));
+        return new SelectiveLazyInitPostProcessor(Arrays.asList(eagerBeans));
+    }
+
+    /**
+     * 作为 /actuator/health 中的 startup
+     */
+    @Bean
+    public StartupHealthIndicator startupHealthIndicator() {
+        return new StartupHealthIndicator();
+    }
+
+    @Bean
+    public WarmUpRunner warmUpRunner() {
+        return new WarmUpRunner();
+    }
+
+    @Bean
+    public PoolWarmUp poolWarmUp() {
+        return new PoolWarmUp();
+    }
+}
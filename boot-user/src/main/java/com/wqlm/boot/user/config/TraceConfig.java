@@ -0,0 +1,69 @@
+package com.wqlm.boot.user.config;
+
+import com.wqlm.boot.user.trace.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.io.IOException;
+
+/**
+ * 调用链追踪配置
+ * Tracer 始终存在，trace.enabled=false 时不注册 TraceFilter 等组件，没有 trace 时 startSpan 返回 NOOP
+ * 只支持 servlet 栈，reactive 栈的请求不追踪
+ */
+@Configuration
+public class TraceConfig {
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    @Bean
+    public SpanExporter spanExporter() throws IOException {
+        switch (applicationProperty.getTraceExporter()) {
+            case "memory":
+                return new InMemorySpanExporter(applicationProperty.getTraceBufferSize());
+            case "file":
+                return new FileSpanExporter(applicationProperty.getTraceFile(), applicationProperty.getTraceBufferSize());
+            default:
+                return spans -> {
+                };
+        }
+    }
+
+    @Bean
+    public Tracer tracer(SpanExporter spanExporter) {
+        return new Tracer(spanExporter, applicationProperty.getTraceSampleRate());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "trace.enabled", havingValue = "true", matchIfMissing = true)
+    public TraceAspect traceAspect(Tracer tracer) {
+        return new TraceAspect(tracer);
+    }
+
+    /**
+     * 与 StatementMetricsInterceptor 一样由 mybatis 的自动配置加入 SqlSessionFactory
+     */
+    @Bean
+    @ConditionalOnProperty(name = "trace.enabled", havingValue = "true", matchIfMissing = true)
+    public StatementTraceInterceptor statementTraceInterceptor(Tracer tracer) {
+        return new StatementTraceInterceptor(tracer);
+    }
+
+    /**
+     * TraceFilter 排在所有 filter 之前，使 filter 中打印的日志也带有 traceId
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnProperty(name = "trace.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<TraceFilter> traceFilter(Tracer tracer) {
+        FilterRegistrationBean<TraceFilter> registration = new FilterRegistrationBean<>(new TraceFilter(tracer));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
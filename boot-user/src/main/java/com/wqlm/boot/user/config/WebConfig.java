@@ -3,27 +3,26 @@ package com.wqlm.boot.user.config;
 
 import com.wqlm.boot.user.interceptor.LoginInterceptor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class WebConfig implements WebMvcConfigurer {
 
-    @Autowired
-    private ApplicationProperty applicationProperty;
-
     @Autowired
     private LoginInterceptor loginInterceptor;
 
     /**
      * 添加拦截器
+     * 不指定 pathPatterns，拦截所有请求，免认证 url 由 LoginInterceptor 通过预编译的 NoAuthUrlMatcher 判断
      * @param registry
      */
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        registry.addInterceptor(loginInterceptor).addPathPatterns("/**").
-                excludePathPatterns(applicationProperty.getNoAuthUrls());
+        registry.addInterceptor(loginInterceptor);
     }
 }
@@ -0,0 +1,41 @@
+package com.wqlm.boot.user.controller;
+
+import com.wqlm.boot.user.config.ApplicationProperty;
+import com.wqlm.boot.user.vo.result.Result;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.Callable;
+
+/**
+ * 按 execution.mode 决定接口的执行方式，接口只需把处理逻辑包装为 Callable 交给 execute
+ * async : 直接返回 Callable，由 ExecutionConfig 中的 userExecutor 执行，tomcat 工作线程在等待 redis、mysql 期间被释放
+ * 其他 : 在当前线程中立即执行，返回 Result
+ * 参数绑定与校验总在 tomcat 工作线程中完成；Callable 中不能使用 HttpServletRequest，需要的值应先取出
+ */
+@Component
+public class ResultExecutor {
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    private boolean async;
+
+    @PostConstruct
+    public void init() {
+        async = "async".equals(applicationProperty.getExecutionMode());
+    }
+
+    /**
+     * @param task 接口的处理逻辑
+     * @return async 模式下为 task 本身，其他模式下为 task 的执行结果
+     * @throws Exception 同步执行时 task 抛出的异常，由统一异常处理转换
+     */
+    public Object execute(Callable<Result> task) throws Exception {
+        if (async) {
+            return task;
+        }
+        return task.call();
+    }
+}
@@ -3,27 +3,46 @@ package com.wqlm.boot.user.controller;
 import com.wqlm.boot.user.dto.LoginDTO;
 import com.wqlm.boot.user.dto.ModifyPasswordDTO;
 import com.wqlm.boot.user.dto.RegisterDTO;
+import com.wqlm.boot.user.enums.ExportFormat;
 import com.wqlm.boot.user.po.User;
+import com.wqlm.boot.user.search.UserSearchService;
+import com.wqlm.boot.user.service.UserExportService;
 import com.wqlm.boot.user.service.UserService;
+import com.wqlm.boot.user.util.ip.ClientIpResolver;
 import com.wqlm.boot.user.util.redis.RedisOperator;
 import com.wqlm.boot.user.vo.LoginVO;
+import com.wqlm.boot.user.vo.UserPageVO;
 import com.wqlm.boot.user.vo.UserVO;
 import com.wqlm.boot.user.vo.result.FailResult;
-import com.wqlm.boot.user.vo.result.Result;
 import com.wqlm.boot.user.vo.result.SuccessResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.util.List;
 
+/**
+ * 用户接口
+ * 返回值为 Object 的接口由 ResultExecutor 按 execution.mode 同步执行或返回 Callable 异步执行
+ */
 @RestController
 @RequestMapping("/user")
 @Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserController {
 
     private Logger logger = LoggerFactory.getLogger(this.getClass());
@@ -31,9 +50,21 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private UserSearchService userSearchService;
+
     @Autowired
     private RedisOperator redisOperator;
 
+    @Autowired
+    private ResultExecutor resultExecutor;
+
+    @Autowired
+    private ClientIpResolver clientIpResolver;
+
     /**
      * 注册
      * 参数通过表单传递
@@ -42,12 +73,14 @@ public class UserController {
      * @return
      */
     @PostMapping("/register")
-    public Result register(@Valid RegisterDTO dto) {
-        boolean result = userService.register(dto);
-        if (result) {
-            return new SuccessResult<>();
-        }
-        return new FailResult();
+    public Object register(@Valid RegisterDTO dto) throws Exception {
+        return resultExecutor.execute(() -> {
+            boolean result = userService.register(dto);
+            if (result) {
+                return new SuccessResult<>();
+            }
+            return new FailResult();
+        });
     }
 
 
@@ -57,12 +90,15 @@ public class UserController {
      * @return
      */
     @PostMapping("/login")
-    public Result login(LoginDTO dto) {
-        LoginVO vo = userService.login(dto);
-        if (vo == null) {
-            return new FailResult();
-        }
-        return new SuccessResult<>(vo);
+    public Object login(LoginDTO dto, HttpServletRequest request) throws Exception {
+        String ip = clientIpResolver.resolve(request);
+        return resultExecutor.execute(() -> {
+            LoginVO vo = userService.login(dto, ip);
+            if (vo == null) {
+                return new FailResult();
+            }
+            return new SuccessResult<>(vo);
+        });
     }
 
 
@@ -74,14 +110,17 @@ public class UserController {
      * @return
      */
     @PutMapping("/password")
-    public Result modifyPassword(@Valid @RequestBody ModifyPasswordDTO dto, HttpServletRequest httpServletRequest) {
+    public Object modifyPassword(@Valid @RequestBody ModifyPasswordDTO dto, HttpServletRequest httpServletRequest)
+            throws Exception {
         String token = httpServletRequest.getHeader("token");
-        User user = (User) redisOperator.get(token);
-        boolean result = userService.modifyPassword(dto, user);
-        if (result) {
-            return new SuccessResult<>();
-        }
-        return new FailResult();
+        return resultExecutor.execute(() -> {
+            User user = redisOperator.get(token, User.class);
+            boolean result = userService.modifyPassword(dto, user);
+            if (result) {
+                return new SuccessResult<>();
+            }
+            return new FailResult();
+        });
     }
 
     /**
@@ -92,9 +131,86 @@ public class UserController {
      * @return
      */
     @GetMapping
-    public Result getUser(@NotNull(message = "id不能为空") Integer id) {
-        UserVO vo = userService.getUser(id);
-        return new SuccessResult<>(vo);
+    public Object getUser(@NotNull(message = "id不能为空") Long id) throws Exception {
+        return resultExecutor.execute(() -> {
+            UserVO vo = userService.getUser(id);
+            return new SuccessResult<>(vo);
+        });
+    }
+
+    /**
+     * 批量获取用户信息
+     * 参数通过url传递，如 /user/batch?ids=1,2,3
+     *
+     * @param ids
+     * @return 按 ids 的顺序排列，不存在的用户不返回
+     */
+    @GetMapping("/batch")
+    public Object getUsers(@RequestParam(required = false) @NotEmpty(message = "ids不能为空")
+                           @Size(max = 1000, message = "ids最多1000个") List<Long> ids) throws Exception {
+        return resultExecutor.execute(() -> {
+            List<UserVO> vos = userService.getUsers(ids);
+            return new SuccessResult<>(vos);
+        });
+    }
+
+    /**
+     * 分页获取用户列表，按用户id升序排列
+     * 参数通过url传递，如 /user/list?size=20，下一页传入上一页返回的 nextCursor，如 /user/list?cursor=xxx&size=20
+     *
+     * @param cursor     上一页返回的 nextCursor，不传时获取第一页
+     * @param size       每页的用户数，默认 20
+     * @param exactCount 是否返回精确的用户总数，默认返回缓存的估算值
+     * @return
+     */
+    @GetMapping("/list")
+    public Object listUsers(String cursor,
+                            @RequestParam(defaultValue = "20") @Min(value = 1, message = "size最小为1")
+                            @Max(value = 100, message = "size最大为100") int size,
+                            @RequestParam(defaultValue = "false") boolean exactCount) throws Exception {
+        return resultExecutor.execute(() -> {
+            UserPageVO page = userService.listUsers(cursor, size, exactCount);
+            return new SuccessResult<>(page);
+        });
+    }
+
+    /**
+     * 导出所有用户的公开信息，边查询边写出，响应使用 chunked 编码
+     * 导出耗时与用户数成正比，任何模式下都直接在请求线程中写出(避免异步请求超时)
+     * 参数通过url传递，如 /user/export?format=CSV&gzip=true
+     *
+     * @param format   导出格式，NDJSON(默认) 或 CSV
+     * @param gzip     是否使用 gzip 压缩响应，不传时按请求头 Accept-Encoding 决定
+     * @param request
+     * @param response
+     * @throws IOException
+     */
+    @GetMapping("/export")
+    public void exportUsers(@RequestParam(defaultValue = "NDJSON") ExportFormat format,
+                            @RequestParam(required = false) Boolean gzip,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean compress = userExportService.negotiateGzip(gzip, request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        userExportService.export(format, compress, response::setHeader, response.getOutputStream());
+    }
+
+    /**
+     * 搜索用户名，用于自动补全，不查询数据库
+     * 参数通过url传递，如 /user/search?q=wq&limit=10，fuzzy=true 时容忍错字(查询词至少 4 个字符)
+     *
+     * @param q     查询词
+     * @param fuzzy 是否容忍错字，默认只做前缀匹配
+     * @param limit 最多返回的用户数，默认 10
+     * @return
+     */
+    @GetMapping("/search")
+    public Object searchUsers(@NotBlank(message = "q不能为空") String q,
+                              @RequestParam(defaultValue = "false") boolean fuzzy,
+                              @RequestParam(defaultValue = "10") @Min(value = 1, message = "limit最小为1")
+                              @Max(value = 100, message = "limit最大为100") int limit) throws Exception {
+        return resultExecutor.execute(() -> {
+            List<UserVO> vos = userSearchService.search(q, fuzzy, limit);
+            return new SuccessResult<>(vos);
+        });
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.wqlm.boot.user.dao;
+
+import com.wqlm.boot.user.po.UserEvent;
+import org.apache.ibatis.annotations.Param;
+import org.springframework.stereotype.Repository;
+import tk.mybatis.mapper.common.Mapper;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UserEventMapper extends Mapper<UserEvent> {
+
+    /**
+     * 按产生的顺序读取最早的若干个待投递事件
+     * 实现 : select * from user_event order by id limit ?
+     *
+     * @param limit
+     * @return
+     */
+    List<UserEvent> selectPending(@Param("limit") int limit);
+
+    /**
+     * 删除已投递的事件
+     * 实现 : delete from user_event where id in (...)
+     *
+     * @param ids 不能为空
+     * @return
+     */
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
@@ -1,9 +1,60 @@
 package com.wqlm.boot.user.dao;
 
 import com.wqlm.boot.user.po.User;
+import com.wqlm.boot.user.vo.UserVO;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.stereotype.Repository;
 import tk.mybatis.mapper.common.Mapper;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface UserMapper extends Mapper<User> {
+
+    /**
+     * 根据用户ID查询用户的公开信息
+     * 实现 : select id, user_name from user where id = ?
+     *
+     * @param id
+     * @return 用户不存在时返回 null
+     */
+    UserVO selectUserVOById(@Param("id") Long id);
+
+    /**
+     * 根据多个用户ID批量查询用户的公开信息
+     * 实现 : select id, user_name from user where id in (...)
+     *
+     * @param ids 不能为空
+     * @return 不保证与 ids 的顺序一致
+     */
+    List<UserVO> selectUserVOByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 按用户id升序查询 id 大于 afterId 的用户的公开信息
+     * 实现 : select id, user_name from user where id > ? order by id limit ?
+     *
+     * @param afterId 为 null 时从第一个用户开始
+     * @param limit   最多返回的用户数
+     * @return
+     */
+    List<UserVO> selectUserVOAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    /**
+     * 流式查询所有用户的公开信息，mysql 驱动逐行返回结果，不会一次读入内存
+     * 实现 : select id, user_name from user (fetchSize = Integer.MIN_VALUE)
+     * 返回的 Cursor 只能在事务中读取，读取完成前所在的连接不能执行其他语句
+     *
+     * @return
+     */
+    Cursor<UserVO> selectUserVOCursor();
+
+    /**
+     * 读取 mysql 统计信息中 user 表的行数，是估算值
+     * 实现 : select table_rows from information_schema.tables where ...
+     *
+     * @return
+     */
+    Long selectApproximateCount();
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.wqlm.boot.user.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.core.env.Environment;
+
+import java.util.Properties;
+
+/**
+ * 手动创建 hikari 连接池的工具类，用于读写分离、分库等需要多个连接池的场景
+ * 这些连接池不是 spring bean，spring boot 不会为其注册监控指标，需要在创建时传入 MeterRegistry
+ */
+public final class HikariDataSources {
+
+    /**
+     * 未配置 spring.datasource.hikari.pool-name 时使用的连接池名称
+     */
+    private static final String DEFAULT_POOL_NAME = "boot-user";
+
+    private HikariDataSources() {
+    }
+
+    /**
+     * 按 spring.datasource.* 和 spring.datasource.hikari.* 创建连接池，与 spring boot 自动配置的连接池一致
+     * 连接池在第一次获取连接时才初始化
+     *
+     * @param properties
+     * @param environment
+     * @return
+     */
+    public static HikariDataSource fromProperties(DataSourceProperties properties, Environment environment) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        if (dataSource.getPoolName() == null) {
+            dataSource.setPoolName(DEFAULT_POOL_NAME);
+        }
+        return dataSource;
+    }
+
+    /**
+     * 复制 template 的全部配置(用户名、密码、连接池参数、驱动参数)，只替换 url 和连接池名称
+     * url 与 template 不是同一种数据库时(如本地用 h2 测试)，按 url 重新选择驱动，并丢弃驱动参数
+     * 必须在 template 注册监控指标之前调用
+     *
+     * @param template
+     * @param url
+     * @param poolName
+     * @return
+     */
+    public static HikariDataSource copyOf(HikariDataSource template, String url, String poolName) {
+        HikariDataSource dataSource = new HikariDataSource();
+        template.copyStateTo(dataSource);
+        dataSource.setJdbcUrl(url.trim());
+        dataSource.setPoolName(poolName);
+
+        DatabaseDriver driver = DatabaseDriver.fromJdbcUrl(dataSource.getJdbcUrl());
+        if (driver != DatabaseDriver.UNKNOWN && driver != DatabaseDriver.fromJdbcUrl(template.getJdbcUrl())) {
+            dataSource.setDriverClassName(driver.getDriverClassName());
+            dataSource.setDataSourceProperties(new Properties());
+        }
+        return dataSource;
+    }
+
+    /**
+     * 为连接池注册 hikaricp.* 监控指标
+     *
+     * @param dataSource
+     * @param meterRegistry 为 null 时不注册
+     */
+    public static void bindMetrics(HikariDataSource dataSource, MeterRegistry meterRegistry) {
+        if (meterRegistry != null) {
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.wqlm.boot.user.datasource;
+
+import java.lang.annotation.*;
+
+/**
+ * 标注只读的方法或类，配置了只读从库(replica.urls)时，方法内的数据库查询路由到从库
+ * 未配置从库时该注解不起作用
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadOnly {
+}
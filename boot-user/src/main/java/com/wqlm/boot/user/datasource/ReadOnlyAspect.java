@@ -0,0 +1,23 @@
+package com.wqlm.boot.user.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * 在 @ReadOnly 标注的方法执行期间，将当前线程标记为只读
+ * 由 ReadWriteDataSourceConfig 在配置了从库时注册
+ */
+@Aspect
+public class ReadOnlyAspect {
+
+    @Around("@annotation(com.wqlm.boot.user.datasource.ReadOnly) || @within(com.wqlm.boot.user.datasource.ReadOnly)")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        ReadWriteContext.enterReadOnly();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReadWriteContext.exitReadOnly();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.wqlm.boot.user.datasource;
+
+/**
+ * 保存当前线程是否处于只读方法中，支持嵌套调用
+ */
+final class ReadWriteContext {
+
+    private static final ThreadLocal<int[]> READ_ONLY_DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private ReadWriteContext() {
+    }
+
+    static void enterReadOnly() {
+        READ_ONLY_DEPTH.get()[0]++;
+    }
+
+    static void exitReadOnly() {
+        READ_ONLY_DEPTH.get()[0]--;
+    }
+
+    static boolean isReadOnly() {
+        return READ_ONLY_DEPTH.get()[0] > 0;
+    }
+}
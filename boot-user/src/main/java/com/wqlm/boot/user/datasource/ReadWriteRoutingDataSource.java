@@ -0,0 +1,246 @@
+package com.wqlm.boot.user.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 读写分离的数据源
+ * 只读方法(@ReadOnly)中的连接从健康的从库中轮询获取，其他连接都从主库获取
+ * 从库获取连接失败或健康检查失败时被剔除，健康检查恢复后重新加入
+ * stickyTime 大于 0 时，同一个 sticky key(如 token)在写操作后的 stickyTime 内，读操作也走主库，避免读到从库的旧数据
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private final HikariDataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    private final long stickyTime;
+
+    private final Supplier<String> stickyKeySupplier;
+
+    /**
+     * sticky key - 在该时间戳之前读操作都走主库
+     */
+    private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService healthChecker;
+
+    /**
+     * @param primary           主库
+     * @param replicas          从库
+     * @param checkInterval     从库健康检查间隔，单位毫秒
+     * @param stickyTime        写操作后读操作仍走主库的时间，单位毫秒，0 表示关闭
+     * @param stickyKeySupplier 获取当前请求的 sticky key，返回 null 表示不区分
+     */
+    public ReadWriteRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, long checkInterval,
+                                      long stickyTime, Supplier<String> stickyKeySupplier) {
+        this.primary = primary;
+        List<Replica> list = new ArrayList<>(replicas.size());
+        for (HikariDataSource replica : replicas) {
+            list.add(new Replica(replica));
+        }
+        this.replicas = Collections.unmodifiableList(list);
+        this.stickyTime = stickyTime;
+        this.stickyKeySupplier = stickyKeySupplier;
+
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(DataSource::getConnection);
+    }
+
+    /**
+     * 与 getConnection() 的路由相同，hikari 连接池不支持指定用户名和密码，会抛出 SQLFeatureNotSupportedException
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection getConnection(ConnectionSource source) throws SQLException {
+        Replica replica = selectReplica();
+        if (replica == null) {
+            return source.get(primary);
+        }
+        try {
+            return source.get(replica.dataSource);
+        } catch (SQLFeatureNotSupportedException e) {
+            // 从库本身是正常的
+            throw e;
+        } catch (SQLException | RuntimeException e) {
+            // 连接池首次初始化失败时抛出的是 RuntimeException
+            replica.markDown(e);
+            return source.get(primary);
+        }
+    }
+
+    /**
+     * 选择本次使用的从库
+     *
+     * @return 应使用主库时返回 null
+     */
+    private Replica selectReplica() {
+        if (!ReadWriteContext.isReadOnly()) {
+            markSticky();
+            return null;
+        }
+        if (isSticky()) {
+            return null;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(counter.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private void markSticky() {
+        if (stickyTime <= 0) {
+            return;
+        }
+        String key = stickyKeySupplier.get();
+        if (key != null) {
+            stickyUntil.put(key, System.currentTimeMillis() + stickyTime);
+        }
+    }
+
+    private boolean isSticky() {
+        if (stickyTime <= 0 || stickyUntil.isEmpty()) {
+            return false;
+        }
+        String key = stickyKeySupplier.get();
+        if (key == null) {
+            return false;
+        }
+        Long until = stickyUntil.get(key);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    /**
+     * 检查所有从库，并清除过期的 sticky key
+     */
+    void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(1)) {
+                    replica.markUp();
+                } else {
+                    replica.markDown(null);
+                }
+            } catch (SQLException | RuntimeException e) {
+                replica.markDown(e);
+            }
+        }
+        long now = System.currentTimeMillis();
+        stickyUntil.values().removeIf(until -> until <= now);
+    }
+
+    /**
+     * 从库是否健康，用于监控
+     *
+     * @param index 从库下标
+     * @return
+     */
+    public boolean isReplicaHealthy(int index) {
+        return replicas.get(index).healthy;
+    }
+
+    public int getReplicaCount() {
+        return replicas.size();
+    }
+
+    public String getReplicaPoolName(int index) {
+        return replicas.get(index).dataSource.getPoolName();
+    }
+
+    /**
+     * @return 主库和所有从库的连接池
+     */
+    public List<HikariDataSource> getPools() {
+        List<HikariDataSource> pools = new ArrayList<>(replicas.size() + 1);
+        pools.add(primary);
+        for (Replica replica : replicas) {
+            pools.add(replica.dataSource);
+        }
+        return pools;
+    }
+
+    /**
+     * 关闭主库和所有从库的连接池
+     */
+    @Override
+    public void destroy() {
+        healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+        primary.close();
+    }
+
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+
+        Connection get(DataSource dataSource) throws SQLException;
+    }
+
+
+    /**
+     * 从库及其健康状态
+     */
+    private static final class Replica {
+
+        private final HikariDataSource dataSource;
+
+        private volatile boolean healthy = true;
+
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        void markDown(Exception e) {
+            if (healthy) {
+                healthy = false;
+                logger.warn("从库 {} 不可用，已剔除", dataSource.getPoolName(), e);
+            }
+        }
+
+        void markUp() {
+            if (!healthy) {
+                healthy = true;
+                logger.info("从库 {} 已恢复", dataSource.getPoolName());
+            }
+        }
+    }
+}
@@ -14,6 +14,7 @@ public enum ApplicationEnum {
 
     PARAMETER_BIND_FAIL("4000","参数绑定失败"),
     PARAMETER_VERIFY_FAIL("4001","参数校验失败"),
+    CURSOR_INVALID("4002","分页游标无效"),
 
     USER_NAME_REPETITION("4101","用户名已存在"),
     USER_OR_PWD_ERR("4102","用户名或密码错误"),
@@ -21,13 +22,16 @@ public enum ApplicationEnum {
     YET_LOGIN("4104","已登陆"),
     USER_NO_EXIST("4105","用户不存在"),
     PASSWORD_ERR("4106","密码错误"),
+    LOGIN_LOCKED("4107","登陆失败次数过多，请稍后再试"),
 
     REQUEST_FREQUENTLY("4201","请求太过频繁"),
 
     TOKEN_INVALID("4301", "token失效"),
 
 
-    FAIL("5000","业务执行失败");
+    FAIL("5000","业务执行失败"),
+    SEARCH_NOT_READY("5001","搜索索引未就绪"),
+    SERVICE_BUSY("5002","服务繁忙，请稍后再试");
 
 
     /**
@@ -0,0 +1,29 @@
+package com.wqlm.boot.user.enums;
+
+import lombok.Getter;
+
+/**
+ * 用户导出的文件格式
+ */
+@Getter
+public enum ExportFormat {
+
+    /**
+     * 每行一个 json 对象
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * 第一行为表头
+     */
+    CSV("text/csv", "csv");
+
+    private String contentType;
+
+    private String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+}
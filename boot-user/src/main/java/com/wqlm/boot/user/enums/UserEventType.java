@@ -0,0 +1,17 @@
+package com.wqlm.boot.user.enums;
+
+/**
+ * 通过 outbox 异步投递的用户事件类型，以名称保存在 user_event 表中
+ */
+public enum UserEventType {
+
+    /**
+     * 注册成功
+     */
+    REGISTERED,
+
+    /**
+     * 修改密码成功
+     */
+    PASSWORD_MODIFIED
+}
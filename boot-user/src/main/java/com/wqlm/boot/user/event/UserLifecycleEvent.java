@@ -0,0 +1,45 @@
+package com.wqlm.boot.user.event;
+
+import com.wqlm.boot.user.enums.UserEventType;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * 通过 outbox 异步投递的用户事件，在 user-event-relay 线程中发布
+ * 投递至少一次：监听器抛出异常或实例在投递后、删除前退出时，同一个事件会再次投递，监听器需要幂等
+ * 分片号 + 事件id 唯一标识一个事件
+ */
+@Getter
+public class UserLifecycleEvent {
+
+    /**
+     * 事件所在的分片
+     */
+    private final int shard;
+
+    /**
+     * 事件id，分片内唯一
+     */
+    private final Long eventId;
+
+    private final UserEventType type;
+
+    private final Long userId;
+
+    private final String userName;
+
+    /**
+     * 事件产生的时间
+     */
+    private final Date createTime;
+
+    public UserLifecycleEvent(int shard, Long eventId, UserEventType type, Long userId, String userName, Date createTime) {
+        this.shard = shard;
+        this.eventId = eventId;
+        this.type = type;
+        this.userId = userId;
+        this.userName = userName;
+        this.createTime = createTime;
+    }
+}
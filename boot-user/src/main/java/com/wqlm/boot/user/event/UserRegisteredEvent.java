@@ -0,0 +1,26 @@
+package com.wqlm.boot.user.event;
+
+import lombok.Getter;
+
+/**
+ * 用户注册成功事件，在 UserService#register 写入数据库后同步发布
+ * 用于维护用户名搜索索引等内存中的派生数据
+ */
+@Getter
+public class UserRegisteredEvent {
+
+    /**
+     * 用户id
+     */
+    private final Long id;
+
+    /**
+     * 用户名
+     */
+    private final String userName;
+
+    public UserRegisteredEvent(Long id, String userName) {
+        this.id = id;
+        this.userName = userName;
+    }
+}
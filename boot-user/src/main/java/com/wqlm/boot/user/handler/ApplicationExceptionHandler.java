@@ -2,10 +2,12 @@ package com.wqlm.boot.user.handler;
 
 import com.wqlm.boot.user.enums.ApplicationEnum;
 import com.wqlm.boot.user.exception.ApplicationException;
+import com.wqlm.boot.user.util.redis.RedisUnavailableException;
 import com.wqlm.boot.user.vo.result.FailResult;
 import com.wqlm.boot.user.vo.result.Result;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -31,6 +33,7 @@ import java.util.Map;
  * 如果一个异常能匹配多个 @ExceptionHandler 时，选择匹配深度最小的Exception(即最匹配的Exception)
  */
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ApplicationExceptionHandler extends ResponseEntityExceptionHandler {
     private static final Logger logger = LoggerFactory.getLogger(ApplicationExceptionHandler.class);
 
@@ -51,6 +54,21 @@ public class ApplicationExceptionHandler extends ResponseEntityExceptionHandler
     }
 
 
+    /**
+     * redis 不可用且没有本地降级值，返回 503，客户端稍后重试即可，不需要重新登陆
+     *
+     * @param e
+     * @return
+     */
+    @ExceptionHandler({RedisUnavailableException.class})
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ResponseBody
+    public Result handleRedisUnavailableException(RedisUnavailableException e) {
+        logger.warn("redis 不可用 : {}", e.getMessage());
+        return new FailResult<>(ApplicationEnum.SERVICE_BUSY);
+    }
+
+
     /**
      * 其他异常的处理
      *
@@ -4,7 +4,11 @@ package com.wqlm.boot.user.interceptor;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.wqlm.boot.user.enums.ApplicationEnum;
+import com.wqlm.boot.user.trace.Span;
+import com.wqlm.boot.user.trace.Tracer;
 import com.wqlm.boot.user.util.redis.RedisOperator;
+import com.wqlm.boot.user.util.redis.RedisUnavailableException;
+import com.wqlm.boot.user.util.url.NoAuthUrlMatcher;
 import com.wqlm.boot.user.vo.result.FailResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,8 +17,10 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.ModelAndView;
 
+import javax.servlet.DispatcherType;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 
 
 @Component
@@ -25,19 +31,50 @@ public class LoginInterceptor implements HandlerInterceptor {
     @Autowired
     private RedisOperator redisOperator;
 
+    @Autowired
+    private NoAuthUrlMatcher noAuthUrlMatcher;
+
+    @Autowired
+    private Tracer tracer;
+
     @Override
     public boolean preHandle(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse, Object handler)
             throws Exception {
 
-        String token = httpServletRequest.getHeader("token");
+        // 异步请求结果的再次分发，首次请求时已经认证过
+        if (httpServletRequest.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
 
-        if (redisOperator.get(token) != null) {
+        // 免认证的 url 直接放行，不访问 redis
+        if (noAuthUrlMatcher.matches(httpServletRequest)) {
             return true;
         }
 
+        String token = httpServletRequest.getHeader("token");
+
+        try (Span span = tracer.startSpan("LoginInterceptor.preHandle")) {
+            boolean authenticated;
+            try {
+                authenticated = redisOperator.get(token) != null;
+            } catch (RedisUnavailableException e) {
+                // redis 不可用且本地没有该 session 的降级值，不能当作 token 失效，否则 redis 抖动时所有用户都要重新登陆
+                span.tag("degraded", true);
+                httpServletResponse.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                return reject(httpServletResponse, ApplicationEnum.SERVICE_BUSY);
+            }
+            span.tag("authenticated", authenticated);
+            if (authenticated) {
+                return true;
+            }
+        }
+        return reject(httpServletResponse, ApplicationEnum.TOKEN_INVALID);
+    }
+
+    private boolean reject(HttpServletResponse httpServletResponse, ApplicationEnum applicationEnum) throws IOException {
         String jsonData = null;
         try {
-            jsonData = new ObjectMapper().writeValueAsString(new FailResult(ApplicationEnum.TOKEN_INVALID));
+            jsonData = new ObjectMapper().writeValueAsString(new FailResult(applicationEnum));
         } catch (JsonProcessingException e) {
             e.printStackTrace();
         }
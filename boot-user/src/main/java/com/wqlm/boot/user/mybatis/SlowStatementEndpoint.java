@@ -0,0 +1,32 @@
+package com.wqlm.boot.user.mybatis;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 慢 sql 端点 /actuator/slowsql
+ * GET    : 最近的慢 sql，按时间倒序
+ * DELETE : 清空记录
+ */
+@Component
+@Endpoint(id = "slowsql")
+public class SlowStatementEndpoint {
+
+    @Autowired
+    private SlowStatementLog slowStatementLog;
+
+    @ReadOperation
+    public List<SlowStatementLog.Entry> slowStatements() {
+        return slowStatementLog.list();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowStatementLog.clear();
+    }
+}
@@ -0,0 +1,86 @@
+package com.wqlm.boot.user.mybatis;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 最近的慢 sql，固定容量的环形缓冲区，写满后覆盖最旧的记录
+ */
+public class SlowStatementLog {
+
+    private final Entry[] entries;
+
+    /**
+     * 下一条记录写入的位置，只增不减
+     */
+    private long next;
+
+    /**
+     * @param capacity 最多保留的记录数
+     */
+    public SlowStatementLog(int capacity) {
+        this.entries = new Entry[Math.max(capacity, 1)];
+    }
+
+    public synchronized void add(Entry entry) {
+        entries[(int) (next % entries.length)] = entry;
+        next++;
+    }
+
+    /**
+     * @return 按时间倒序排列的记录
+     */
+    public synchronized List<Entry> list() {
+        int size = (int) Math.min(next, entries.length);
+        List<Entry> list = new ArrayList<>(size);
+        for (long i = next - 1; i >= next - size; i--) {
+            list.add(entries[(int) (i % entries.length)]);
+        }
+        return list;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = null;
+        }
+        next = 0;
+    }
+
+
+    @Getter
+    public static final class Entry {
+
+        /**
+         * mapper 方法，如 UserMapper.selectOne
+         */
+        private final String statement;
+
+        private final String sql;
+
+        /**
+         * 按 sql 中 ? 的顺序排列的参数，密码等敏感字段已脱敏
+         */
+        private final List<Object> parameters;
+
+        private final long elapsedMillis;
+
+        /**
+         * 查询返回的行数或更新影响的行数，出错或游标查询时为 -1
+         */
+        private final long rows;
+
+        private final Date time;
+
+        public Entry(String statement, String sql, List<Object> parameters, long elapsedMillis, long rows) {
+            this.statement = statement;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.elapsedMillis = elapsedMillis;
+            this.rows = rows;
+            this.time = new Date();
+        }
+    }
+}
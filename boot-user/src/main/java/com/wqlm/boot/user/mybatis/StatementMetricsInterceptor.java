@@ -0,0 +1,191 @@
+package com.wqlm.boot.user.mybatis;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.plugin.*;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 统计每个 mapper 方法的执行情况
+ * mybatis.statement      : 耗时，tag statement 为 mapper 方法(如 UserMapper.selectOne)，exception 为异常类名，成功时为 None
+ * mybatis.statement.rows : 查询返回的行数或更新影响的行数，游标查询不统计
+ * 耗时超过 slowThreshold 毫秒的语句连同参数记录到 SlowStatementLog，参数名包含 password、salt 的参数脱敏
+ * 只在慢 sql 时才读取参数，正常执行时没有额外开销
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor",
+                args = {MappedStatement.class, Object.class, RowBounds.class}),
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class})
+})
+public class StatementMetricsInterceptor implements Interceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementMetricsInterceptor.class);
+
+    private static final String NONE = "None";
+
+    private static final String REDACTED = "******";
+
+    private static final String[] SENSITIVE_NAMES = {"password", "salt"};
+
+    private final MeterRegistry meterRegistry;
+
+    private final long slowThresholdNanos;
+
+    private final SlowStatementLog slowStatementLog;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final Map<String, DistributionSummary> rowSummaries = new ConcurrentHashMap<>();
+
+    /**
+     * @param meterRegistry
+     * @param slowThreshold    慢 sql 的阈值，单位毫秒，小于等于 0 时不记录慢 sql
+     * @param slowStatementLog
+     */
+    public StatementMetricsInterceptor(MeterRegistry meterRegistry, long slowThreshold, SlowStatementLog slowStatementLog) {
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = slowThreshold > 0 ? TimeUnit.MILLISECONDS.toNanos(slowThreshold) : Long.MAX_VALUE;
+        this.slowStatementLog = slowStatementLog;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object[] args = invocation.getArgs();
+        MappedStatement ms = (MappedStatement) args[0];
+        String statement = shortName(ms.getId());
+
+        long start = System.nanoTime();
+        String exception = NONE;
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            long rows = rowsOf(result);
+            record(statement, ms.getSqlCommandType().name(), exception, elapsed, rows);
+            if (elapsed >= slowThresholdNanos) {
+                logSlow(ms, statement, args, elapsed, rows);
+            }
+        }
+    }
+
+    @Override
+    public Object plugin(Object target) {
+        return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+
+    private void record(String statement, String type, String exception, long elapsed, long rows) {
+        timers.computeIfAbsent(statement + ":" + exception, key -> Timer.builder("mybatis.statement")
+                .description("mapper 方法的执行耗时")
+                .tag("statement", statement)
+                .tag("type", type)
+                .tag("exception", exception)
+                .register(meterRegistry))
+                .record(elapsed, TimeUnit.NANOSECONDS);
+
+        if (rows >= 0) {
+            rowSummaries.computeIfAbsent(statement, key -> DistributionSummary.builder("mybatis.statement.rows")
+                    .description("查询返回的行数或更新影响的行数")
+                    .tag("statement", statement)
+                    .tag("type", type)
+                    .register(meterRegistry))
+                    .record(rows);
+        }
+    }
+
+    private void logSlow(MappedStatement ms, String statement, Object[] args, long elapsed, long rows) {
+        try {
+            Object parameter = args[1];
+            BoundSql boundSql = args.length == 6 ? (BoundSql) args[5] : ms.getBoundSql(parameter);
+            String sql = boundSql.getSql().replaceAll("\\s+", " ").trim();
+            List<Object> parameters = parametersOf(ms.getConfiguration(), boundSql, parameter);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsed);
+            slowStatementLog.add(new SlowStatementLog.Entry(statement, sql, parameters, elapsedMillis, rows));
+            logger.warn("慢 sql {}，耗时 {}ms，行数 {}，sql {}，参数 {}", statement, elapsedMillis, rows, sql, parameters);
+        } catch (RuntimeException e) {
+            logger.warn("记录慢 sql {} 失败", statement, e);
+        }
+    }
+
+    /**
+     * 按 DefaultParameterHandler 的方式取出每个 ? 对应的参数值
+     */
+    private static List<Object> parametersOf(Configuration configuration, BoundSql boundSql, Object parameter) {
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        List<Object> values = new ArrayList<>(mappings.size());
+        for (ParameterMapping mapping : mappings) {
+            String property = mapping.getProperty();
+            if (isSensitive(property)) {
+                values.add(REDACTED);
+            } else if (boundSql.hasAdditionalParameter(property)) {
+                values.add(boundSql.getAdditionalParameter(property));
+            } else if (parameter == null) {
+                values.add(null);
+            } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameter.getClass())) {
+                values.add(parameter);
+            } else {
+                values.add(configuration.newMetaObject(parameter).getValue(property));
+            }
+        }
+        return values;
+    }
+
+    private static boolean isSensitive(String property) {
+        String name = property.toLowerCase(Locale.ROOT);
+        for (String sensitive : SENSITIVE_NAMES) {
+            if (name.contains(sensitive)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return 查询结果的行数或影响的行数，无法统计时返回 -1
+     */
+    private static long rowsOf(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Integer) {
+            return (Integer) result;
+        }
+        return -1;
+    }
+
+    /**
+     * com.wqlm.boot.user.dao.UserMapper.selectOne -> UserMapper.selectOne
+     */
+    private static String shortName(String id) {
+        int method = id.lastIndexOf('.');
+        int type = method > 0 ? id.lastIndexOf('.', method - 1) : -1;
+        return type >= 0 ? id.substring(type + 1) : id;
+    }
+}
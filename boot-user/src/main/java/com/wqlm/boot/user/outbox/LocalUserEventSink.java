@@ -0,0 +1,34 @@
+package com.wqlm.boot.user.outbox;
+
+import com.wqlm.boot.user.enums.UserEventType;
+import com.wqlm.boot.user.event.UserLifecycleEvent;
+import com.wqlm.boot.user.po.UserEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 将事件作为 UserLifecycleEvent 发布给本实例的 @EventListener
+ */
+@Component
+public class LocalUserEventSink implements UserEventSink {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public String getName() {
+        return "local";
+    }
+
+    @Override
+    public void publish(int shard, List<UserEvent> events) {
+        for (UserEvent event : events) {
+            eventPublisher.publishEvent(new UserLifecycleEvent(shard, event.getId(),
+                    UserEventType.valueOf(event.getType()), event.getUserId(), event.getUserName(),
+                    event.getCreateTime()));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.wqlm.boot.user.outbox;
+
+import com.wqlm.boot.user.config.ApplicationProperty;
+import com.wqlm.boot.user.po.UserEvent;
+import com.wqlm.boot.user.util.redis.RedisOperator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 将事件追加到 redis stream(需要 redis 5.0 以上)，供其他服务通过消费组消费
+ * 每条消息的字段为 shard、eventId、type、userId、userName、createTime(毫秒时间戳)
+ * 一批事件通过一次脚本调用写入，stream 的长度大致保持在 outbox.streamMaxLen 以内
+ */
+@Component
+public class RedisStreamUserEventSink implements UserEventSink {
+
+    /**
+     * KEYS : stream
+     * ARGV : 最大长度, 之后每 6 个参数为一条消息的字段值
+     */
+    private static final RedisScript<Long> XADD_SCRIPT = new DefaultRedisScript<>(
+            "for i = 2, #ARGV, 6 do\n"
+                    + "  redis.call('XADD', KEYS[1], 'MAXLEN', '~', ARGV[1], '*',\n"
+                    + "    'shard', ARGV[i], 'eventId', ARGV[i + 1], 'type', ARGV[i + 2],\n"
+                    + "    'userId', ARGV[i + 3], 'userName', ARGV[i + 4], 'createTime', ARGV[i + 5])\n"
+                    + "end\n"
+                    + "return (#ARGV - 1) / 6", Long.class);
+
+    @Autowired
+    private RedisOperator redisOperator;
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    @Override
+    public String getName() {
+        return "redis";
+    }
+
+    @Override
+    public void publish(int shard, List<UserEvent> events) {
+        List<Object> args = new ArrayList<>(1 + events.size() * 6);
+        args.add(applicationProperty.getOutboxStreamMaxLen());
+        for (UserEvent event : events) {
+            args.add(shard);
+            args.add(event.getId());
+            args.add(event.getType());
+            args.add(event.getUserId());
+            args.add(event.getUserName());
+            args.add(event.getCreateTime().getTime());
+        }
+        redisOperator.eval(XADD_SCRIPT, Collections.singletonList(applicationProperty.getOutboxStreamKey()),
+                args.toArray());
+    }
+}
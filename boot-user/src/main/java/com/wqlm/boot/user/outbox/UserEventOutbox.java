@@ -0,0 +1,51 @@
+package com.wqlm.boot.user.outbox;
+
+import com.wqlm.boot.user.dao.UserEventMapper;
+import com.wqlm.boot.user.enums.UserEventType;
+import com.wqlm.boot.user.po.UserEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+
+/**
+ * 写入 outbox
+ * 必须在写用户数据的同一个事务中调用，事件与用户数据一起提交或回滚；事务提交后唤醒 UserEventRelay 立即投递
+ */
+@Component
+public class UserEventOutbox {
+
+    @Autowired
+    private UserEventMapper userEventMapper;
+
+    @Autowired
+    private UserEventRelay userEventRelay;
+
+    /**
+     * 在当前分片上写入一个事件
+     *
+     * @param type
+     * @param userId
+     * @param userName
+     */
+    public void append(UserEventType type, Long userId, String userName) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("outbox 必须在事务中写入");
+        }
+        UserEvent event = new UserEvent();
+        event.setType(type.name());
+        event.setUserId(userId);
+        event.setUserName(userName);
+        event.setCreateTime(new Date());
+        userEventMapper.insert(event);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                userEventRelay.wakeUp();
+            }
+        });
+    }
+}
@@ -0,0 +1,156 @@
+package com.wqlm.boot.user.outbox;
+
+import com.wqlm.boot.user.config.ApplicationProperty;
+import com.wqlm.boot.user.dao.UserEventMapper;
+import com.wqlm.boot.user.po.UserEvent;
+import com.wqlm.boot.user.shard.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 将 outbox 中的事件批量投递到 outbox.sinks 中配置的目标，投递成功后从 outbox 中删除
+ * 在单独的线程中运行，每隔 outbox.interval 毫秒检查一次所有分片，写入 outbox 的事务提交后也会立即检查一次
+ * 投递至少一次：投递后、删除前失败时会重复投递；多个实例同时投递时也可能重复，可以只在一个实例上开启 outbox.relayEnabled
+ */
+@Component
+public class UserEventRelay implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserEventRelay.class);
+
+    @Autowired
+    private UserEventMapper userEventMapper;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    @Autowired
+    private List<UserEventSink> allSinks;
+
+    private List<UserEventSink> sinks = Collections.emptyList();
+
+    private volatile ScheduledExecutorService executor;
+
+    /**
+     * 已经提交了一次立即检查、还没开始执行，用于合并并发的唤醒
+     */
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+
+    /**
+     * 各分片上一次投递是否失败，只在失败和恢复时打印日志
+     */
+    private boolean[] failing;
+
+    /**
+     * 应用启动完成后开始投递
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!applicationProperty.isOutboxRelayEnabled()) {
+            return;
+        }
+        Set<String> names = new HashSet<>(Arrays.asList(applicationProperty.getOutboxSinks().split(",")));
+        List<UserEventSink> selected = new ArrayList<>();
+        for (UserEventSink sink : allSinks) {
+            if (names.contains(sink.getName())) {
+                selected.add(sink);
+            }
+        }
+        sinks = selected;
+        failing = new boolean[shardRouter.getShardCount()];
+
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-event-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = applicationProperty.getOutboxInterval();
+        executor.scheduleWithFixedDelay(this::relay, interval, interval, TimeUnit.MILLISECONDS);
+        this.executor = executor;
+    }
+
+    /**
+     * 尽快检查一次 outbox，多次唤醒在执行前会合并为一次
+     */
+    public void wakeUp() {
+        ScheduledExecutorService executor = this.executor;
+        if (executor != null && wakeUpPending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                wakeUpPending.set(false);
+                relay();
+            });
+        }
+    }
+
+    /**
+     * 投递所有分片中的事件，直到 outbox 为空，某个分片出错时跳过该分片
+     *
+     * @return 投递的事件数，未开启投递时返回 0
+     */
+    public synchronized int relay() {
+        if (executor == null) {
+            return 0;
+        }
+        int total = 0;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            int index = shard;
+            try {
+                total += shardRouter.onShard(shard, () -> relayShard(index));
+                if (failing[shard]) {
+                    failing[shard] = false;
+                    logger.info("分片 {} 的用户事件恢复投递", shard);
+                }
+            } catch (RuntimeException e) {
+                if (!failing[shard]) {
+                    failing[shard] = true;
+                    logger.warn("分片 {} 的用户事件投递失败，稍后重试", shard, e);
+                }
+            }
+        }
+        return total;
+    }
+
+    private int relayShard(int shard) {
+        int batchSize = applicationProperty.getOutboxBatchSize();
+        int total = 0;
+        while (true) {
+            List<UserEvent> events = userEventMapper.selectPending(batchSize);
+            if (events.isEmpty()) {
+                return total;
+            }
+            for (UserEventSink sink : sinks) {
+                sink.publish(shard, events);
+            }
+            List<Long> ids = new ArrayList<>(events.size());
+            for (UserEvent event : events) {
+                ids.add(event.getId());
+            }
+            userEventMapper.deleteByIds(ids);
+            total += events.size();
+            if (events.size() < batchSize) {
+                return total;
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        ScheduledExecutorService executor = this.executor;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.wqlm.boot.user.outbox;
+
+import com.wqlm.boot.user.po.UserEvent;
+
+import java.util.List;
+
+/**
+ * outbox 中事件的投递目标，由 outbox.sinks 选择启用哪些
+ * 一批事件全部投递成功后才从 outbox 中删除，抛出异常时整批稍后重新投递
+ */
+public interface UserEventSink {
+
+    /**
+     * @return outbox.sinks 中使用的名称
+     */
+    String getName();
+
+    /**
+     * 投递一批事件
+     *
+     * @param shard  事件所在的分片
+     * @param events 按产生的顺序排列
+     */
+    void publish(int shard, List<UserEvent> events);
+}
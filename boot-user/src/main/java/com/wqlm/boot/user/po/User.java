@@ -1,11 +1,18 @@
 package com.wqlm.boot.user.po;
 
+import com.wqlm.boot.user.util.id.UserIdGenId;
+import tk.mybatis.mapper.annotation.KeySql;
+
 import javax.persistence.*;
 
 @Table(name = "user")
 public class User {
+    /**
+     * 用户id，insert 前由 UserIdGenId 生成
+     */
     @Id
-    private Integer id;
+    @KeySql(genId = UserIdGenId.class)
+    private Long id;
 
     /**
      * 用户名
@@ -26,14 +33,14 @@ public class User {
     /**
      * @return id
      */
-    public Integer getId() {
+    public Long getId() {
         return id;
     }
 
     /**
      * @param id
      */
-    public void setId(Integer id) {
+    public void setId(Long id) {
         this.id = id;
     }
 
@@ -0,0 +1,82 @@
+package com.wqlm.boot.user.po;
+
+import tk.mybatis.mapper.annotation.KeySql;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * outbox 中待投递的用户事件，与产生它的用户数据写在同一个分片、同一个事务中
+ */
+@Table(name = "user_event")
+public class UserEvent {
+    /**
+     * 事件id，分片内自增，只在分片内唯一
+     */
+    @Id
+    @KeySql(useGeneratedKeys = true)
+    private Long id;
+
+    /**
+     * 事件类型，见 UserEventType
+     */
+    private String type;
+
+    /**
+     * 用户id
+     */
+    @Column(name = "user_id")
+    private Long userId;
+
+    /**
+     * 用户名
+     */
+    @Column(name = "user_name")
+    private String userName;
+
+    /**
+     * 事件产生的时间
+     */
+    @Column(name = "create_time")
+    private Date createTime;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public Date getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(Date createTime) {
+        this.createTime = createTime;
+    }
+}
@@ -0,0 +1,92 @@
+package com.wqlm.boot.user.reactive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wqlm.boot.user.enums.ApplicationEnum;
+import com.wqlm.boot.user.po.User;
+import com.wqlm.boot.user.util.url.NoAuthUrlMatcher;
+import com.wqlm.boot.user.vo.result.FailResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * 响应式版本的认证过滤器，代替 LoginInterceptor
+ * 认证通过后将 session 中的用户放入 exchange 的属性中，接口无需再次访问 redis
+ * 与 LoginInterceptor 一致，redis 出错时返回 503 SERVICE_BUSY，不当作 token 失效，否则 redis 抖动时所有用户都要重新登陆
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class LoginWebFilter implements WebFilter {
+
+    /**
+     * exchange 中存放当前登陆用户的属性名
+     */
+    public static final String USER_ATTRIBUTE = LoginWebFilter.class.getName() + ".user";
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginWebFilter.class);
+
+    private static final byte[] TOKEN_INVALID_BODY = failBody(ApplicationEnum.TOKEN_INVALID);
+
+    private static final byte[] SERVICE_BUSY_BODY = failBody(ApplicationEnum.SERVICE_BUSY);
+
+    @Autowired
+    private NoAuthUrlMatcher noAuthUrlMatcher;
+
+    @Autowired
+    private ReactiveRedisTemplate<String, User> reactiveSessionTemplate;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        // 免认证的 url 直接放行，不访问 redis
+        if (noAuthUrlMatcher.matches(exchange.getRequest().getPath().pathWithinApplication().value())) {
+            return chain.filter(exchange);
+        }
+
+        String token = exchange.getRequest().getHeaders().getFirst("token");
+        if (token == null) {
+            return write(exchange.getResponse(), TOKEN_INVALID_BODY);
+        }
+
+        return reactiveSessionTemplate.opsForValue().get(token)
+                .map(user -> {
+                    exchange.getAttributes().put(USER_ATTRIBUTE, user);
+                    return true;
+                })
+                .defaultIfEmpty(false)
+                // 只处理读取 session 时的错误，接口本身的错误由 chain 中的处理器处理
+                .onErrorResume(DataAccessException.class, e -> {
+                    logger.warn("读取session失败，返回503 : {}", e.toString());
+                    exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                    return write(exchange.getResponse(), SERVICE_BUSY_BODY).then(Mono.empty());
+                })
+                .flatMap(authenticated -> authenticated
+                        ? chain.filter(exchange) : write(exchange.getResponse(), TOKEN_INVALID_BODY));
+    }
+
+    private Mono<Void> write(ServerHttpResponse response, byte[] body) {
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON_UTF8);
+        DataBuffer buffer = response.bufferFactory().wrap(body);
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    private static byte[] failBody(ApplicationEnum applicationEnum) {
+        try {
+            return new ObjectMapper().writeValueAsBytes(new FailResult(applicationEnum));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
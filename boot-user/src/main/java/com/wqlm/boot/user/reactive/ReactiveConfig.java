@@ -0,0 +1,86 @@
+package com.wqlm.boot.user.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.wqlm.boot.user.config.ApplicationProperty;
+import com.wqlm.boot.user.po.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.*;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * 响应式版本的用户接口配置，仅在以 webflux 启动时生效(见 application-reactive.properties)
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig {
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    /**
+     * 与 UserController 相同的路由
+     */
+    @Bean
+    public RouterFunction<ServerResponse> userRouter(UserHandler userHandler) {
+        return route(POST("/user/register"), userHandler::register)
+                .andRoute(POST("/user/login"), userHandler::login)
+                .andRoute(PUT("/user/password"), userHandler::modifyPassword)
+                .andRoute(GET("/user"), userHandler::getUser);
+    }
+
+    /**
+     * 存取 session 的响应式 RedisTemplate
+     * value 与 RedisConfig 中的 RedisTemplate 一样序列化成 json，两种版本的接口可以共用 session
+     */
+    @Bean
+    public ReactiveRedisTemplate<String, User> reactiveSessionTemplate(ReactiveRedisConnectionFactory factory) {
+        Jackson2JsonRedisSerializer<User> jacksonSerializer = new Jackson2JsonRedisSerializer<>(User.class);
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new ParameterNamesModule())
+                .registerModule(new Jdk8Module())
+                .registerModule(new JavaTimeModule());
+        jacksonSerializer.setObjectMapper(objectMapper);
+
+        RedisSerializationContext<String, User> context = RedisSerializationContext
+                .<String, User>newSerializationContext(new StringRedisSerializer())
+                .value(jacksonSerializer)
+                .build();
+        return new ReactiveRedisTemplate<>(factory, context);
+    }
+
+    /**
+     * 执行阻塞 jdbc 调用的有界线程池，避免阻塞 webflux 的事件循环线程
+     * 线程数与数据库连接池大小一致即可，更多的线程只会阻塞在获取连接上
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jdbcScheduler() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "reactive-jdbc-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Schedulers.fromExecutorService(
+                Executors.newFixedThreadPool(applicationProperty.getReactiveJdbcPoolSize(), threadFactory));
+    }
+}
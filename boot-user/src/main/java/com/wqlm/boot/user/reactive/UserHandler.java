@@ -0,0 +1,260 @@
+package com.wqlm.boot.user.reactive;
+
+import com.wqlm.boot.user.config.ApplicationProperty;
+import com.wqlm.boot.user.dto.LoginDTO;
+import com.wqlm.boot.user.dto.ModifyPasswordDTO;
+import com.wqlm.boot.user.dto.RegisterDTO;
+import com.wqlm.boot.user.enums.ApplicationEnum;
+import com.wqlm.boot.user.exception.ApplicationException;
+import com.wqlm.boot.user.po.User;
+import com.wqlm.boot.user.service.UserService;
+import com.wqlm.boot.user.util.ip.ClientIpResolver;
+import com.wqlm.boot.user.vo.LoginVO;
+import com.wqlm.boot.user.vo.result.FailResult;
+import com.wqlm.boot.user.vo.result.Result;
+import com.wqlm.boot.user.vo.result.SuccessResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Callable;
+
+/**
+ * 响应式版本的用户接口，与 UserController 的路由、参数、返回值一致
+ * 数据库调用在 jdbcScheduler 中执行，session 通过响应式 redis 存取
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class UserHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserHandler.class);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReactiveRedisTemplate<String, User> reactiveSessionTemplate;
+
+    @Autowired
+    private Scheduler jdbcScheduler;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    @Autowired
+    private ClientIpResolver clientIpResolver;
+
+    /**
+     * 注册
+     * 参数通过表单传递
+     *
+     * @param request
+     * @return
+     */
+    public Mono<ServerResponse> register(ServerRequest request) {
+        return request.formData()
+                .map(form -> {
+                    RegisterDTO dto = new RegisterDTO();
+                    dto.setUserName(form.getFirst("userName"));
+                    dto.setPassword(form.getFirst("password"));
+                    return validate(dto);
+                })
+                .flatMap(dto -> blocking(() -> userService.register(dto)))
+                .map(result -> result ? new SuccessResult<>() : new FailResult())
+                .flatMap(this::ok)
+                .onErrorResume(this::handleError);
+    }
+
+    /**
+     * 登陆接口
+     *
+     * @param request
+     * @return
+     */
+    public Mono<ServerResponse> login(ServerRequest request) {
+        List<String> forwardedFor = request.headers().header(ClientIpResolver.FORWARDED_FOR_HEADER);
+        String ip = clientIpResolver.resolve(request.remoteAddress().map(InetSocketAddress::getHostString).orElse(""),
+                forwardedFor.isEmpty() ? null : String.join(",", forwardedFor));
+        return request.formData()
+                .map(this::toLoginDTO)
+                .flatMap(dto -> blocking(() -> userService.authenticate(dto, ip)))
+                .flatMap(user -> {
+                    //密码一致登陆成功，将用户信息存储在redis中
+                    String token = UUID.randomUUID().toString();
+                    Duration ttl = Duration.ofSeconds(applicationProperty.getSessionTtl());
+                    return reactiveSessionTemplate.opsForValue().set(token, user, ttl)
+                            .map(success -> {
+                                LoginVO vo = new LoginVO();
+                                vo.setUserName(user.getUserName());
+                                vo.setToken(token);
+                                return vo;
+                            });
+                })
+                .<Result>map(SuccessResult::new)
+                .flatMap(this::ok)
+                .onErrorResume(this::handleError);
+    }
+
+    /**
+     * 修改密码
+     * 参数通过 json 传递，当前登陆用户由 LoginWebFilter 放入 exchange 的属性中
+     *
+     * @param request
+     * @return
+     */
+    public Mono<ServerResponse> modifyPassword(ServerRequest request) {
+        Mono<User> user = Mono.justOrEmpty(request.attribute(LoginWebFilter.USER_ATTRIBUTE))
+                .cast(User.class)
+                .switchIfEmpty(Mono.error(new ApplicationException(ApplicationEnum.NO_LOGIN)));
+        return request.bodyToMono(ModifyPasswordDTO.class)
+                .map(this::validate)
+                .zipWith(user)
+                .flatMap(tuple -> blocking(() -> userService.modifyPassword(tuple.getT1(), tuple.getT2())))
+                .map(result -> result ? new SuccessResult<>() : new FailResult())
+                .flatMap(this::ok)
+                .onErrorResume(this::handleError);
+    }
+
+    /**
+     * 获取用户信息
+     * 参数通过url传递
+     *
+     * @param request
+     * @return
+     */
+    public Mono<ServerResponse> getUser(ServerRequest request) {
+        Optional<String> id = request.queryParam("id");
+        if (!id.isPresent()) {
+            return handleError(new ParameterException("id", "id不能为空"));
+        }
+        return Mono.fromCallable(() -> Long.valueOf(id.get()))
+                .onErrorMap(NumberFormatException.class, e -> new ParameterException("id", e.getMessage()))
+                .flatMap(userId -> blocking(() -> userService.getUser(userId)))
+                .<Result>map(SuccessResult::new)
+                .flatMap(this::ok)
+                .onErrorResume(this::handleError);
+    }
+
+
+    /**
+     * 在 jdbcScheduler 中执行阻塞调用
+     *
+     * @param callable
+     * @return
+     */
+    private <T> Mono<T> blocking(Callable<T> callable) {
+        return Mono.fromCallable(callable).subscribeOn(jdbcScheduler);
+    }
+
+    private LoginDTO toLoginDTO(MultiValueMap<String, String> form) {
+        LoginDTO dto = new LoginDTO();
+        dto.setUserName(form.getFirst("userName"));
+        dto.setPassword(form.getFirst("password"));
+        return dto;
+    }
+
+    /**
+     * 校验参数，校验失败时抛出 ParameterException
+     *
+     * @param dto
+     * @return
+     */
+    private <T> T validate(T dto) {
+        Set<ConstraintViolation<T>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return dto;
+        }
+        List<Map<String, String>> list = new ArrayList<>();
+        for (ConstraintViolation<T> violation : violations) {
+            Map<String, String> map = new HashMap<>(2);
+            map.put("field", violation.getPropertyPath().toString());
+            map.put("message", violation.getMessage());
+            list.add(map);
+        }
+        throw new ParameterException(list);
+    }
+
+    private Mono<ServerResponse> ok(Result result) {
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON_UTF8).syncBody(result);
+    }
+
+    /**
+     * 与 ApplicationExceptionHandler 一致的异常处理
+     *
+     * @param e
+     * @return
+     */
+    private Mono<ServerResponse> handleError(Throwable e) {
+        Result result;
+        HttpStatus status;
+        if (e instanceof ParameterException) {
+            logger.error("参数校验失败", e);
+            result = new FailResult<>(ApplicationEnum.PARAMETER_BIND_FAIL, ((ParameterException) e).getErrors());
+            status = HttpStatus.BAD_REQUEST;
+        } else if (e instanceof ApplicationException) {
+            logger.error("自定义异常", e);
+            result = new FailResult<>(((ApplicationException) e).getApplicationEnum());
+            status = HttpStatus.INTERNAL_SERVER_ERROR;
+        } else if (e instanceof DataAccessResourceFailureException) {
+            // redis(RedisUnavailableException、连接失败)或数据库连接不可用，客户端稍后重试即可，不需要重新登陆
+            logger.warn("依赖的服务不可用 : {}", e.getMessage());
+            result = new FailResult<>(ApplicationEnum.SERVICE_BUSY);
+            status = HttpStatus.SERVICE_UNAVAILABLE;
+        } else {
+            logger.error("程序出错", e);
+            result = new FailResult<>();
+            status = HttpStatus.INTERNAL_SERVER_ERROR;
+        }
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON_UTF8).syncBody(result);
+    }
+
+
+    /**
+     * 参数绑定或校验失败
+     */
+    private static class ParameterException extends RuntimeException {
+
+        private static final long serialVersionUID = 2411907125618547262L;
+
+        private final List<Map<String, String>> errors;
+
+        ParameterException(List<Map<String, String>> errors) {
+            super(errors.toString());
+            this.errors = errors;
+        }
+
+        ParameterException(String field, String message) {
+            this(Collections.singletonList(fieldAndMessage(field, message)));
+        }
+
+        List<Map<String, String>> getErrors() {
+            return errors;
+        }
+
+        private static Map<String, String> fieldAndMessage(String field, String message) {
+            Map<String, String> map = new HashMap<>(2);
+            map.put("field", field);
+            map.put("message", message);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.wqlm.boot.user.search;
+
+import com.wqlm.boot.user.vo.UserVO;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 用户名搜索索引，不区分大小写，线程安全，可以边加载边写入
+ * 前缀搜索 : 按 小写用户名 排序的跳表，取前缀范围内的前 limit 个，开销与用户总数无关
+ * 模糊搜索 : 3-gram 倒排索引召回候选，再按 查询词 与 用户名前缀 的编辑距离过滤和排序，容忍 1~2 个错字
+ */
+public class UserNameIndex {
+
+    /**
+     * 查询词不少于该长度时才做模糊搜索，更短的查询词只做前缀搜索
+     */
+    public static final int MIN_FUZZY_LENGTH = 4;
+
+    /**
+     * 模糊搜索最多检查的候选数，避免常见 gram 的倒排列表过长
+     */
+    private static final int MAX_CANDIDATES = 10000;
+
+    private static final int GRAM = 3;
+
+    /**
+     * 用户名前补齐的字符，使前缀部分的 gram 与其他位置的 gram 区分开
+     */
+    private static final String PAD = "\u0002\u0002";
+
+    /**
+     * 小写用户名 + \0 + 用户名 - 用户，\0 保证只有大小写不同的用户名排在一起且互不覆盖
+     */
+    private final ConcurrentSkipListMap<String, UserVO> sorted = new ConcurrentSkipListMap<>();
+
+    /**
+     * gram - 包含该 gram 的 sorted 的 key
+     */
+    private final Map<String, Set<String>> grams = new ConcurrentHashMap<>();
+
+    /**
+     * 添加用户，用户名已存在时覆盖
+     *
+     * @param id
+     * @param userName
+     */
+    public void add(Long id, String userName) {
+        UserVO vo = new UserVO();
+        vo.setId(id);
+        vo.setUserName(userName);
+        String key = key(userName);
+        sorted.put(key, vo);
+        for (String gram : grams(lower(userName))) {
+            grams.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    public int size() {
+        return sorted.size();
+    }
+
+    /**
+     * 前缀搜索
+     *
+     * @param prefix
+     * @param limit  最多返回的用户数
+     * @return 按用户名排序
+     */
+    public List<UserVO> prefix(String prefix, int limit) {
+        String from = lower(prefix);
+        List<UserVO> result = new ArrayList<>(Math.min(limit, 16));
+        for (UserVO vo : sorted.subMap(from, true, from + Character.MAX_VALUE, false).values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(vo);
+        }
+        return result;
+    }
+
+    /**
+     * 模糊搜索，返回用户名前缀与 query 的编辑距离不超过 maxEdits 的用户
+     * query 长度不超过 6 时 maxEdits 为 1，否则为 2；query 少于 MIN_FUZZY_LENGTH 个字符时等同于前缀搜索
+     *
+     * @param query
+     * @param limit 最多返回的用户数
+     * @return 按编辑距离、用户名排序，精确的前缀匹配排在最前
+     */
+    public List<UserVO> fuzzy(String query, int limit) {
+        String q = lower(query);
+        if (q.length() < MIN_FUZZY_LENGTH) {
+            return prefix(query, limit);
+        }
+        int maxEdits = q.length() <= 6 ? 1 : 2;
+        // 每个编辑最多破坏 GRAM 个 gram
+        List<String> queryGrams = new ArrayList<>(grams(q));
+        int minShared = Math.max(1, queryGrams.size() - GRAM * maxEdits);
+
+        // 从最短的倒排列表开始统计候选共享的 gram 个数
+        List<Set<String>> postings = new ArrayList<>(queryGrams.size());
+        for (String gram : queryGrams) {
+            postings.add(grams.getOrDefault(gram, Collections.emptySet()));
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        Map<String, Integer> shared = new HashMap<>();
+        for (Set<String> posting : postings) {
+            for (String key : posting) {
+                if (shared.size() >= MAX_CANDIDATES && !shared.containsKey(key)) {
+                    continue;
+                }
+                shared.merge(key, 1, Integer::sum);
+            }
+        }
+
+        List<Match> matches = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+            if (entry.getValue() < minShared) {
+                continue;
+            }
+            String key = entry.getKey();
+            int distance = prefixDistance(q, key.substring(0, key.indexOf('\0')), maxEdits);
+            if (distance <= maxEdits) {
+                matches.add(new Match(distance, key));
+            }
+        }
+        matches.sort(Comparator.comparingInt((Match m) -> m.distance).thenComparing(m -> m.key));
+
+        List<UserVO> result = new ArrayList<>(Math.min(limit, matches.size()));
+        for (Match match : matches) {
+            if (result.size() >= limit) {
+                break;
+            }
+            UserVO vo = sorted.get(match.key);
+            if (vo != null) {
+                result.add(vo);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * query 与 name 的任意前缀之间的最小编辑距离
+     *
+     * @return 超过 maxEdits 时返回 maxEdits + 1
+     */
+    static int prefixDistance(String query, String name, int maxEdits) {
+        int m = query.length();
+        int n = Math.min(name.length(), m + maxEdits);
+        int[] prev = new int[n + 1];
+        int[] curr = new int[n + 1];
+        for (int j = 0; j <= n; j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= m; i++) {
+            curr[0] = i;
+            int rowMin = curr[0];
+            for (int j = 1; j <= n; j++) {
+                int cost = query.charAt(i - 1) == name.charAt(j - 1) ? 0 : 1;
+                curr[j] = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                rowMin = Math.min(rowMin, curr[j]);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] swap = prev;
+            prev = curr;
+            curr = swap;
+        }
+        int min = Integer.MAX_VALUE;
+        for (int j = 0; j <= n; j++) {
+            min = Math.min(min, prev[j]);
+        }
+        return Math.min(min, maxEdits + 1);
+    }
+
+    private static Set<String> grams(String lowerName) {
+        String padded = PAD + lowerName;
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + GRAM <= padded.length(); i++) {
+            result.add(padded.substring(i, i + GRAM));
+        }
+        return result;
+    }
+
+    private static String key(String userName) {
+        return lower(userName) + '\0' + userName;
+    }
+
+    private static String lower(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Match {
+
+        private final int distance;
+
+        private final String key;
+
+        Match(int distance, String key) {
+            this.distance = distance;
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.wqlm.boot.user.search;
+
+import com.wqlm.boot.user.config.ApplicationProperty;
+import com.wqlm.boot.user.enums.ApplicationEnum;
+import com.wqlm.boot.user.event.UserRegisteredEvent;
+import com.wqlm.boot.user.exception.ApplicationException;
+import com.wqlm.boot.user.service.UserExportService;
+import com.wqlm.boot.user.vo.UserVO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 用户名搜索，只访问内存中的 UserNameIndex，不查询数据库
+ * search.enabled 为 true 时，应用启动完成后在后台线程中流式读取用户建立索引，最多读取 search.maxUsers 个，之后随注册增量更新
+ * 索引只包含本实例启动后读取到的和在本实例注册的用户，其他实例新注册的用户在重启前搜索不到
+ */
+@Service
+public class UserSearchService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchService.class);
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    private final UserNameIndex index = new UserNameIndex();
+
+    private volatile boolean ready;
+
+    private volatile ExecutorService loader;
+
+    /**
+     * 在后台线程中加载索引，不阻塞启动，加载失败时搜索接口不可用
+     * 应用关闭时中断加载
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!applicationProperty.isSearchEnabled()) {
+            return;
+        }
+        ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-search-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        loader.execute(this::loadIndex);
+        loader.shutdown();
+        this.loader = loader;
+    }
+
+    private void loadIndex() {
+        long start = System.currentTimeMillis();
+        long maxUsers = applicationProperty.getSearchMaxUsers();
+        AtomicLong count = new AtomicLong();
+        try {
+            userExportService.forEachUser(vo -> {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new LoadStoppedException();
+                }
+                if (count.get() >= maxUsers) {
+                    throw new LoadStoppedException();
+                }
+                index.add(vo.getId(), vo.getUserName());
+                count.incrementAndGet();
+            });
+        } catch (LoadStoppedException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                logger.info("应用关闭，停止加载用户名搜索索引");
+                return;
+            }
+            logger.warn("用户数超过 search.maxUsers({})，搜索索引只包含前 {} 个用户", maxUsers, maxUsers);
+        } catch (RuntimeException e) {
+            logger.warn("用户名搜索索引加载失败，搜索接口不可用", e);
+            return;
+        }
+        ready = true;
+        logger.info("用户名搜索索引加载完成，用户数 {}，耗时 {}ms", count.get(), System.currentTimeMillis() - start);
+    }
+
+    @EventListener
+    public void onRegistered(UserRegisteredEvent event) {
+        if (applicationProperty.isSearchEnabled()) {
+            index.add(event.getId(), event.getUserName());
+        }
+    }
+
+    /**
+     * 搜索用户名
+     *
+     * @param query 查询词
+     * @param fuzzy 是否容忍错字，为 false 时只做前缀匹配
+     * @param limit 最多返回的用户数
+     * @return
+     */
+    public List<UserVO> search(String query, boolean fuzzy, int limit) {
+        if (!ready) {
+            throw new ApplicationException(ApplicationEnum.SEARCH_NOT_READY);
+        }
+        return fuzzy ? index.fuzzy(query, limit) : index.prefix(query, limit);
+    }
+
+    @Override
+    public void destroy() {
+        ExecutorService loader = this.loader;
+        if (loader != null) {
+            loader.shutdownNow();
+        }
+    }
+
+
+    /**
+     * 停止读取用户，达到 search.maxUsers 或应用关闭时抛出
+     */
+    private static final class LoadStoppedException extends RuntimeException {
+
+        private static final long serialVersionUID = -3405672913871046258L;
+
+        LoadStoppedException() {
+            super(null, null, false, false);
+        }
+    }
+}
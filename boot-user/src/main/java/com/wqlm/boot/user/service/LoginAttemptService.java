@@ -0,0 +1,202 @@
+package com.wqlm.boot.user.service;
+
+import com.wqlm.boot.user.config.ApplicationProperty;
+import com.wqlm.boot.user.enums.ApplicationEnum;
+import com.wqlm.boot.user.exception.ApplicationException;
+import com.wqlm.boot.user.util.redis.RedisOperator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * 登陆失败计数及渐进式限制
+ * 按用户名和 ip 分别统计登陆失败次数，计数保存在 redis 中，多实例共享
+ * 使用滑动窗口：每个窗口一个计数 key，失败次数 = 当前窗口计数 + 上一个窗口计数 * 上一个窗口仍在滑动窗口内的比例
+ * 检查在密码哈希和查库之前进行，被拒绝的登陆只消耗一次 redis 调用
+ * redis 不可用时不做限制
+ */
+@Service
+public class LoginAttemptService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginAttemptService.class);
+
+    private static final String USER_KEY_PREFIX = "login:fail:user:";
+
+    private static final String IP_KEY_PREFIX = "login:fail:ip:";
+
+    private static final String LAST_KEY_PREFIX = "login:fail:last:";
+
+    /**
+     * KEYS : 用户名当前窗口计数, 用户名上一个窗口计数, ip 当前窗口计数, ip 上一个窗口计数, 用户名最后一次失败时间
+     * 返回 : 以上 key 的值，不存在时为 0
+     */
+    private static final RedisScript<List> CHECK_SCRIPT = new DefaultRedisScript<>(
+            "local result = {}\n"
+                    + "for i = 1, #KEYS do\n"
+                    + "  result[i] = tonumber(redis.call('GET', KEYS[i]) or '0')\n"
+                    + "end\n"
+                    + "return result", List.class);
+
+    /**
+     * KEYS : 用户名当前窗口计数, ip 当前窗口计数, 用户名最后一次失败时间
+     * ARGV : 过期时间(毫秒), 当前时间(毫秒)
+     * 计数第一次创建时设置过期时间，INCR 与 PEXPIRE 在同一个脚本中执行，不会留下永不过期的计数
+     */
+    private static final RedisScript<Long> RECORD_SCRIPT = new DefaultRedisScript<>(
+            "for i = 1, 2 do\n"
+                    + "  if redis.call('INCR', KEYS[i]) == 1 then\n"
+                    + "    redis.call('PEXPIRE', KEYS[i], ARGV[1])\n"
+                    + "  end\n"
+                    + "end\n"
+                    + "redis.call('SET', KEYS[3], ARGV[2], 'PX', ARGV[1])\n"
+                    + "return 1", Long.class);
+
+    @Autowired
+    private RedisOperator redisOperator;
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    private LongSupplier clock = System::currentTimeMillis;
+
+    /**
+     * 检查是否允许本次登陆
+     * 用户名或 ip 的失败次数达到锁定阈值时抛出 LOGIN_LOCKED；
+     * 用户名的失败次数超过 login.delayAfter 后，每次失败后需要等待的时间翻倍，未到时间时抛出 REQUEST_FREQUENTLY
+     *
+     * @param userName
+     * @param ip
+     */
+    public void check(String userName, String ip) {
+        if (!applicationProperty.isLoginLimitEnabled()) {
+            return;
+        }
+        long now = clock.getAsLong();
+        long window = windowMillis();
+        long bucket = now / window;
+        String name = normalize(userName);
+
+        List<?> values;
+        try {
+            values = redisOperator.eval(CHECK_SCRIPT, Arrays.asList(
+                    USER_KEY_PREFIX + name + ":" + bucket, USER_KEY_PREFIX + name + ":" + (bucket - 1),
+                    IP_KEY_PREFIX + ip + ":" + bucket, IP_KEY_PREFIX + ip + ":" + (bucket - 1),
+                    LAST_KEY_PREFIX + name));
+        } catch (Exception e) {
+            logger.warn("读取登陆失败次数失败，本次不做限制", e);
+            return;
+        }
+        if (values == null || values.size() < 5) {
+            return;
+        }
+
+        // 上一个窗口仍在滑动窗口内的比例
+        double weight = (window - now % window) / (double) window;
+        long userFailures = estimate(values.get(0), values.get(1), weight);
+        long ipFailures = estimate(values.get(2), values.get(3), weight);
+
+        if (userFailures >= applicationProperty.getLoginUserLockThreshold()
+                || ipFailures >= applicationProperty.getLoginIpLockThreshold()) {
+            throw new ApplicationException(ApplicationEnum.LOGIN_LOCKED);
+        }
+        long delay = delayOf(userFailures);
+        if (delay > 0 && now - toLong(values.get(4)) < delay) {
+            throw new ApplicationException(ApplicationEnum.REQUEST_FREQUENTLY);
+        }
+    }
+
+    /**
+     * 记录一次登陆失败，用户名和 ip 的计数各加 1
+     *
+     * @param userName
+     * @param ip
+     */
+    public void onFailure(String userName, String ip) {
+        if (!applicationProperty.isLoginLimitEnabled()) {
+            return;
+        }
+        long now = clock.getAsLong();
+        long window = windowMillis();
+        long bucket = now / window;
+        String name = normalize(userName);
+        try {
+            // 计数要保留到下一个窗口结束，作为下一个窗口的"上一个窗口计数"
+            redisOperator.eval(RECORD_SCRIPT, Arrays.asList(
+                    USER_KEY_PREFIX + name + ":" + bucket, IP_KEY_PREFIX + ip + ":" + bucket, LAST_KEY_PREFIX + name),
+                    window * 2, now);
+        } catch (Exception e) {
+            logger.warn("记录登陆失败次数失败", e);
+        }
+    }
+
+    /**
+     * 登陆成功后清除该用户名的失败计数，ip 的计数保留
+     *
+     * @param userName
+     */
+    public void onSuccess(String userName) {
+        if (!applicationProperty.isLoginLimitEnabled()) {
+            return;
+        }
+        long bucket = clock.getAsLong() / windowMillis();
+        String name = normalize(userName);
+        try {
+            redisOperator.del(Arrays.asList(USER_KEY_PREFIX + name + ":" + bucket,
+                    USER_KEY_PREFIX + name + ":" + (bucket - 1), LAST_KEY_PREFIX + name));
+        } catch (Exception e) {
+            logger.warn("清除登陆失败次数失败", e);
+        }
+    }
+
+    /**
+     * 失败次数超过 login.delayAfter 之后，每次登陆前需要等待的时间
+     * 第 delayAfter + 1 次失败后等待 login.delayBase，之后每失败一次翻倍，最多 login.delayMax
+     *
+     * @param failures 当前失败次数
+     * @return 单位毫秒，0 表示不需要等待
+     */
+    long delayOf(long failures) {
+        long over = failures - applicationProperty.getLoginDelayAfter();
+        if (over <= 0) {
+            return 0;
+        }
+        long delay = applicationProperty.getLoginDelayBase() << Math.min(over - 1, 20);
+        return Math.min(delay, applicationProperty.getLoginDelayMax());
+    }
+
+    private long windowMillis() {
+        return applicationProperty.getLoginWindow() * 1000L;
+    }
+
+    /**
+     * @param current  当前窗口计数
+     * @param previous 上一个窗口计数
+     * @param weight   上一个窗口仍在滑动窗口内的比例
+     * @return 滑动窗口内的失败次数，上一个窗口的部分向下取整
+     */
+    static long estimate(Object current, Object previous, double weight) {
+        return toLong(current) + (long) (toLong(previous) * weight);
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    private static String normalize(String userName) {
+        return userName == null ? "" : userName.trim();
+    }
+
+    /**
+     * 替换时钟，用于测试
+     */
+    void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+}
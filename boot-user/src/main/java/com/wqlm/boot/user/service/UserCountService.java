@@ -0,0 +1,90 @@
+package com.wqlm.boot.user.service;
+
+import com.wqlm.boot.user.config.ApplicationProperty;
+import com.wqlm.boot.user.dao.UserMapper;
+import com.wqlm.boot.user.datasource.ReadOnly;
+import com.wqlm.boot.user.po.User;
+import com.wqlm.boot.user.shard.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 用户总数
+ * 精确值对每个分片执行 count(*)，表越大越慢；
+ * 估算值读取 mysql 统计信息中的行数，在本地缓存 cache.expireTime 秒，适合列表页展示
+ */
+@Service
+public class UserCountService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserCountService.class);
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    private volatile long approximateCount;
+
+    private volatile long approximateExpireAt;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    /**
+     * @return 所有分片的用户数之和
+     */
+    @ReadOnly
+    public long exactCount() {
+        long count = 0;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            count += shardRouter.onShard(shard, () -> userMapper.selectCount(new User()));
+        }
+        return count;
+    }
+
+    /**
+     * 过期后由第一个调用的线程刷新，刷新期间其他线程继续返回旧值
+     *
+     * @return 缓存的估算用户数
+     */
+    @ReadOnly
+    public long approximateCount() {
+        long now = System.currentTimeMillis();
+        boolean loaded = approximateExpireAt > 0;
+        if (now >= approximateExpireAt && (!loaded || refreshing.compareAndSet(false, true))) {
+            try {
+                approximateCount = estimate();
+                approximateExpireAt = now + applicationProperty.getCacheExpireTime() * 1000L;
+            } finally {
+                if (loaded) {
+                    refreshing.set(false);
+                }
+            }
+        }
+        return approximateCount;
+    }
+
+    /**
+     * @return 各分片统计信息中的行数之和，统计信息不可用(如非 mysql 数据库)时返回精确值
+     */
+    private long estimate() {
+        try {
+            long count = 0;
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                Long rows = shardRouter.onShard(shard, () -> userMapper.selectApproximateCount());
+                count += rows == null ? 0 : rows;
+            }
+            return count;
+        } catch (RuntimeException e) {
+            logger.debug("读取表统计信息失败，使用精确值", e);
+            return exactCount();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.wqlm.boot.user.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wqlm.boot.user.dao.UserMapper;
+import com.wqlm.boot.user.datasource.ReadOnly;
+import com.wqlm.boot.user.enums.ExportFormat;
+import com.wqlm.boot.user.shard.ShardRouter;
+import com.wqlm.boot.user.vo.UserVO;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 用户导出
+ * 通过 mybatis 的 Cursor 和 mysql 的流式读取逐行读出用户，边读边写，内存占用与用户数无关
+ * 写出时输出流阻塞(客户端读取慢)，读取也随之暂停，不会在内存中堆积
+ * 响应头、gzip 压缩也在这里决定，接口只需把 HttpServletResponse 适配为响应头写入方法和输出流
+ */
+@Service
+public class UserExportService {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * 逐个读取所有用户的公开信息，按分片依次读取，供导出和内存索引的加载使用
+     * Cursor 只能在打开它的连接上读取，所以每个分片的读取都在一个只读事务中完成
+     *
+     * @param action 对每个用户执行的操作，抛出异常时停止读取
+     * @return 读取的用户数
+     */
+    @ReadOnly
+    public long forEachUser(Consumer<UserVO> action) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        long count = 0;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            count += shardRouter.onShard(shard, () -> transactionTemplate.execute(status -> {
+                long rows = 0;
+                try (Cursor<UserVO> cursor = userMapper.selectUserVOCursor()) {
+                    for (UserVO vo : cursor) {
+                        action.accept(vo);
+                        rows++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return rows;
+            }));
+        }
+        return count;
+    }
+
+    /**
+     * 是否使用 gzip 压缩导出的响应
+     *
+     * @param gzip           请求参数中指定的值，指定时以此为准
+     * @param acceptEncoding 请求头 Accept-Encoding，没有指定 gzip 参数时，接受 gzip(q 不为 0)才压缩
+     * @return
+     */
+    public boolean negotiateGzip(Boolean gzip, String acceptEncoding) {
+        if (gzip != null) {
+            return gzip;
+        }
+        if (acceptEncoding == null) {
+            return false;
+        }
+        // 明确列出的 gzip 优先于 *
+        Double gzipQ = null;
+        Double anyQ = null;
+        for (String item : acceptEncoding.split(",")) {
+            String[] parts = item.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if ("gzip".equals(coding)) {
+                gzipQ = quality(parts);
+            } else if ("*".equals(coding)) {
+                anyQ = quality(parts);
+            }
+        }
+        Double q = gzipQ != null ? gzipQ : anyQ;
+        return q != null && q > 0;
+    }
+
+    /**
+     * @param parts Accept-Encoding 中的一项按 ; 分割的结果
+     * @return 参数 q 的值，没有时为 1，格式错误时为 0
+     */
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * 导出所有用户的公开信息，同时写出响应头
+     *
+     * @param format  导出格式
+     * @param gzip    是否使用 gzip 压缩，见 negotiateGzip
+     * @param headers 写入响应头，如 HttpServletResponse::setHeader，在写出内容之前调用
+     * @param out     输出流，不会被关闭
+     * @return 导出的用户数
+     * @throws IOException 写出失败，如客户端断开
+     */
+    @ReadOnly
+    public long export(ExportFormat format, boolean gzip, BiConsumer<String, String> headers, OutputStream out)
+            throws IOException {
+        headers.accept("Content-Type", format.getContentType() + ";charset=UTF-8");
+        headers.accept("Content-Disposition", "attachment; filename=users." + format.getExtension());
+        headers.accept("Vary", "Accept-Encoding");
+        if (!gzip) {
+            return export(format, out);
+        }
+        headers.accept("Content-Encoding", "gzip");
+        GZIPOutputStream gzipOut = new GZIPOutputStream(out, BUFFER_SIZE);
+        long count = export(format, gzipOut);
+        gzipOut.finish();
+        return count;
+    }
+
+    /**
+     * 导出所有用户的公开信息
+     *
+     * @param format 导出格式
+     * @param out    输出流，不会被关闭
+     * @return 导出的用户数
+     * @throws IOException 写出失败，如客户端断开
+     */
+    @ReadOnly
+    public long export(ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == ExportFormat.CSV) {
+            writer.write("id,user_name\n");
+        }
+
+        long count;
+        try {
+            count = forEachUser(vo -> {
+                try {
+                    writeRow(format, vo, writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        return count;
+    }
+
+    private void writeRow(ExportFormat format, UserVO vo, Writer writer) throws IOException {
+        if (format == ExportFormat.CSV) {
+            writer.write(String.valueOf(vo.getId()));
+            writer.write(',');
+            writer.write(csvField(vo.getUserName()));
+        } else {
+            writer.write(OBJECT_MAPPER.writeValueAsString(vo));
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * 包含逗号、引号、换行的字段用引号包裹，引号转义为两个引号
+     */
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
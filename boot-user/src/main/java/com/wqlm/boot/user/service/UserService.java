@@ -1,26 +1,44 @@
 package com.wqlm.boot.user.service;
 
+import com.wqlm.boot.user.bloom.UserNameFilter;
+import com.wqlm.boot.user.cache.UserCache;
 import com.wqlm.boot.user.config.ApplicationProperty;
 import com.wqlm.boot.user.dao.UserMapper;
+import com.wqlm.boot.user.datasource.ReadOnly;
 import com.wqlm.boot.user.dto.LoginDTO;
 import com.wqlm.boot.user.dto.ModifyPasswordDTO;
 import com.wqlm.boot.user.dto.RegisterDTO;
 import com.wqlm.boot.user.enums.ApplicationEnum;
+import com.wqlm.boot.user.enums.UserEventType;
+import com.wqlm.boot.user.event.UserRegisteredEvent;
 import com.wqlm.boot.user.exception.ApplicationException;
+import com.wqlm.boot.user.outbox.UserEventOutbox;
 import com.wqlm.boot.user.po.User;
+import com.wqlm.boot.user.shard.ShardRouter;
+import com.wqlm.boot.user.util.PageCursor;
 import com.wqlm.boot.user.util.redis.RedisOperator;
 import com.wqlm.boot.user.vo.LoginVO;
+import com.wqlm.boot.user.vo.UserPageVO;
 import com.wqlm.boot.user.vo.UserVO;
-import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.DigestUtils;
 
-import java.util.UUID;
+import java.util.*;
 
 @Service
 public class UserService {
 
+    /**
+     * 批量查询时，每条 in 语句最多包含的ID个数
+     */
+    private static final int IN_QUERY_CHUNK_SIZE = 500;
+
     @Autowired
     private UserMapper userMapper;
 
@@ -30,49 +48,93 @@ public class UserService {
     @Autowired
     private ApplicationProperty applicationProperty;
 
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private UserCountService userCountService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private UserNameFilter userNameFilter;
+
+    @Autowired
+    private LoginAttemptService loginAttemptService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserEventOutbox userEventOutbox;
+
     /**
      * 用户注册
+     * 用户和 REGISTERED 事件在同一个事务中写入用户名所在的分片，成功后同步发布 UserRegisteredEvent
      *
      * @param dto
      * @return
      */
     public boolean register(RegisterDTO dto) {
+        return shardRouter.onShardOfName(dto.getUserName(), () -> {
+            // 布隆过滤器确定用户名没有注册过时，不再查询数据库
+            if (userNameFilter.mightExist(dto.getUserName()) && getUserByName(dto.getUserName()) != null) {
+                //用户名已存在
+                throw new ApplicationException(ApplicationEnum.USER_NAME_REPETITION);
+            }
 
-        if (getUserByName(dto.getUserName()) != null) {
-            //用户名已存在
-            throw new ApplicationException(ApplicationEnum.USER_NAME_REPETITION);
-        }
-
-        // 生成密码的随机盐
-        String salt = UUID.randomUUID().toString();
-        User user = new User();
-        user.setUserName(dto.getUserName());
-        // 密码加盐后在md5
-        user.setPassword(addSaltHash(dto.getPassword(), salt));
-        user.setSalt(salt);
-        return 1 == userMapper.insert(user);
-
+            // 生成密码的随机盐
+            String salt = UUID.randomUUID().toString();
+            User user = new User();
+            user.setUserName(dto.getUserName());
+            // 密码加盐后在md5
+            user.setPassword(addSaltHash(dto.getPassword(), salt));
+            user.setSalt(salt);
+            boolean inserted = new TransactionTemplate(transactionManager).execute(status -> {
+                if (1 != userMapper.insert(user)) {
+                    return false;
+                }
+                userEventOutbox.append(UserEventType.REGISTERED, user.getId(), user.getUserName());
+                return true;
+            });
+            if (!inserted) {
+                return false;
+            }
+            eventPublisher.publishEvent(new UserRegisteredEvent(user.getId(), user.getUserName()));
+            return true;
+        });
     }
 
     /**
      * 加盐hash
+     * 包级可见，供 boot-benchmarks 中的基准测试直接调用
      *
      * @param password
      * @param salt
      * @return
      */
-    private String addSaltHash(String password, String salt) {
+    static String addSaltHash(String password, String salt) {
         return DigestUtils.md5DigestAsHex((password + salt).getBytes());
     }
 
     /**
      * 修改密码
+     * 同时清除该用户的用户信息缓存，并在同一个事务中写入 PASSWORD_MODIFIED 事件
      *
      * @param dto  旧密码与新密码
      * @param user 当前登陆的用户
      * @return
      */
+    @CacheEvict(cacheNames = UserCache.CACHE_NAME, key = "#user.id")
     public boolean modifyPassword(ModifyPasswordDTO dto, User user) {
+        return shardRouter.onShardOfId(user.getId(), () -> doModifyPassword(dto, user));
+    }
+
+    private boolean doModifyPassword(ModifyPasswordDTO dto, User user) {
         User userDB = userMapper.selectByPrimaryKey(user.getId());
         if(userDB == null){
             throw new ApplicationException(ApplicationEnum.USER_NO_EXIST);
@@ -87,25 +149,131 @@ public class UserService {
         User updateUser = new User();
         updateUser.setId(userDB.getId());
         updateUser.setPassword(addSaltHash(dto.getNewPassword(), userDB.getSalt()));
-        return 1 == userMapper.updateByPrimaryKeySelective(updateUser);
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            if (1 != userMapper.updateByPrimaryKeySelective(updateUser)) {
+                return false;
+            }
+            userEventOutbox.append(UserEventType.PASSWORD_MODIFIED, userDB.getId(), userDB.getUserName());
+            return true;
+        });
     }
 
     /**
-     * 更加用户ID获取用户
+     * 根据用户ID获取用户
+     * 只查询可以公开的字段并直接映射到 UserVO，结果缓存在 user 缓存中，用户不存在时不缓存
      *
      * @param id
+     * @return 用户不存在时返回 null
+     */
+    @ReadOnly
+    @Cacheable(cacheNames = UserCache.CACHE_NAME, key = "#id", unless = "#result == null")
+    public UserVO getUser(Long id) {
+        return shardRouter.onShardOfId(id, () -> userMapper.selectUserVOById(id));
+    }
+
+
+    /**
+     * 根据多个用户ID批量获取用户
+     * 先通过一次 MGET 读取缓存，未命中的再按所在分片分组，通过 in 查询从数据库加载并写回缓存
+     *
+     * @param ids
+     * @return 按 ids 的顺序排列，重复的ID只返回一次，不存在的用户不返回
+     */
+    @ReadOnly
+    public List<UserVO> getUsers(Collection<Long> ids) {
+        Set<Long> idSet = new LinkedHashSet<>(ids);
+        idSet.remove(null);
+
+        Map<Long, UserVO> users = userCache.getAll(idSet);
+
+        List<Long> missIds = new ArrayList<>(idSet.size() - users.size());
+        for (Long id : idSet) {
+            if (!users.containsKey(id)) {
+                missIds.add(id);
+            }
+        }
+
+        if (!missIds.isEmpty()) {
+            Map<Long, UserVO> loaded = new HashMap<>(missIds.size() * 2);
+            for (Map.Entry<Integer, List<Long>> group : shardRouter.groupByShard(missIds).entrySet()) {
+                List<Long> shardIds = group.getValue();
+                shardRouter.onShard(group.getKey(), () -> {
+                    for (int from = 0; from < shardIds.size(); from += IN_QUERY_CHUNK_SIZE) {
+                        List<Long> chunk = shardIds.subList(from, Math.min(from + IN_QUERY_CHUNK_SIZE, shardIds.size()));
+                        for (UserVO vo : userMapper.selectUserVOByIds(chunk)) {
+                            loaded.put(vo.getId(), vo);
+                        }
+                    }
+                    return null;
+                });
+            }
+            userCache.putAll(loaded);
+            users.putAll(loaded);
+        }
+
+        List<UserVO> result = new ArrayList<>(users.size());
+        for (Long id : idSet) {
+            UserVO vo = users.get(id);
+            if (vo != null) {
+                result.add(vo);
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * 按用户id升序分页获取用户列表(键集分页)
+     * 每个分片查询 id 大于游标的前 size + 1 个用户，合并后取前 size 个，多出的用于判断是否有下一页
+     *
+     * @param cursor     上一页返回的游标，为空时获取第一页
+     * @param size       每页的用户数
+     * @param exactCount 是否返回精确的用户总数，为 false 时返回缓存的估算值
      * @return
      */
-    public UserVO getUser(Integer id) {
-        User user = userMapper.selectByPrimaryKey(id);
-        UserVO vo = new UserVO();
-        BeanUtils.copyProperties(vo, user);
-        return vo;
+    @ReadOnly
+    public UserPageVO listUsers(String cursor, int size, boolean exactCount) {
+        List<UserVO> users = selectUsersAfter(PageCursor.decode(cursor), size + 1);
+
+        UserPageVO page = new UserPageVO();
+        if (users.size() > size) {
+            users = new ArrayList<>(users.subList(0, size));
+            page.setNextCursor(PageCursor.encode(users.get(size - 1).getId()));
+        }
+        page.setList(users);
+        page.setTotal(exactCount ? userCountService.exactCount() : userCountService.approximateCount());
+        page.setTotalExact(exactCount);
+        return page;
+    }
+
+    /**
+     * 按用户id升序获取前 size 个用户，不统计用户总数
+     * 用于预热缓存，不会在启动时缓存估算的用户总数
+     *
+     * @param size
+     * @return
+     */
+    @ReadOnly
+    public List<UserVO> listFirstUsers(int size) {
+        List<UserVO> users = selectUsersAfter(null, size);
+        return users.size() > size ? new ArrayList<>(users.subList(0, size)) : users;
+    }
+
+    /**
+     * 每个分片查询 id 大于 afterId 的前 limit 个用户，合并后按id升序排列
+     */
+    private List<UserVO> selectUsersAfter(Long afterId, int limit) {
+        List<UserVO> users = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            users.addAll(shardRouter.onShard(shard, () -> userMapper.selectUserVOAfter(afterId, limit)));
+        }
+        users.sort(Comparator.comparing(UserVO::getId));
+        return users;
     }
 
 
     /**
-     * 根据用户名查询用户
+     * 根据用户名查询用户，只访问用户名所在的分片
      *
      * @param name
      * @return
@@ -113,15 +281,62 @@ public class UserService {
     private User getUserByName(String name) {
         User user = new User();
         user.setUserName(name);
-        return userMapper.selectOne(user);
+        return shardRouter.onShardOfName(name, () -> userMapper.selectOne(user));
     }
 
     /**
      * 登陆
      *
      * @param dto
+     * @param ip  客户端 ip，用于统计登陆失败次数
      */
-    public LoginVO login(LoginDTO dto) {
+    @ReadOnly
+    public LoginVO login(LoginDTO dto, String ip) {
+        User user = authenticate(dto, ip);
+
+        //密码一致登陆成功，将用户信息存储在redis中
+        String token = UUID.randomUUID().toString();
+        redisOperator.set(token, user, applicationProperty.getSessionTtl());
+        LoginVO vo = new LoginVO();
+        vo.setUserName(user.getUserName());
+        vo.setToken(token);
+        return vo;
+    }
+
+    /**
+     * 校验用户名和密码，并统计登陆失败次数
+     * 失败次数过多时直接拒绝，不再计算密码哈希和查询数据库
+     *
+     * @param dto
+     * @param ip  客户端 ip
+     * @return
+     */
+    @ReadOnly
+    public User authenticate(LoginDTO dto, String ip) {
+        loginAttemptService.check(dto.getUserName(), ip);
+        User user;
+        try {
+            user = authenticate(dto);
+        } catch (ApplicationException e) {
+            loginAttemptService.onFailure(dto.getUserName(), ip);
+            throw e;
+        }
+        loginAttemptService.onSuccess(dto.getUserName());
+        return user;
+    }
+
+    /**
+     * 校验用户名和密码，只访问数据库，不创建 session
+     *
+     * @param dto
+     * @return 校验通过的用户
+     */
+    @ReadOnly
+    public User authenticate(LoginDTO dto) {
+        if (!userNameFilter.mightExist(dto.getUserName())) {
+            //布隆过滤器确定用户不存在
+            throw new ApplicationException(ApplicationEnum.USER_NO_EXIST);
+        }
         User user = getUserByName(dto.getUserName());
         if (user == null) {
             //用户不存在
@@ -133,15 +348,7 @@ public class UserService {
             // 密码不一致
             throw new ApplicationException(ApplicationEnum.PASSWORD_ERR);
         }
-
-        //密码一致登陆成功，将用户信息存储在redis中
-        String token = UUID.randomUUID().toString();
-        redisOperator.set(token, user, applicationProperty.getSessionTtl());
-        LoginVO vo = new LoginVO();
-        vo.setUserName(user.getUserName());
-        vo.setToken(token);
-        return vo;
+        return user;
     }
 
-
-}
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.wqlm.boot.user.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wqlm.boot.user.config.ApplicationProperty;
+import com.wqlm.boot.user.dao.UserMapper;
+import com.wqlm.boot.user.dto.LoginDTO;
+import com.wqlm.boot.user.po.User;
+import com.wqlm.boot.user.shard.ShardRouter;
+import com.wqlm.boot.user.startup.WarmUpTask;
+import com.wqlm.boot.user.vo.LoginVO;
+import com.wqlm.boot.user.vo.UserVO;
+import com.wqlm.boot.user.vo.result.SuccessResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+/**
+ * 用合成的数据执行登陆链路上的热点代码，使其在接收流量前被 JIT 编译
+ * 密码哈希、session(User)和用户信息缓存(UserVO)的序列化与反序列化、请求和响应的 json 转换各执行 warmup.iterations 次，
+ * 再按不存在的用户名查询 warmup.queries 次，经过分片路由、mybatis 和 jdbc 驱动，不会修改数据
+ */
+@Component
+@Order(10)
+public class UserServiceWarmUp implements WarmUpTask {
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private RedisSerializer<Object> cacheValueSerializer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    @Override
+    public String getName() {
+        return "userService";
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void warmUp() throws Exception {
+        RedisSerializer<Object> sessionSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        User user = new User();
+        user.setId(1L);
+        user.setUserName("warm-up");
+        user.setSalt("warm-up-salt");
+        UserVO userVO = new UserVO();
+        userVO.setId(1L);
+        userVO.setUserName("warm-up");
+        LoginVO loginVO = new LoginVO();
+        loginVO.setUserName("warm-up");
+
+        int iterations = applicationProperty.getWarmupIterations();
+        for (int i = 0; i < iterations && !Thread.currentThread().isInterrupted(); i++) {
+            user.setPassword(UserService.addSaltHash("warm-up-" + i, user.getSalt()));
+            sessionSerializer.deserialize(sessionSerializer.serialize(user));
+            cacheValueSerializer.deserialize(cacheValueSerializer.serialize(userVO));
+
+            String request = "{\"userName\":\"warm-up\",\"password\":\"warm-up-" + i + "\"}";
+            objectMapper.readValue(request, LoginDTO.class);
+            loginVO.setToken(user.getPassword());
+            objectMapper.writeValueAsString(new SuccessResult<>(loginVO));
+        }
+
+        int queries = applicationProperty.getWarmupQueries();
+        for (int i = 0; i < queries && !Thread.currentThread().isInterrupted(); i++) {
+            User probe = new User();
+            probe.setUserName("warm-up-" + i);
+            shardRouter.onShardOfName(probe.getUserName(), () -> userMapper.selectOne(probe));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.wqlm.boot.user.shard;
+
+/**
+ * 记录当前线程要访问的分片，由 ShardRouter 设置，ShardRoutingDataSource 读取
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * @return 当前线程要访问的分片下标，没有指定时返回 null
+     */
+    public static Integer current() {
+        return SHARD.get();
+    }
+
+    /**
+     * 设置当前线程要访问的分片
+     *
+     * @param shard 分片下标，为 null 时清除
+     */
+    static void set(Integer shard) {
+        if (shard == null) {
+            SHARD.remove();
+        } else {
+            SHARD.set(shard);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.wqlm.boot.user.shard;
+
+import com.wqlm.boot.user.config.ApplicationProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * 用户分片规则
+ * 用户按 crc32(用户名) % 分片数 分布到各个分片，用户ID由 IdGenerator 在 insert 前生成，
+ * 生成的ID满足 (用户ID - 1) % 分片数 == 所在的分片(与早期按分片设置自增步长和起始值生成的ID规则相同)，
+ * 按用户名(登陆、注册)和按用户ID(获取用户)的访问都只需要访问一个分片
+ * 分片数与数据一一对应，修改分片数需要迁移数据
+ * 没有配置 shard.urls 时只有一个分片，所有方法都直接执行，不设置 ShardContext
+ */
+@Component
+public class ShardRouter {
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    private int shardCount;
+
+    @PostConstruct
+    public void init() {
+        String urls = applicationProperty.getShardUrls();
+        shardCount = urls.isEmpty() ? 1 : urls.split(",").length;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * 与 User#setUserName 一致，先去掉首尾空格
+     *
+     * @param userName
+     * @return 用户名所在的分片
+     */
+    public int shardOfName(String userName) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(userName.trim().getBytes(StandardCharsets.UTF_8));
+        return (int) (crc32.getValue() % shardCount);
+    }
+
+    /**
+     * @param id
+     * @return 用户ID所在的分片
+     */
+    public int shardOfId(Long id) {
+        return (int) Math.floorMod(id - 1, (long) shardCount);
+    }
+
+    /**
+     * 在当前分片上新建用户时，用户ID应满足 用户ID % 分片数 == 返回值
+     *
+     * @return
+     */
+    public int currentIdResidue() {
+        Integer shard = ShardContext.current();
+        return ((shard == null ? 0 : shard) + 1) % shardCount;
+    }
+
+    /**
+     * 在指定的分片上执行 action，action 中的数据库访问都会路由到该分片
+     *
+     * @param shard
+     * @param action
+     * @param <T>
+     * @return action 的返回值
+     */
+    public <T> T onShard(int shard, Supplier<T> action) {
+        if (shardCount == 1) {
+            return action.get();
+        }
+        Integer previous = ShardContext.current();
+        ShardContext.set(shard);
+        try {
+            return action.get();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    public <T> T onShardOfName(String userName, Supplier<T> action) {
+        return onShard(shardOfName(userName), action);
+    }
+
+    public <T> T onShardOfId(Long id, Supplier<T> action) {
+        return onShard(shardOfId(id), action);
+    }
+
+    /**
+     * 按所在分片对用户ID分组
+     *
+     * @param ids
+     * @return 分片下标-该分片上的用户ID，保持 ids 中的相对顺序
+     */
+    public Map<Integer, List<Long>> groupByShard(Collection<Long> ids) {
+        Map<Integer, List<Long>> groups = new TreeMap<>();
+        for (Long id : ids) {
+            groups.computeIfAbsent(shardOfId(id), shard -> new ArrayList<>()).add(id);
+        }
+        return groups;
+    }
+}
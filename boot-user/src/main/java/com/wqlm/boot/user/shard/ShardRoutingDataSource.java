@@ -0,0 +1,60 @@
+package com.wqlm.boot.user.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分库数据源，按 ShardContext 中的分片下标选择连接池
+ * 没有指定分片的访问(如健康检查)使用 0 号分片，user 表的读写都应通过 ShardRouter 指定分片
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private final List<HikariDataSource> shards;
+
+    /**
+     * @param shards 各分片的连接池，下标即分片下标
+     */
+    public ShardRoutingDataSource(List<HikariDataSource> shards) {
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+        Map<Object, Object> targets = new HashMap<>(shards.size() * 2);
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * @return 各分片的连接池，下标即分片下标
+     */
+    public List<HikariDataSource> getPools() {
+        return shards;
+    }
+
+    /**
+     * 关闭所有分片的连接池
+     */
+    @Override
+    public void destroy() {
+        for (HikariDataSource shard : shards) {
+            shard.close();
+        }
+    }
+}
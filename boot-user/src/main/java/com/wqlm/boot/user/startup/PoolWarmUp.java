@@ -0,0 +1,123 @@
+package com.wqlm.boot.user.startup;
+
+import com.wqlm.boot.user.datasource.ReadWriteRoutingDataSource;
+import com.wqlm.boot.user.shard.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 预先建立数据库和 redis 连接，第一批请求不再承担建立连接及创建延迟初始化 bean 的耗时
+ * 数据库 : 每个 hikari 连接池(包括读写分离的从库、各分片)同时借出 minimum-idle 个连接再归还，
+ * hikari 本身只在后台逐个补足空闲连接，就绪时可能还没有补足
+ * redis : 共享连接执行 PING；配置了 spring.redis.lettuce.pool.min-idle 时，同时借出 min-idle 个独占连接(事务、阻塞命令使用)再归还
+ * 连接失败只打印警告，与连接池本身的行为一致，依赖不可用不影响启动，由 db、redis 的健康检查反映
+ */
+@Order(0)
+public class PoolWarmUp implements WarmUpTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(PoolWarmUp.class);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private RedisConnectionFactory redisConnectionFactory;
+
+    @Autowired
+    private RedisProperties redisProperties;
+
+    @Override
+    public String getName() {
+        return "pools";
+    }
+
+    @Override
+    public void warmUp() {
+        for (HikariDataSource pool : poolsOf(dataSource)) {
+            warmUp(pool);
+        }
+        warmUpRedis();
+    }
+
+    /**
+     * 借出连接时会初始化连接池
+     */
+    private static void warmUp(HikariDataSource pool) {
+        int count = Math.max(1, Math.min(pool.getMinimumIdle(), pool.getMaximumPoolSize()));
+        List<Connection> connections = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                Connection connection = pool.getConnection();
+                connections.add(connection);
+                connection.isValid(1);
+            }
+        } catch (SQLException e) {
+            logger.warn("预热连接池 {} 失败，已建立 {} 个连接", pool.getPoolName(), connections.size(), e);
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    // 归还连接失败由 hikari 处理
+                }
+            }
+        }
+    }
+
+    private void warmUpRedis() {
+        RedisProperties.Pool pool = redisProperties.getLettuce().getPool();
+        int minIdle = pool == null ? 0 : pool.getMinIdle();
+        List<RedisConnection> connections = new ArrayList<>(minIdle + 1);
+        try {
+            RedisConnection shared = redisConnectionFactory.getConnection();
+            connections.add(shared);
+            shared.ping();
+            for (int i = 0; i < minIdle; i++) {
+                RedisConnection connection = redisConnectionFactory.getConnection();
+                connections.add(connection);
+                // 开启事务时从连接池借出独占连接，关闭连接时归还
+                connection.multi();
+                connection.discard();
+            }
+        } catch (Exception e) {
+            logger.warn("预热 redis 连接失败", e);
+        } finally {
+            for (RedisConnection connection : connections) {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * 读写分离、分库时返回其中的所有连接池
+     */
+    private static List<HikariDataSource> poolsOf(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(ReadWriteRoutingDataSource.class)) {
+                return dataSource.unwrap(ReadWriteRoutingDataSource.class).getPools();
+            }
+            if (dataSource.isWrapperFor(ShardRoutingDataSource.class)) {
+                return dataSource.unwrap(ShardRoutingDataSource.class).getPools();
+            }
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return Collections.singletonList(dataSource.unwrap(HikariDataSource.class));
+            }
+        } catch (SQLException e) {
+            logger.warn("无法取得连接池", e);
+        }
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,99 @@
+package com.wqlm.boot.user.startup;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.Ordered;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.util.ClassUtils;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 选择性的延迟初始化，spring boot 2.1 还没有 spring.main.lazy-initialization
+ * 除以下 bean 外都标记为延迟初始化，第一次被使用时才创建：
+ * spring 的基础设施 bean；实现了 SmartInitializingSingleton 或 SmartLifecycle 的 bean(需要在启动时回调)；
+ * 标注了 @Lazy 的 bean(按注解的值)；eagerBeans 中指定的 bean
+ * 创建时有副作用又没有被其他 bean 依赖的 bean(如设置静态变量)需要标注 @Lazy(false)
+ * 延迟初始化的 bean 的配置错误要到第一次使用时才暴露，第一批请求也要承担创建 bean 的耗时，因此就绪前由 WarmUpRunner 预先建立连接、执行热点代码
+ */
+public class SelectiveLazyInitPostProcessor implements BeanFactoryPostProcessor, Ordered {
+
+    private final Set<String> eagerBeans;
+
+    /**
+     * @param eagerBeans 仍在启动时创建的 bean 名称
+     */
+    public SelectiveLazyInitPostProcessor(Collection<String> eagerBeans) {
+        this.eagerBeans = new HashSet<>(eagerBeans);
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        ClassLoader classLoader = beanFactory.getBeanClassLoader();
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+            if (definition.isAbstract() || !definition.isSingleton()
+                    || definition.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE
+                    || eagerBeans.contains(name) || isLazyAnnotated(definition)
+                    || needsStartupCallback(definition, classLoader)) {
+                continue;
+            }
+            definition.setLazyInit(true);
+        }
+    }
+
+    /**
+     * spring 5.1 的 BeanDefinition 无法区分 lazyInit 是默认值还是 @Lazy(false)，直接检查注解
+     */
+    private static boolean isLazyAnnotated(BeanDefinition definition) {
+        if (!(definition instanceof AnnotatedBeanDefinition)) {
+            return false;
+        }
+        AnnotatedBeanDefinition annotated = (AnnotatedBeanDefinition) definition;
+        MethodMetadata factoryMethod = annotated.getFactoryMethodMetadata();
+        if (factoryMethod != null) {
+            return factoryMethod.isAnnotated(Lazy.class.getName());
+        }
+        return annotated.getMetadata().isAnnotated(Lazy.class.getName());
+    }
+
+    /**
+     * 只根据 bean 定义中的类名判断，不调用 getType，避免为了判断类型提前创建 FactoryBean
+     * 类型无法确定时按需要回调处理，保持启动时创建
+     */
+    private static boolean needsStartupCallback(BeanDefinition definition, ClassLoader classLoader) {
+        String className = definition.getBeanClassName();
+        if (definition instanceof AnnotatedBeanDefinition) {
+            MethodMetadata factoryMethod = ((AnnotatedBeanDefinition) definition).getFactoryMethodMetadata();
+            if (factoryMethod != null) {
+                className = factoryMethod.getReturnTypeName();
+            }
+        }
+        if (className == null) {
+            return true;
+        }
+        Class<?> type;
+        try {
+            type = ClassUtils.forName(className, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return true;
+        }
+        return SmartInitializingSingleton.class.isAssignableFrom(type) || SmartLifecycle.class.isAssignableFrom(type);
+    }
+
+    /**
+     * 在其他 BeanFactoryPostProcessor 注册完 bean 定义之后执行
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,49 @@
+package com.wqlm.boot.user.startup;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 启动预热是否完成，作为 /actuator/health 中的 startup
+ * 预热完成前为 OUT_OF_SERVICE，/actuator/health 返回 503，就绪探针指向 /actuator/health 即可在预热完成后才接收流量
+ */
+public class StartupHealthIndicator implements HealthIndicator {
+
+    private volatile long startupTime = -1;
+
+    private volatile Map<String, Long> warmUp = Collections.emptyMap();
+
+    /**
+     * 标记预热完成，记录从 jvm 启动到就绪的耗时
+     *
+     * @param warmUp 各预热任务的耗时，单位毫秒
+     */
+    public void markReady(Map<String, Long> warmUp) {
+        this.warmUp = Collections.unmodifiableMap(new LinkedHashMap<>(warmUp));
+        startupTime = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+
+    public boolean isReady() {
+        return startupTime >= 0;
+    }
+
+    /**
+     * @return 从 jvm 启动到就绪的耗时，单位毫秒，未就绪时为 -1
+     */
+    public long getStartupTime() {
+        return startupTime;
+    }
+
+    @Override
+    public Health health() {
+        if (!isReady()) {
+            return Health.outOfService().build();
+        }
+        return Health.up().withDetail("startupTime", startupTime).withDetail("warmUp", warmUp).build();
+    }
+}
@@ -0,0 +1,104 @@
+package com.wqlm.boot.user.startup;
+
+import com.wqlm.boot.user.config.ApplicationProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * 应用启动后在后台线程中依次执行所有 WarmUpTask，全部完成后将 StartupHealthIndicator 标记为就绪
+ * 所有任务共用 warmup.timeout 毫秒的时间，超时时中断当前任务并跳过剩余的任务，仍然标记为就绪，避免依赖异常时永远不能接收流量
+ * 单个任务出错时打印警告并继续执行下一个；各任务的耗时(毫秒，超时或出错时为 -1)作为 startup 的 warmUp 明细
+ * warmup.enabled=false 时不预热，直接就绪
+ */
+public class WarmUpRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmUpRunner.class);
+
+    @Autowired
+    private List<WarmUpTask> tasks;
+
+    @Autowired
+    private StartupHealthIndicator startupHealthIndicator;
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (!applicationProperty.isWarmupEnabled()) {
+            ready(new LinkedHashMap<>());
+            return;
+        }
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Thread runner = new Thread(() -> {
+            try {
+                ready(runAll(executor));
+            } finally {
+                executor.shutdownNow();
+            }
+        }, "warm-up-runner");
+        runner.setDaemon(true);
+        runner.start();
+    }
+
+    /**
+     * @return 任务名称-耗时
+     */
+    private Map<String, Long> runAll(ExecutorService executor) {
+        Map<String, Long> durations = new LinkedHashMap<>();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(applicationProperty.getWarmupTimeout());
+        for (WarmUpTask task : tasks) {
+            long taskStart = System.nanoTime();
+            Future<?> future = executor.submit(() -> {
+                task.warmUp();
+                return null;
+            });
+            try {
+                future.get(deadline - taskStart, TimeUnit.NANOSECONDS);
+                durations.put(task.getName(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - taskStart));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                durations.put(task.getName(), -1L);
+                logger.warn("预热超过 {}ms，中断 {} 并跳过剩余的预热任务", applicationProperty.getWarmupTimeout(), task.getName());
+                break;
+            } catch (ExecutionException e) {
+                durations.put(task.getName(), -1L);
+                logger.warn("预热任务 {} 失败", task.getName(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        logger.info("预热完成，耗时 {}ms，各任务耗时 {}", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), durations);
+        return durations;
+    }
+
+    /**
+     * 标记就绪，startup.exitWhenReady=true 时随后退出，用于生成 AppCDS 归档的训练运行
+     */
+    private void ready(Map<String, Long> durations) {
+        startupHealthIndicator.markReady(durations);
+        logger.info("应用已就绪，从 jvm 启动耗时 {}ms", startupHealthIndicator.getStartupTime());
+        if (applicationProperty.isStartupExitWhenReady()) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+}
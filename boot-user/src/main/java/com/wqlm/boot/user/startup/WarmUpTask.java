@@ -0,0 +1,20 @@
+package com.wqlm.boot.user.startup;
+
+/**
+ * 就绪前执行的预热任务，由 WarmUpRunner 在后台线程中按 @Order 依次执行
+ * 预热出错只影响预热效果，不影响启动，实现中应自行捕获依赖不可用等预期内的异常并打印警告
+ */
+public interface WarmUpTask {
+
+    /**
+     * @return 任务名称，作为 /actuator/health 中 startup 的 warmUp 明细的 key
+     */
+    String getName();
+
+    /**
+     * 执行预热，超过 warmup.timeout 时线程被中断
+     *
+     * @throws Exception
+     */
+    void warmUp() throws Exception;
+}
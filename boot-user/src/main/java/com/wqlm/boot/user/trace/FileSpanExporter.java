@@ -0,0 +1,93 @@
+package com.wqlm.boot.user.trace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 将 span 以每行一个 json 的格式追加到文件中
+ * 写文件在单独的后台线程中进行，队列满时丢弃新的 trace，不阻塞请求线程
+ */
+public class FileSpanExporter implements SpanExporter, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileSpanExporter.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final BlockingQueue<List<Span>> queue;
+
+    private final Writer writer;
+
+    private final Thread worker;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    public FileSpanExporter(String file, int queueSize) throws IOException {
+        File target = new File(file);
+        File dir = target.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IOException("无法创建目录 " + dir);
+        }
+        this.writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(target, true), StandardCharsets.UTF_8));
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.worker = new Thread(this::drain, "span-exporter");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @Override
+    public void export(List<Span> spans) {
+        if (!queue.offer(spans)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return 因队列满而丢弃的 trace 数
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            try {
+                List<Span> spans = queue.poll(1, TimeUnit.SECONDS);
+                if (spans == null) {
+                    continue;
+                }
+                for (Span span : spans) {
+                    writer.write(objectMapper.writeValueAsString(span));
+                    writer.write('\n');
+                }
+                if (queue.isEmpty()) {
+                    writer.flush();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                logger.warn("写入 span 失败", e);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+        writer.close();
+    }
+}
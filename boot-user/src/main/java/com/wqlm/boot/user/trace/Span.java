@@ -0,0 +1,145 @@
+package com.wqlm.boot.user.trace;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次调用的耗时记录，由 Tracer 创建，通过 try-with-resources 结束
+ * 未采样的 trace 中创建的 span 都是 NOOP，不记录任何数据
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Span implements AutoCloseable {
+
+    /**
+     * 未采样时使用的 span，所有操作都不生效
+     */
+    static final Span NOOP = new Span(null, null, null, null);
+
+    private final Tracer tracer;
+
+    private final Trace trace;
+
+    private final Span parent;
+
+    private final String spanId;
+
+    private final String name;
+
+    /**
+     * 开始时间，单位微秒(自1970年1月1日以来)
+     */
+    private final long startMicros;
+
+    private final long startNanos;
+
+    private volatile long durationMicros = -1;
+
+    private Map<String, String> tags;
+
+    private String error;
+
+    Span(Tracer tracer, Trace trace, Span parent, String name) {
+        this.tracer = tracer;
+        this.trace = trace;
+        this.parent = parent;
+        this.name = name;
+        this.spanId = tracer == null ? null : Tracer.newId();
+        this.startMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * 添加一个标签，如 sql 语句、redis 命令的 key
+     *
+     * @param key
+     * @param value
+     * @return
+     */
+    public Span tag(String key, Object value) {
+        if (this != NOOP) {
+            synchronized (this) {
+                if (tags == null) {
+                    tags = new LinkedHashMap<>();
+                }
+                tags.put(key, String.valueOf(value));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 记录调用抛出的异常
+     *
+     * @param e
+     * @return
+     */
+    public Span error(Throwable e) {
+        if (this != NOOP) {
+            error = e.getClass().getName() + (e.getMessage() == null ? "" : ": " + e.getMessage());
+        }
+        return this;
+    }
+
+    /**
+     * 结束 span，重复调用无效
+     */
+    @Override
+    public void close() {
+        if (this == NOOP || durationMicros >= 0) {
+            return;
+        }
+        durationMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        tracer.finish(this);
+    }
+
+    public String getTraceId() {
+        return trace == null ? null : trace.getTraceId();
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public String getParentId() {
+        return parent == null ? null : parent.spanId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getStartMicros() {
+        return startMicros;
+    }
+
+    public long getDurationMicros() {
+        return durationMicros;
+    }
+
+    public synchronized Map<String, String> getTags() {
+        return tags;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @JsonIgnore
+    Trace getTrace() {
+        return trace;
+    }
+
+    @JsonIgnore
+    Span getParent() {
+        return parent;
+    }
+
+    @JsonIgnore
+    public boolean isSampled() {
+        return trace != null && trace.isSampled();
+    }
+}
@@ -0,0 +1,17 @@
+package com.wqlm.boot.user.trace;
+
+import java.util.List;
+
+/**
+ * 导出已结束的 span，由 trace.exporter 选择实现
+ * 在结束根 span 的线程中调用，实现不能阻塞
+ */
+public interface SpanExporter {
+
+    /**
+     * 导出一个 trace 的所有 span
+     *
+     * @param spans 按结束的顺序排列，最后一个是根 span
+     */
+    void export(List<Span> spans);
+}
@@ -0,0 +1,38 @@
+package com.wqlm.boot.user.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一次请求中所有 span 的集合，根 span 结束时交给 SpanExporter
+ */
+class Trace {
+
+    private final String traceId;
+
+    private final boolean sampled;
+
+    private final List<Span> spans;
+
+    Trace(String traceId, boolean sampled) {
+        this.traceId = traceId;
+        this.sampled = sampled;
+        this.spans = sampled ? new ArrayList<>() : null;
+    }
+
+    String getTraceId() {
+        return traceId;
+    }
+
+    boolean isSampled() {
+        return sampled;
+    }
+
+    synchronized void add(Span span) {
+        spans.add(span);
+    }
+
+    synchronized List<Span> spans() {
+        return new ArrayList<>(spans);
+    }
+}
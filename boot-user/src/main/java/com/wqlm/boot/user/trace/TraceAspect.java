@@ -0,0 +1,48 @@
+package com.wqlm.boot.user.trace;
+
+import com.wqlm.boot.user.util.redis.RedisKeys;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * 为 UserService 的每个方法和 BaseRedisOperator 及其子类的每个公开方法创建 span
+ * service 的 span 名称为 UserService.方法名，redis 的 span 名称为 redis.方法名，并以第一个参数的前缀作为 key 标签
+ * 不记录完整的 key，session 的 key 就是 token，见 RedisKeys
+ * 由 TraceConfig 注册
+ */
+@Aspect
+public class TraceAspect {
+
+    private final Tracer tracer;
+
+    public TraceAspect(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Around("within(com.wqlm.boot.user.service.UserService)")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return proceed(joinPoint, tracer.startSpan("UserService." + joinPoint.getSignature().getName()));
+    }
+
+    @Around("within(com.wqlm.boot.user.util.redis.BaseRedisOperator+) && execution(public * *(..))")
+    public Object traceRedis(ProceedingJoinPoint joinPoint) throws Throwable {
+        Span span = tracer.startSpan("redis." + joinPoint.getSignature().getName());
+        Object[] args = joinPoint.getArgs();
+        if (span.isSampled() && args.length > 0) {
+            span.tag("key", RedisKeys.redact(args[0]));
+        }
+        return proceed(joinPoint, span);
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint, Span span) throws Throwable {
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.close();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.wqlm.boot.user.trace;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 为每个请求开始一个 trace，根 span 名称为 "请求方法 uri"
+ * 请求头 X-Trace-Id 存在且合法时沿用上游的 traceId，否则生成新的，并在响应头 X-Trace-Id 中返回 traceId
+ * 合法的 traceId 最长 64 个字符，只包含字母、数字、- 和 _，避免任意内容写入日志、span 和响应头
+ * 异步请求(见 ResultExecutor)的根 span 在异步处理完成时结束
+ */
+public class TraceFilter extends OncePerRequestFilter {
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private static final int MAX_TRACE_ID_LENGTH = 64;
+
+    private final Tracer tracer;
+
+    public TraceFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Span root = tracer.startTrace(request.getMethod() + " " + request.getRequestURI(),
+                acceptTraceId(request.getHeader(TRACE_ID_HEADER)));
+        response.setHeader(TRACE_ID_HEADER, root.getTraceId());
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            root.error(e);
+            throw e;
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new FinishListener(root, response));
+                // 根 span 由异步处理完成的线程结束，这里只清除当前线程的 trace
+                tracer.detach(root);
+            } else {
+                root.tag("status", response.getStatus()).close();
+            }
+        }
+    }
+
+    /**
+     * @param traceId 请求头中的 traceId
+     * @return 合法时原样返回，否则返回 null，由 Tracer 生成新的
+     */
+    static String acceptTraceId(String traceId) {
+        if (traceId == null || traceId.isEmpty() || traceId.length() > MAX_TRACE_ID_LENGTH) {
+            return null;
+        }
+        for (int i = 0; i < traceId.length(); i++) {
+            char c = traceId.charAt(i);
+            boolean valid = (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                    || c == '-' || c == '_';
+            if (!valid) {
+                return null;
+            }
+        }
+        return traceId;
+    }
+
+    private static class FinishListener implements AsyncListener {
+
+        private final Span root;
+
+        private final HttpServletResponse response;
+
+        FinishListener(Span root, HttpServletResponse response) {
+            this.root = root;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            root.tag("status", response.getStatus()).close();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            root.error(new IllegalStateException("async request timeout"));
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            if (event.getThrowable() != null) {
+                root.error(event.getThrowable());
+            }
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
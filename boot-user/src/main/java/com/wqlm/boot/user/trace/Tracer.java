@@ -0,0 +1,141 @@
+package com.wqlm.boot.user.trace;
+
+import org.slf4j.MDC;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 轻量的调用链追踪
+ * 每个请求由 TraceFilter 开始一个 trace，traceId 放入 MDC 的 traceId 中，所有请求的日志都带有 traceId；
+ * 只有被采样的 trace 才记录 span，未采样时 startSpan 返回 NOOP，开销只有一次 ThreadLocal 读取
+ * 当前 span 保存在 ThreadLocal 中，切换线程时通过 wrap 传递
+ */
+public class Tracer {
+
+    public static final String MDC_KEY = "traceId";
+
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+
+    private final SpanExporter exporter;
+
+    private final double sampleRate;
+
+    /**
+     * @param exporter
+     * @param sampleRate 采样率，0 到 1，0 表示不记录 span，只在日志中输出 traceId
+     */
+    public Tracer(SpanExporter exporter, double sampleRate) {
+        this.exporter = exporter;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * 开始一个新的 trace，并以返回的根 span 作为当前 span
+     *
+     * @param name
+     * @param traceId 上游传入的 traceId，为 null 时生成新的
+     * @return
+     */
+    public Span startTrace(String name, String traceId) {
+        boolean sampled = sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        Trace trace = new Trace(traceId == null ? newId() : traceId, sampled);
+        Span root = new Span(this, trace, null, name);
+        current.set(root);
+        MDC.put(MDC_KEY, trace.getTraceId());
+        return root;
+    }
+
+    /**
+     * 在当前 span 下开始一个子 span，并作为当前 span，当前没有被采样的 trace 时返回 NOOP
+     *
+     * @param name
+     * @return
+     */
+    public Span startSpan(String name) {
+        Span parent = current.get();
+        if (parent == null || !parent.isSampled()) {
+            return Span.NOOP;
+        }
+        Span span = new Span(this, parent.getTrace(), parent, name);
+        current.set(span);
+        return span;
+    }
+
+    /**
+     * @return 当前 span，没有时返回 null
+     */
+    public Span currentSpan() {
+        return current.get();
+    }
+
+    /**
+     * 在执行 task 时以当前线程的当前 span 作为 task 所在线程的当前 span，用于线程池的 TaskDecorator
+     *
+     * @param task
+     * @return
+     */
+    public Runnable wrap(Runnable task) {
+        Span span = current.get();
+        if (span == null) {
+            return task;
+        }
+        return () -> {
+            Span previous = current.get();
+            current.set(span);
+            MDC.put(MDC_KEY, span.getTraceId());
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * span 将在其他线程中结束时，清除当前线程的当前 span，span 本身不结束
+     *
+     * @param span
+     */
+    public void detach(Span span) {
+        if (current.get() == span) {
+            restore(null);
+        }
+    }
+
+    /**
+     * 由 Span#close 调用，恢复父 span 为当前 span，根 span 结束时导出整个 trace
+     * span 可以在其他线程中结束(如异步请求的根 span)，此时不修改当前线程的当前 span
+     *
+     * @param span
+     */
+    void finish(Span span) {
+        if (current.get() == span) {
+            restore(span.getParent());
+        }
+        Trace trace = span.getTrace();
+        if (!trace.isSampled()) {
+            return;
+        }
+        trace.add(span);
+        if (span.getParent() == null) {
+            exporter.export(trace.spans());
+        }
+    }
+
+    private void restore(Span span) {
+        if (span == null) {
+            current.remove();
+            MDC.remove(MDC_KEY);
+        } else {
+            current.set(span);
+            MDC.put(MDC_KEY, span.getTraceId());
+        }
+    }
+
+    /**
+     * @return 16 位十六进制的随机 id
+     */
+    static String newId() {
+        return String.format("%016x", ThreadLocalRandom.current().nextLong());
+    }
+}
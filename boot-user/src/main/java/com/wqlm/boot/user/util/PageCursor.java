@@ -0,0 +1,48 @@
+package com.wqlm.boot.user.util;
+
+import com.wqlm.boot.user.enums.ApplicationEnum;
+import com.wqlm.boot.user.exception.ApplicationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 键集分页的游标，对调用方不透明
+ * 游标记录上一页最后一条记录的ID，下一页查询 id > 该ID 的记录
+ */
+public final class PageCursor {
+
+    private static final String VERSION = "1:";
+
+    private PageCursor() {
+    }
+
+    /**
+     * @param lastId 本页最后一条记录的ID
+     * @return 下一页的游标
+     */
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((VERSION + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor 游标，为空时表示第一页
+     * @return 上一页最后一条记录的ID，第一页返回 null
+     * @throws ApplicationException 游标无效
+     */
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (value.startsWith(VERSION)) {
+                return Long.valueOf(value.substring(VERSION.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            // 不是 base64 或不是数字，与版本不符一样视为无效游标
+        }
+        throw new ApplicationException(ApplicationEnum.CURSOR_INVALID);
+    }
+}
@@ -0,0 +1,31 @@
+package com.wqlm.boot.user.util.id;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 优先使用雪花算法生成ID，系统时钟回拨过多导致雪花算法不可用时，降级到号段ID生成器
+ */
+public class FallbackIdGenerator implements IdGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(FallbackIdGenerator.class);
+
+    private final IdGenerator primary;
+
+    private final IdGenerator fallback;
+
+    public FallbackIdGenerator(IdGenerator primary, IdGenerator fallback) {
+        this.primary = primary;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public long nextId(int residue) {
+        try {
+            return primary.nextId(residue);
+        } catch (IllegalStateException e) {
+            logger.warn("雪花算法不可用，使用号段生成ID : {}", e.getMessage());
+            return fallback.nextId(residue);
+        }
+    }
+}
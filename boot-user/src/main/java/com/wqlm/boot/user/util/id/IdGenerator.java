@@ -0,0 +1,14 @@
+package com.wqlm.boot.user.util.id;
+
+/**
+ * 全局ID生成器
+ * 生成器创建时指定模数(分库时为分片数)，生成的ID满足 id % 模数 == residue，以便由ID定位分片
+ */
+public interface IdGenerator {
+
+    /**
+     * @param residue 余数，取值为 [0, 模数)
+     * @return 全局唯一的正整数ID
+     */
+    long nextId(int residue);
+}
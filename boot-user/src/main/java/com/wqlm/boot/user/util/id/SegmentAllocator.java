@@ -0,0 +1,16 @@
+package com.wqlm.boot.user.util.id;
+
+/**
+ * 号段分配器，由数据库或 redis 中的计数器实现，多个实例共享同一个计数器
+ */
+@FunctionalInterface
+public interface SegmentAllocator {
+
+    /**
+     * 分配一个号段
+     *
+     * @param size 号段长度
+     * @return 号段的结束值(不包含)，号段为 [返回值 - size, 返回值)
+     */
+    long allocate(int size);
+}
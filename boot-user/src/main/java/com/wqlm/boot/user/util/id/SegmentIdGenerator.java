@@ -0,0 +1,80 @@
+package com.wqlm.boot.user.util.id;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 号段ID生成器，每次从 SegmentAllocator 取一个号段在本地发放，号段剩余不足 1/5 时异步预取下一个号段
+ * 号段中的值 n 对应的ID为 (BASE + n) * 模数 + 余数，保证 id % 模数 == 余数，
+ * BASE 使ID大于旧的自增ID，同时远小于雪花算法生成的ID，两种ID不会重复
+ * 只作为雪花算法的降级方案，使用 synchronized 实现
+ */
+public class SegmentIdGenerator implements IdGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentIdGenerator.class);
+
+    private static final long BASE = 1L << 31;
+
+    private final SegmentAllocator allocator;
+
+    private final int step;
+
+    private final int modulus;
+
+    /**
+     * 当前号段中下一个值和结束值(不包含)
+     */
+    private long next;
+
+    private long end;
+
+    private CompletableFuture<Long> prefetch;
+
+    /**
+     * @param allocator 号段分配器
+     * @param step      每个号段的长度
+     * @param modulus   模数
+     */
+    public SegmentIdGenerator(SegmentAllocator allocator, int step, int modulus) {
+        this.allocator = allocator;
+        this.step = step;
+        this.modulus = modulus;
+    }
+
+    @Override
+    public synchronized long nextId(int residue) {
+        if (next >= end) {
+            end = takePrefetched();
+            next = end - step;
+        }
+        if (prefetch == null && end - next <= step / 5) {
+            prefetch = CompletableFuture.supplyAsync(() -> allocator.allocate(step));
+            prefetch.whenComplete((value, e) -> {
+                if (e != null) {
+                    logger.warn("预取号段失败", e);
+                }
+            });
+        }
+        long value = next++;
+        return (BASE + value) * modulus + residue;
+    }
+
+    /**
+     * @return 预取的号段的结束值，没有预取或预取失败时同步分配
+     */
+    private long takePrefetched() {
+        CompletableFuture<Long> future = prefetch;
+        prefetch = null;
+        if (future != null) {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                // 失败原因已在预取时记录，这里同步重试一次
+            }
+        }
+        return allocator.allocate(step);
+    }
+}
@@ -0,0 +1,109 @@
+package com.wqlm.boot.user.util.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 雪花算法ID生成器，无锁，生成的ID随时间递增
+ * ID 结构 : 1位符号位(0) + 41位毫秒时间戳(相对 EPOCH，约69年) + 10位机器ID + 12位序列号
+ * 每个余数单独维护 (时间戳,序列号) 状态，同一毫秒内序列号按模数递增，保证 id % 模数 == 余数
+ * 同一毫秒内序列号用完或系统时钟回拨时，借用之后的时间戳继续生成，不阻塞；
+ * 借用的时间戳领先系统时钟超过 maxDrift 时抛出 IllegalStateException，由调用方降级
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    /**
+     * 时间戳起点 2020-01-01 00:00:00 +08:00
+     */
+    public static final long EPOCH = 1577808000000L;
+
+    private static final int SEQUENCE_BITS = 12;
+
+    private static final int WORKER_BITS = 10;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    public static final int MAX_WORKER_ID = (1 << WORKER_BITS) - 1;
+
+    private final long workerId;
+
+    private final int modulus;
+
+    private final long maxDrift;
+
+    /**
+     * 下标为余数，值为 时间戳 << SEQUENCE_BITS | 序列号
+     */
+    private final AtomicLong[] states;
+
+    /**
+     * @param workerId 机器ID，取值为 [0, 1023]，同时运行的实例不能相同
+     * @param modulus  模数，取值为 [1, 4096]
+     * @param maxDrift 允许借用的时间戳领先系统时钟的最大毫秒数
+     */
+    public SnowflakeIdGenerator(int workerId, int modulus, long maxDrift) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("workerId 必须在 0 到 " + MAX_WORKER_ID + " 之间");
+        }
+        if (modulus < 1 || modulus > SEQUENCE_MASK + 1) {
+            throw new IllegalArgumentException("modulus 必须在 1 到 " + (SEQUENCE_MASK + 1) + " 之间");
+        }
+        this.workerId = workerId;
+        this.modulus = modulus;
+        this.maxDrift = maxDrift;
+        this.states = new AtomicLong[modulus];
+        for (int i = 0; i < modulus; i++) {
+            states[i] = new AtomicLong();
+        }
+    }
+
+    @Override
+    public long nextId(int residue) {
+        AtomicLong state = states[residue];
+        long now = System.currentTimeMillis() - EPOCH;
+        while (true) {
+            long prev = state.get();
+            long prevTimestamp = prev >>> SEQUENCE_BITS;
+            long timestamp;
+            long sequence;
+            if (now > prevTimestamp) {
+                timestamp = now;
+                sequence = firstSequence(timestamp, residue);
+            } else {
+                if (prevTimestamp - now > maxDrift) {
+                    throw new IllegalStateException("系统时钟落后已生成的ID " + (prevTimestamp - now) + " 毫秒");
+                }
+                timestamp = prevTimestamp;
+                sequence = (prev & SEQUENCE_MASK) + modulus;
+                if (sequence > SEQUENCE_MASK) {
+                    timestamp++;
+                    sequence = firstSequence(timestamp, residue);
+                }
+            }
+            if (state.compareAndSet(prev, timestamp << SEQUENCE_BITS | sequence)) {
+                return high(timestamp) | sequence;
+            }
+        }
+    }
+
+    /**
+     * @return 时间戳和机器ID部分
+     */
+    private long high(long timestamp) {
+        return timestamp << (WORKER_BITS + SEQUENCE_BITS) | workerId << SEQUENCE_BITS;
+    }
+
+    /**
+     * 该毫秒内第一个满足 id % 模数 == 余数 的序列号
+     */
+    private long firstSequence(long timestamp, int residue) {
+        return Math.floorMod(residue - high(timestamp) % modulus, modulus);
+    }
+
+    /**
+     * @param id
+     * @return 生成该ID的时间戳，单位毫秒
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (WORKER_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+}
@@ -0,0 +1,27 @@
+package com.wqlm.boot.user.util.id;
+
+import tk.mybatis.mapper.genid.GenId;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 通过 @KeySql(genId = UserIdGenId.class) 为 User 生成ID，insert 前由 tk.mybatis 调用
+ * tk.mybatis 通过反射创建该类，无法注入 spring bean，实际的生成方法在启动时由 IdGeneratorConfig 设置
+ */
+public class UserIdGenId implements GenId<Long> {
+
+    private static volatile LongSupplier idSupplier;
+
+    public static void setIdSupplier(LongSupplier supplier) {
+        idSupplier = supplier;
+    }
+
+    @Override
+    public Long genId(String table, String column) {
+        LongSupplier supplier = idSupplier;
+        if (supplier == null) {
+            throw new IllegalStateException("用户ID生成器未初始化");
+        }
+        return supplier.getAsLong();
+    }
+}
@@ -0,0 +1,186 @@
+package com.wqlm.boot.user.util.ip;
+
+import com.wqlm.boot.user.config.ApplicationProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 获取客户端的真实 ip
+ * 请求经过网关转发时，对端地址是网关的 ip，所有用户共用同一个 ip，需要从 X-Forwarded-For 中取出客户端的 ip
+ * X-Forwarded-For 可以被客户端伪造，只有对端地址是 login.trustedProxies 中的代理时才读取，并从右往左跳过可信的代理，
+ * 第一个不可信的地址即客户端 ip(与 tomcat 的 RemoteIpValve 相同)，servlet 和 reactive 两套接口共用
+ */
+@Component
+public class ClientIpResolver {
+
+    public static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    private List<IpRange> trustedProxies;
+
+    @PostConstruct
+    public void init() {
+        trustedProxies = parse(applicationProperty.getLoginTrustedProxies());
+    }
+
+    /**
+     * @param request
+     * @return 客户端 ip
+     */
+    public String resolve(HttpServletRequest request) {
+        List<String> headers = Collections.list(request.getHeaders(FORWARDED_FOR_HEADER));
+        return resolve(request.getRemoteAddr(), headers.isEmpty() ? null : String.join(",", headers));
+    }
+
+    /**
+     * @param remoteAddr   对端地址
+     * @param forwardedFor X-Forwarded-For 请求头，有多个时以逗号连接
+     * @return 客户端 ip
+     */
+    public String resolve(String remoteAddr, String forwardedFor) {
+        if (forwardedFor == null || !isTrusted(remoteAddr)) {
+            return remoteAddr;
+        }
+        String client = remoteAddr;
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (toBytes(hop) == null) {
+                // 无法识别的地址，停在最后一个可信的代理
+                return client;
+            }
+            client = hop;
+            if (!isTrusted(hop)) {
+                return hop;
+            }
+        }
+        return client;
+    }
+
+    private boolean isTrusted(String ip) {
+        byte[] address = toBytes(ip);
+        if (address == null) {
+            return false;
+        }
+        for (IpRange range : trustedProxies) {
+            if (range.contains(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param proxies 逗号分隔的 ip 或 CIDR，如 10.0.0.0/8,192.168.1.10
+     */
+    private static List<IpRange> parse(String proxies) {
+        List<IpRange> ranges = new ArrayList<>();
+        if (proxies == null) {
+            return ranges;
+        }
+        for (String proxy : proxies.split(",")) {
+            String trimmed = proxy.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int slash = trimmed.indexOf('/');
+            byte[] network = toBytes(slash < 0 ? trimmed : trimmed.substring(0, slash));
+            if (network == null) {
+                throw new IllegalArgumentException("login.trustedProxies 中的地址无效 : " + trimmed);
+            }
+            int prefix = slash < 0 ? network.length * 8 : Integer.parseInt(trimmed.substring(slash + 1));
+            if (prefix < 0 || prefix > network.length * 8) {
+                throw new IllegalArgumentException("login.trustedProxies 中的前缀长度无效 : " + trimmed);
+            }
+            ranges.add(new IpRange(network, prefix));
+        }
+        return ranges;
+    }
+
+    /**
+     * 只解析 ip 字面量，不做 dns 查询，请求头中的主机名等返回 null
+     *
+     * @return ipv4 为 4 个字节，ipv6 为 16 个字节，不是合法的 ip 时返回 null
+     */
+    static byte[] toBytes(String ip) {
+        if (ip == null || ip.isEmpty()) {
+            return null;
+        }
+        if (ip.indexOf(':') >= 0) {
+            // 含有 : 时 InetAddress 只按 ipv6 字面量解析，不会查询 dns
+            if (ip.indexOf('%') >= 0 || ip.indexOf('[') >= 0) {
+                return null;
+            }
+            try {
+                return InetAddress.getByName(ip).getAddress();
+            } catch (UnknownHostException e) {
+                return null;
+            }
+        }
+        String[] parts = ip.split("\\.", -1);
+        if (parts.length != 4) {
+            return null;
+        }
+        byte[] bytes = new byte[4];
+        for (int i = 0; i < 4; i++) {
+            String part = parts[i];
+            if (part.isEmpty() || part.length() > 3) {
+                return null;
+            }
+            int value = 0;
+            for (int j = 0; j < part.length(); j++) {
+                char c = part.charAt(j);
+                if (c < '0' || c > '9') {
+                    return null;
+                }
+                value = value * 10 + (c - '0');
+            }
+            if (value > 255) {
+                return null;
+            }
+            bytes[i] = (byte) value;
+        }
+        return bytes;
+    }
+
+
+    private static final class IpRange {
+
+        private final byte[] network;
+
+        private final int prefix;
+
+        IpRange(byte[] network, int prefix) {
+            this.network = network;
+            this.prefix = prefix;
+        }
+
+        boolean contains(byte[] address) {
+            if (address.length != network.length) {
+                return false;
+            }
+            int bytes = prefix / 8;
+            for (int i = 0; i < bytes; i++) {
+                if (address[i] != network[i]) {
+                    return false;
+                }
+            }
+            int bits = prefix % 8;
+            if (bits == 0) {
+                return true;
+            }
+            int mask = 0xFF << (8 - bits);
+            return (address[bytes] & mask) == (network[bytes] & mask);
+        }
+    }
+}
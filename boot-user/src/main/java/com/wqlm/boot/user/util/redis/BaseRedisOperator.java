@@ -1,5 +1,6 @@
 package com.wqlm.boot.user.util.redis;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.connection.DataType;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -17,6 +18,11 @@ import java.util.stream.Stream;
 @Component
 public class BaseRedisOperator {
 
+    /**
+     * value 序列化时不带类型信息，读出的对象是 Map，需要转换成实际的类型
+     */
+    private static final ObjectMapper CONVERTER = new ObjectMapper();
+
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
@@ -377,19 +383,26 @@ public class BaseRedisOperator {
 
     /**
      * 实现命令 : GET key
-     * 获取一个key的value
+     * 获取一个key的value，redis 出错时抛出异常，不会当作 key 不存在
      *
      * @param key
      * @return value
      */
     public Object get(String key) {
+        return redisTemplate.opsForValue().get(key);
+    }
 
-        try {
-            return redisTemplate.opsForValue().get(key);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return null;
+    /**
+     * 实现命令 : GET key
+     * 获取一个key的value并转换成指定类型
+     *
+     * @param key
+     * @param type
+     * @return value，key 不存在时返回 null
+     */
+    public <T> T get(String key, Class<T> type) {
+        Object value = redisTemplate.opsForValue().get(key);
+        return value == null ? null : CONVERTER.convertValue(value, type);
     }
 
     /**
@@ -489,6 +502,33 @@ public class BaseRedisOperator {
     }
 
 
+    /**
+     * 实现命令 : SETBIT key offset 0/1
+     * 设置 value 在 offset 处的 bit
+     *
+     * @param key
+     * @param offset bit 的下标，从0开始
+     * @param value  true 为 1，false 为 0
+     * @return 原来的 bit 是否为 1
+     */
+    public Boolean setBit(String key, long offset, boolean value) {
+        return redisTemplate.opsForValue().setBit(key, offset, value);
+    }
+
+
+    /**
+     * 实现命令 : GETBIT key offset
+     * 获取 value 在 offset 处的 bit
+     *
+     * @param key
+     * @param offset bit 的下标，从0开始
+     * @return 是否为 1
+     */
+    public Boolean getBit(String key, long offset) {
+        return redisTemplate.opsForValue().getBit(key, offset);
+    }
+
+
     /************************************************* String 相关操作 *************************************************/
 
 
@@ -0,0 +1,61 @@
+package com.wqlm.boot.user.util.redis;
+
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.protocol.RedisCommand;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * lettuce 按命令类型设置超时时间，超时的命令以 RedisCommandTimeoutException 结束，不再等待 spring.redis.timeout
+ * 会话读取等简单命令可以比 EVAL、批量命令更早超时，尽快进入降级
+ */
+public class CommandTimeoutSource extends TimeoutOptions.TimeoutSource {
+
+    private final Map<String, Long> timeouts;
+
+    private final long defaultTimeout;
+
+    /**
+     * @param timeouts       命令名称(大写)-超时时间，单位毫秒
+     * @param defaultTimeout 其他命令的超时时间，单位毫秒
+     */
+    public CommandTimeoutSource(Map<String, Long> timeouts, long defaultTimeout) {
+        this.timeouts = timeouts;
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    /**
+     * @param spec           逗号分隔的 命令:毫秒，如 GET:200,MGET:300
+     * @param defaultTimeout 其他命令的超时时间，单位毫秒
+     * @return
+     */
+    public static CommandTimeoutSource parse(String spec, long defaultTimeout) {
+        Map<String, Long> timeouts = new HashMap<>();
+        for (String item : StringUtils.commaDelimitedListToStringArray(StringUtils.trimAllWhitespace(spec))) {
+            if (item.isEmpty()) {
+                continue;
+            }
+            String[] pair = item.split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("redis.commandTimeouts 格式应为 命令:毫秒，实际为 " + item);
+            }
+            timeouts.put(pair[0].toUpperCase(Locale.ROOT), Long.valueOf(pair[1]));
+        }
+        return new CommandTimeoutSource(timeouts, defaultTimeout);
+    }
+
+    @Override
+    public long getTimeout(RedisCommand<?, ?, ?> command) {
+        Long timeout = timeouts.get(command.getType().name());
+        return timeout == null ? defaultTimeout : timeout;
+    }
+
+    @Override
+    public TimeUnit getTimeUnit() {
+        return TimeUnit.MILLISECONDS;
+    }
+}
@@ -0,0 +1,30 @@
+package com.wqlm.boot.user.util.redis;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 统计序列化、反序列化字节数的 RedisSerializer，实际的转换交给 delegate
+ * 统计结果由 RedisOperatorMetricsAspect 记录为 redis.command.payload 指标
+ */
+public class CountingRedisSerializer<T> implements RedisSerializer<T> {
+
+    private final RedisSerializer<T> delegate;
+
+    public CountingRedisSerializer(RedisSerializer<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        byte[] bytes = delegate.serialize(value);
+        PayloadSize.add(bytes);
+        return bytes;
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        PayloadSize.add(bytes);
+        return delegate.deserialize(bytes);
+    }
+}
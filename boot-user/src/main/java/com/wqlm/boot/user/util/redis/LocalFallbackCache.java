@@ -0,0 +1,97 @@
+package com.wqlm.boot.user.util.redis;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * redis 不可用时使用的本地缓存，保存最近一次成功读取或写入的 value 及其时间
+ * 最多保存 maxSize 个 key，超过时淘汰最久没有访问的；超过 maxStaleness 毫秒的 value 不再使用
+ * 只是 redis 的近似副本：其他实例的写入和删除、key 在 redis 中过期都不会同步过来，因此只在 redis 不可用时读取
+ */
+public class LocalFallbackCache {
+
+    private final long maxStaleness;
+
+    private final LongSupplier clock;
+
+    private final Map<String, Entry> entries;
+
+    /**
+     * @param maxSize      最多保存的 key 个数
+     * @param maxStaleness value 的最长使用时间，单位毫秒
+     */
+    public LocalFallbackCache(int maxSize, long maxStaleness) {
+        this(maxSize, maxStaleness, System::currentTimeMillis);
+    }
+
+    LocalFallbackCache(int maxSize, long maxStaleness, LongSupplier clock) {
+        this.maxStaleness = maxStaleness;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @param key
+     * @param value 为 null 时移除
+     */
+    public void put(String key, Object value) {
+        if (value == null) {
+            remove(key);
+            return;
+        }
+        Entry entry = new Entry(value, clock.getAsLong());
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    public void remove(String key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * @param key
+     * @return 没有保存或已超过 maxStaleness 时返回 null
+     */
+    public Object get(String key) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.time > maxStaleness) {
+            remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+
+    private static final class Entry {
+
+        private final Object value;
+
+        private final long time;
+
+        Entry(Object value, long time) {
+            this.value = value;
+            this.time = time;
+        }
+    }
+}
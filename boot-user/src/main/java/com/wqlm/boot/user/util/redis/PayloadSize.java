@@ -0,0 +1,27 @@
+package com.wqlm.boot.user.util.redis;
+
+/**
+ * 记录当前线程执行 redis 命令时序列化、反序列化的 value 字节数
+ * RedisTemplate、RedisCache 都在调用线程中完成序列化和反序列化，所以可以用 ThreadLocal 统计单个命令的数据量
+ */
+public final class PayloadSize {
+
+    private static final ThreadLocal<long[]> BYTES = ThreadLocal.withInitial(() -> new long[1]);
+
+    private PayloadSize() {
+    }
+
+    public static void reset() {
+        BYTES.get()[0] = 0;
+    }
+
+    static void add(byte[] bytes) {
+        if (bytes != null) {
+            BYTES.get()[0] += bytes.length;
+        }
+    }
+
+    public static long get() {
+        return BYTES.get()[0];
+    }
+}
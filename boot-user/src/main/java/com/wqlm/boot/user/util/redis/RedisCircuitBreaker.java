@@ -0,0 +1,107 @@
+package com.wqlm.boot.user.util.redis;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * redis 熔断器
+ * CLOSED    : 正常访问，连续失败 failureThreshold 次后转为 OPEN
+ * OPEN      : 不访问 redis，openTime 毫秒后转为 HALF_OPEN
+ * HALF_OPEN : 只放行一个试探请求，成功后转为 CLOSED，失败后重新转为 OPEN，试探期间其他请求仍然不访问 redis
+ */
+public class RedisCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisCircuitBreaker.class);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+
+    private final long openTime;
+
+    private final LongSupplier clock;
+
+    private volatile State state = State.CLOSED;
+
+    private volatile long openedAt;
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    /**
+     * HALF_OPEN 时试探请求是否已经放行
+     */
+    private final AtomicBoolean trialPending = new AtomicBoolean();
+
+    /**
+     * @param failureThreshold 连续失败多少次后熔断
+     * @param openTime         熔断时长，单位毫秒
+     */
+    public RedisCircuitBreaker(int failureThreshold, long openTime) {
+        this(failureThreshold, openTime, System::currentTimeMillis);
+    }
+
+    RedisCircuitBreaker(int failureThreshold, long openTime, LongSupplier clock) {
+        this.failureThreshold = failureThreshold;
+        this.openTime = openTime;
+        this.clock = clock;
+    }
+
+    /**
+     * @return 是否可以访问 redis
+     */
+    public boolean allowRequest() {
+        State current = state;
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openTime) {
+                return false;
+            }
+            synchronized (this) {
+                if (state == State.OPEN) {
+                    state = State.HALF_OPEN;
+                    trialPending.set(false);
+                }
+            }
+        }
+        return state == State.HALF_OPEN && trialPending.compareAndSet(false, true);
+    }
+
+    public void onSuccess() {
+        failures.set(0);
+        if (state != State.CLOSED) {
+            synchronized (this) {
+                if (state != State.CLOSED) {
+                    state = State.CLOSED;
+                    logger.info("redis 恢复访问，熔断关闭");
+                }
+            }
+        }
+    }
+
+    public void onFailure() {
+        if (state == State.HALF_OPEN || failures.incrementAndGet() >= failureThreshold) {
+            synchronized (this) {
+                if (state != State.OPEN) {
+                    state = State.OPEN;
+                    openedAt = clock.getAsLong();
+                    failures.set(0);
+                    logger.warn("redis 访问连续失败，熔断 {}ms", openTime);
+                }
+            }
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,45 @@
+package com.wqlm.boot.user.util.redis;
+
+import java.util.Collection;
+
+/**
+ * 日志、span 中只记录 key 的前缀，不记录完整的 key
+ * 完整的 key 可能包含 session token、用户名等敏感信息
+ */
+public final class RedisKeys {
+
+    private RedisKeys() {
+    }
+
+    /**
+     * user::123 -> user::*，login:fail:user:alice:1 -> login:*
+     * session 直接以 token 作为 key，没有前缀，输出 session:*
+     * 多个 key 时只输出数量
+     *
+     * @param key redis 命令的第一个参数
+     * @return 可以输出到日志的 key 描述
+     */
+    public static String redact(Object key) {
+        if (key == null) {
+            return null;
+        }
+        if (key instanceof Collection) {
+            return "[" + ((Collection<?>) key).size() + " keys]";
+        }
+        if (key instanceof Object[]) {
+            return "[" + ((Object[]) key).length + " keys]";
+        }
+        if (!(key instanceof String)) {
+            return key.getClass().getSimpleName();
+        }
+        String text = (String) key;
+        int end = text.indexOf(':');
+        if (end < 0) {
+            return "session:*";
+        }
+        while (end < text.length() && text.charAt(end) == ':') {
+            end++;
+        }
+        return text.substring(0, end) + "*";
+    }
+}
@@ -2,8 +2,12 @@ package com.wqlm.boot.user.util.redis;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
@@ -124,6 +128,52 @@ public class RedisOperator extends BaseRedisOperator {
         return redisTemplate.opsForValue().multiGet(keySet);
     }
 
+    /**
+     * 实现命令 : SETBIT key offset1 1 [SETBIT key offset2 1 ...] (pipeline)
+     * 通过 pipeline 一次将多个 bit 设为 1
+     *
+     * @param key
+     * @param offsets bit 的下标
+     */
+    public void setBits(String key, Collection<Long> offsets) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) {
+                for (Long offset : offsets) {
+                    operations.opsForValue().setBit(key, offset, true);
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 实现命令 : GETBIT key offset1 [GETBIT key offset2 ...] (pipeline)
+     * 通过 pipeline 一次获取多个 bit，key 不存在时所有 bit 都为 0
+     *
+     * @param key
+     * @param offsets bit 的下标
+     * @return 依次为每个 bit 是否为 1
+     */
+    public List<Boolean> getBits(String key, Collection<Long> offsets) {
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) {
+                for (Long offset : offsets) {
+                    operations.opsForValue().getBit(key, offset);
+                }
+                return null;
+            }
+        });
+        List<Boolean> bits = new ArrayList<>(results.size());
+        for (Object result : results) {
+            bits.add(Boolean.TRUE.equals(result));
+        }
+        return bits;
+    }
+
     /************************************************* String 相关操作 *************************************************/
 
 
@@ -438,4 +488,29 @@ public class RedisOperator extends BaseRedisOperator {
     }
 
     /*********************************************** Sorted SET 相关操作 ***********************************************/
+
+
+    /************************************************* Script 相关操作 *************************************************/
+
+    /**
+     * 实现命令 : EVALSHA sha1 numkeys key1 [key2 ...] arg1 [arg2 ...]
+     * 执行 lua 脚本，脚本未缓存时自动改用 EVAL，整个脚本在 redis 中原子执行
+     * 参数按字符串传递，不经过 json 序列化，便于脚本中使用 tonumber
+     *
+     * @param script
+     * @param keys
+     * @param args
+     * @return 整数、整数数组等返回值原样返回
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T eval(RedisScript<T> script, List<String> keys, Object... args) {
+        Object[] stringArgs = new Object[args.length];
+        for (int i = 0; i < args.length; i++) {
+            stringArgs[i] = String.valueOf(args[i]);
+        }
+        return redisTemplate.execute(script, redisTemplate.getStringSerializer(),
+                (RedisSerializer<T>) redisTemplate.getStringSerializer(), keys, stringArgs);
+    }
+
+    /************************************************* Script 相关操作 *************************************************/
 }
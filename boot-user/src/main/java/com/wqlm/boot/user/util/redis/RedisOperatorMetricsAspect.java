@@ -0,0 +1,98 @@
+package com.wqlm.boot.user.util.redis;
+
+import io.micrometer.core.instrument.*;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 统计 BaseRedisOperator 及其子类每个公开方法(即每种 redis 命令)的执行情况
+ * redis.command         : 耗时，tag command 为方法名，exception 为异常类名，成功时为 None
+ * redis.command.errors  : 出错次数
+ * redis.command.payload : 每次调用序列化、反序列化的 value 字节数，需要 RedisTemplate 使用 CountingRedisSerializer
+ * 耗时超过 slowThreshold 毫秒时打印警告日志，日志中的 key 只保留前缀，见 RedisKeys
+ * 由 RedisConfig 注册，方法内部互相调用时只统计最外层的一次
+ */
+@Aspect
+public class RedisOperatorMetricsAspect {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisOperatorMetricsAspect.class);
+
+    private static final String NONE = "None";
+
+    private final MeterRegistry meterRegistry;
+
+    private final long slowThresholdNanos;
+
+    /**
+     * command + exception - Timer，避免每次调用都构建 Timer
+     */
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> errorCounters = new ConcurrentHashMap<>();
+
+    private final Map<String, DistributionSummary> payloadSummaries = new ConcurrentHashMap<>();
+
+    /**
+     * @param meterRegistry
+     * @param slowThreshold 慢命令的阈值，单位毫秒，小于等于 0 时不打印慢命令日志
+     */
+    public RedisOperatorMetricsAspect(MeterRegistry meterRegistry, long slowThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = slowThreshold > 0 ? TimeUnit.MILLISECONDS.toNanos(slowThreshold) : Long.MAX_VALUE;
+    }
+
+    @Around("within(com.wqlm.boot.user.util.redis.BaseRedisOperator+) && execution(public * *(..))")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        String command = joinPoint.getSignature().getName();
+        PayloadSize.reset();
+        long start = System.nanoTime();
+        String exception = NONE;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            long payload = PayloadSize.get();
+            record(command, exception, elapsed, payload);
+            if (elapsed >= slowThresholdNanos) {
+                Object[] args = joinPoint.getArgs();
+                logger.warn("redis 慢命令 {}，耗时 {}ms，key {}，数据量 {} 字节", command,
+                        TimeUnit.NANOSECONDS.toMillis(elapsed), args.length > 0 ? RedisKeys.redact(args[0]) : null, payload);
+            }
+        }
+    }
+
+    private void record(String command, String exception, long elapsed, long payload) {
+        timers.computeIfAbsent(command + ":" + exception, key -> Timer.builder("redis.command")
+                .description("redis 命令的耗时")
+                .tag("command", command)
+                .tag("exception", exception)
+                .register(meterRegistry))
+                .record(elapsed, TimeUnit.NANOSECONDS);
+
+        if (!NONE.equals(exception)) {
+            errorCounters.computeIfAbsent(command + ":" + exception, key -> Counter.builder("redis.command.errors")
+                    .description("redis 命令出错的次数")
+                    .tag("command", command)
+                    .tag("exception", exception)
+                    .register(meterRegistry))
+                    .increment();
+        }
+
+        payloadSummaries.computeIfAbsent(command, key -> DistributionSummary.builder("redis.command.payload")
+                .description("redis 命令读写的 value 字节数")
+                .baseUnit("bytes")
+                .tag("command", command)
+                .register(meterRegistry))
+                .record(payload);
+    }
+}
@@ -0,0 +1,204 @@
+package com.wqlm.boot.user.util.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.RedisException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.PoolException;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BaseRedisOperator 及其子类的容错，redis 变慢或不可用时逐步降级，而不是让所有请求一起失败
+ * 熔断 : 连接失败、超时、连接池耗尽、并发已满连续出现多次后，一段时间内不再访问 redis，见 RedisCircuitBreaker
+ * 舱壁 : GET 命令(会话、缓存读取)和其他命令各自限制同时执行的命令数，等待 maxWait 毫秒仍没有空位时降级，
+ * redis 变慢时只有超出并发上限的请求降级，批量写入、脚本等慢命令也不会占满会话读取的并发
+ * 降级 : GET 返回 LocalFallbackCache 中该 key 最近一次成功读写的值；没有时以及其他命令抛出 RedisUnavailableException
+ * 成功的 GET、SET、DEL、UNLINK 同步更新 LocalFallbackCache；命令本身的超时由 RedisConfig 按命令设置
+ * 在 RedisOperatorMetricsAspect 和 TraceAspect 外层执行，降级的调用不计入 redis.command，计入 redis.fallback
+ * 由 RedisConfig 注册
+ */
+@Aspect
+public class RedisResilienceAspect implements Ordered {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisResilienceAspect.class);
+
+    private static final ObjectMapper CONVERTER = new ObjectMapper();
+
+    private static final String GET = "get";
+
+    private final RedisCircuitBreaker breaker;
+
+    private final Semaphore getBulkhead;
+
+    private final Semaphore otherBulkhead;
+
+    private final long maxWait;
+
+    private final LocalFallbackCache fallbackCache;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Counter> fallbackCounters = new ConcurrentHashMap<>();
+
+    /**
+     * @param breaker
+     * @param maxConcurrent 每个舱壁同时执行的命令数上限，小于等于 0 时不限制
+     * @param maxWait       并发已满时等待的时间，单位毫秒
+     * @param fallbackCache
+     * @param meterRegistry
+     */
+    public RedisResilienceAspect(RedisCircuitBreaker breaker, int maxConcurrent, long maxWait,
+                                 LocalFallbackCache fallbackCache, MeterRegistry meterRegistry) {
+        this.breaker = breaker;
+        this.getBulkhead = maxConcurrent > 0 ? new Semaphore(maxConcurrent) : null;
+        this.otherBulkhead = maxConcurrent > 0 ? new Semaphore(maxConcurrent) : null;
+        this.maxWait = maxWait;
+        this.fallbackCache = fallbackCache;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("redis.breaker.state", breaker, b -> b.getState().ordinal())
+                .description("redis 熔断器状态，0 : CLOSED，1 : OPEN，2 : HALF_OPEN")
+                .register(meterRegistry);
+        Gauge.builder("redis.fallback.size", fallbackCache, LocalFallbackCache::size)
+                .description("本地降级缓存中的 key 个数")
+                .register(meterRegistry);
+    }
+
+    @Around("within(com.wqlm.boot.user.util.redis.BaseRedisOperator+) && execution(public * *(..))")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        String command = joinPoint.getSignature().getName();
+        Object[] args = joinPoint.getArgs();
+        if (!breaker.allowRequest()) {
+            return fallback(command, args, "breaker", null);
+        }
+
+        Semaphore bulkhead = GET.equals(command) ? getBulkhead : otherBulkhead;
+        if (bulkhead != null && !tryAcquire(bulkhead)) {
+            breaker.onFailure();
+            return fallback(command, args, "bulkhead", null);
+        }
+        try {
+            Object result = joinPoint.proceed();
+            breaker.onSuccess();
+            remember(command, args, result);
+            return result;
+        } catch (RuntimeException e) {
+            if (!isUnavailable(e)) {
+                // redis 有响应，如脚本出错、类型不匹配
+                breaker.onSuccess();
+                throw e;
+            }
+            breaker.onFailure();
+            return fallback(command, args, "error", e);
+        } finally {
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    private boolean tryAcquire(Semaphore bulkhead) {
+        try {
+            return bulkhead.tryAcquire(maxWait, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 同步更新本地降级缓存
+     */
+    private void remember(String command, Object[] args, Object result) {
+        if (args.length == 0) {
+            return;
+        }
+        if ("del".equals(command) || "unlink".equals(command)) {
+            Iterable<?> keys = args[0] instanceof Object[] ? Arrays.asList((Object[]) args[0])
+                    : args[0] instanceof Collection ? (Collection<?>) args[0] : Collections.emptyList();
+            for (Object key : keys) {
+                fallbackCache.remove(String.valueOf(key));
+            }
+        } else if (args[0] instanceof String) {
+            String key = (String) args[0];
+            if (GET.equals(command)) {
+                fallbackCache.put(key, result);
+            } else if ("set".equals(command) && args.length >= 2 && !Boolean.FALSE.equals(result)) {
+                // SET ... NX/XX 没有写入时返回 false
+                fallbackCache.put(key, args[1]);
+            }
+        }
+    }
+
+    /**
+     * GET 返回本地降级缓存中的值，其他命令及没有本地值时抛出 RedisUnavailableException
+     *
+     * @param reason breaker : 熔断中；bulkhead : 并发已满；error : 连接失败、超时等
+     */
+    private Object fallback(String command, Object[] args, String reason, RuntimeException cause) {
+        Object value = null;
+        if (GET.equals(command) && args.length > 0 && args[0] instanceof String) {
+            value = fallbackCache.get((String) args[0]);
+        }
+        count(command, reason, value != null);
+        if (value == null) {
+            if (cause != null) {
+                logger.warn("redis 命令 {} 失败，没有本地降级值 : {}", command, cause.toString());
+            }
+            throw new RedisUnavailableException("redis 不可用(" + reason + ")，命令 " + command, cause);
+        }
+        if (args.length > 1 && args[1] instanceof Class) {
+            return CONVERTER.convertValue(value, (Class<?>) args[1]);
+        }
+        return value;
+    }
+
+    private void count(String command, String reason, boolean hit) {
+        String result = hit ? "hit" : "miss";
+        fallbackCounters.computeIfAbsent(command + ":" + reason + ":" + result, key -> Counter.builder("redis.fallback")
+                .description("redis 不可用时降级的次数，result 为 hit 时使用了本地降级值")
+                .tag("command", command)
+                .tag("reason", reason)
+                .tag("result", result)
+                .register(meterRegistry))
+                .increment();
+    }
+
+    /**
+     * 连接失败、超时、连接池耗尽，以及断开期间 lettuce 拒绝执行命令(RedisSystemException)视为 redis 不可用
+     * redis 返回的错误(RedisCommandExecutionException，如 WRONGTYPE、脚本出错)不算
+     */
+    private static boolean isUnavailable(RuntimeException e) {
+        if (e instanceof RedisSystemException) {
+            Throwable cause = e.getCause();
+            return cause instanceof RedisException && !(cause instanceof RedisCommandExecutionException);
+        }
+        return e instanceof DataAccessResourceFailureException || e instanceof TransientDataAccessException
+                || e instanceof PoolException;
+    }
+
+    /**
+     * 在统计和追踪之前执行
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,20 @@
+package com.wqlm.boot.user.util.redis;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+
+/**
+ * redis 不可用(连接失败、超时、熔断、并发已满)且没有可用的本地降级值
+ * 由 ApplicationExceptionHandler 转换为 503，客户端应稍后重试，不应当作 token 失效
+ */
+public class RedisUnavailableException extends DataAccessResourceFailureException {
+
+    private static final long serialVersionUID = 4273036625197614307L;
+
+    public RedisUnavailableException(String msg) {
+        super(msg);
+    }
+
+    public RedisUnavailableException(String msg, Throwable cause) {
+        super(msg, cause);
+    }
+}
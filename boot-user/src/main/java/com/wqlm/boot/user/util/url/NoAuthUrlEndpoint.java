@@ -0,0 +1,33 @@
+package com.wqlm.boot.user.util.url;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 免认证url端点 /actuator/noauthurls
+ * GET  : 当前生效的免认证url列表
+ * POST : 从 Environment 重新读取 noAuthUrls 并生效
+ */
+@Component
+@Endpoint(id = "noauthurls")
+public class NoAuthUrlEndpoint {
+
+    @Autowired
+    private NoAuthUrlMatcher noAuthUrlMatcher;
+
+    @ReadOperation
+    public Map<String, String> urls() {
+        return Collections.singletonMap("noAuthUrls", noAuthUrlMatcher.getUrls());
+    }
+
+    @WriteOperation
+    public Map<String, String> reload() {
+        return Collections.singletonMap("noAuthUrls", noAuthUrlMatcher.reload());
+    }
+}
@@ -0,0 +1,86 @@
+package com.wqlm.boot.user.util.url;
+
+import com.wqlm.boot.user.config.ApplicationProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * 免认证 url 匹配器
+ * 启动时将 noAuthUrls 编译一次，之后的请求只做匹配
+ * 修改 Environment 中的 noAuthUrls(如系统属性、配置中心)后，通过 /actuator/noauthurls 重新加载，无需重启，见 NoAuthUrlEndpoint
+ */
+@Component
+public class NoAuthUrlMatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NoAuthUrlMatcher.class);
+
+    /**
+     * 与 spring mvc 查找 handler 时使用的路径一致
+     */
+    private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+
+    @Autowired
+    private ApplicationProperty applicationProperty;
+
+    @Autowired
+    private Environment environment;
+
+    private volatile String urls;
+
+    private volatile UrlMatcher urlMatcher;
+
+    @PostConstruct
+    public void init() {
+        urls = applicationProperty.getNoAuthUrls();
+        urlMatcher = UrlMatcher.compile(urls);
+    }
+
+    /**
+     * 从 Environment 重新读取 noAuthUrls 并重新编译，编译完成后整体替换，匹配中的请求不受影响
+     *
+     * @return 重新加载后的免认证url列表
+     */
+    public String reload() {
+        String noAuthUrls = environment.getProperty("noAuthUrls", "");
+        urlMatcher = UrlMatcher.compile(noAuthUrls);
+        urls = noAuthUrls;
+        logger.info("免认证url已重新加载 : {}", noAuthUrls);
+        return noAuthUrls;
+    }
+
+    /**
+     * @return 当前生效的免认证url列表
+     */
+    public String getUrls() {
+        return urls;
+    }
+
+    /**
+     * 判断请求是否免认证
+     * 使用解码、去掉 ;jsessionid 等参数、按 servlet 路径规范化(去掉 ..)之后的路径，即实际分发到的 handler 的路径，
+     * 不能使用原始的 requestURI，否则 /pub/..;/user/password 会命中 /pub/** 而实际访问 /user/password
+     *
+     * @param request
+     * @return
+     */
+    public boolean matches(HttpServletRequest request) {
+        return urlMatcher.matches(URL_PATH_HELPER.getLookupPathForRequest(request));
+    }
+
+    /**
+     * 判断路径是否免认证
+     *
+     * @param path 不含 contextPath 的请求路径
+     * @return
+     */
+    public boolean matches(String path) {
+        return urlMatcher.matches(path);
+    }
+}
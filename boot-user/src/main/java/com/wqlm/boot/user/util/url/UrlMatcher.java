@@ -0,0 +1,158 @@
+package com.wqlm.boot.user.util.url;
+
+import org.springframework.util.AntPathMatcher;
+
+import java.util.*;
+
+/**
+ * 预编译的 url 匹配器，构建后不可变
+ * 匹配顺序 : 精确匹配(hash) -> 前缀匹配(/xxx/** 形式，按路径段构建的前缀树) -> 其余 ant 风格的表达式
+ */
+public final class UrlMatcher {
+
+    private static final AntPathMatcher ANT_PATH_MATCHER = new AntPathMatcher();
+
+    private static final String PREFIX_SUFFIX = "/**";
+
+    /**
+     * 不含通配符的 url
+     */
+    private final Set<String> exactUrls;
+
+    /**
+     * 以 /** 结尾，且前缀中不含通配符的 url
+     */
+    private final Node prefixTrie;
+
+    /**
+     * 其他 ant 风格的表达式
+     */
+    private final String[] patterns;
+
+    private UrlMatcher(Set<String> exactUrls, Node prefixTrie, String[] patterns) {
+        this.exactUrls = exactUrls;
+        this.prefixTrie = prefixTrie;
+        this.patterns = patterns;
+    }
+
+    /**
+     * 将逗号分隔的 url 列表编译成匹配器
+     *
+     * @param urls 例如 /user/register,/user/login,/static/**
+     * @return
+     */
+    public static UrlMatcher compile(String urls) {
+        if (urls == null || urls.trim().isEmpty()) {
+            return compile(Collections.emptyList());
+        }
+        return compile(Arrays.asList(urls.split(",")));
+    }
+
+    /**
+     * 将 url 列表编译成匹配器
+     *
+     * @param urls
+     * @return
+     */
+    public static UrlMatcher compile(Collection<String> urls) {
+        Set<String> exactUrls = new HashSet<>();
+        Node prefixTrie = new Node();
+        List<String> patterns = new ArrayList<>();
+
+        for (String url : urls) {
+            String trimmed = url.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!ANT_PATH_MATCHER.isPattern(trimmed)) {
+                exactUrls.add(trimmed);
+            } else if (trimmed.endsWith(PREFIX_SUFFIX)
+                    && !ANT_PATH_MATCHER.isPattern(trimmed.substring(0, trimmed.length() - PREFIX_SUFFIX.length()))) {
+                prefixTrie.insert(trimmed.substring(0, trimmed.length() - PREFIX_SUFFIX.length()));
+            } else {
+                patterns.add(trimmed);
+            }
+        }
+        return new UrlMatcher(Collections.unmodifiableSet(exactUrls), prefixTrie, patterns.toArray(new String[0]));
+    }
+
+    /**
+     * 判断 path 是否命中任意一个 url
+     *
+     * @param path 不含 contextPath 的请求路径
+     * @return
+     */
+    public boolean matches(String path) {
+        if (path == null) {
+            return false;
+        }
+        if (exactUrls.contains(path)) {
+            return true;
+        }
+        if (prefixTrie.matchesPrefix(path)) {
+            return true;
+        }
+        for (String pattern : patterns) {
+            if (ANT_PATH_MATCHER.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * 前缀树节点，每个节点对应一个路径段
+     */
+    private static final class Node {
+
+        private final Map<String, Node> children = new HashMap<>();
+
+        /**
+         * 为 true 表示从根节点到当前节点的路径是一个 /** 前缀
+         */
+        private boolean terminal;
+
+        void insert(String prefix) {
+            Node node = this;
+            int start = 0;
+            int length = prefix.length();
+            while (start < length) {
+                int end = nextSeparator(prefix, start);
+                if (end > start) {
+                    node = node.children.computeIfAbsent(prefix.substring(start, end), key -> new Node());
+                }
+                start = end + 1;
+            }
+            node.terminal = true;
+        }
+
+        boolean matchesPrefix(String path) {
+            Node node = this;
+            if (node.terminal) {
+                return true;
+            }
+            int start = 0;
+            int length = path.length();
+            while (start < length) {
+                int end = nextSeparator(path, start);
+                if (end > start) {
+                    node = node.children.get(path.substring(start, end));
+                    if (node == null) {
+                        return false;
+                    }
+                    if (node.terminal) {
+                        return true;
+                    }
+                }
+                start = end + 1;
+            }
+            return false;
+        }
+
+        private static int nextSeparator(String str, int from) {
+            int index = str.indexOf('/', from);
+            return index < 0 ? str.length() : index;
+        }
+    }
+}
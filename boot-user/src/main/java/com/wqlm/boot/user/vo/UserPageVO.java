@@ -0,0 +1,32 @@
+package com.wqlm.boot.user.vo;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 用户列表的一页
+ */
+@Data
+public class UserPageVO {
+
+    /**
+     * 本页的用户，按用户id升序排列
+     */
+    private List<UserVO> list;
+
+    /**
+     * 下一页的游标，没有下一页时为 null
+     */
+    private String nextCursor;
+
+    /**
+     * 用户总数
+     */
+    private long total;
+
+    /**
+     * total 是否为精确值，为 false 时是缓存的估算值
+     */
+    private boolean totalExact;
+}
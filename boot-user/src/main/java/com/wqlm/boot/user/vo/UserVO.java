@@ -1,5 +1,7 @@
 package com.wqlm.boot.user.vo;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.Data;
 
 @Data
@@ -7,8 +9,10 @@ public class UserVO {
 
     /**
      * 用户id
+     * 雪花算法生成的ID超出了 js 能精确表示的范围，序列化为字符串
      */
-    private Integer id;
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long id;
 
 
     /**
@@ -13,10 +13,28 @@ DROP TABLE
 IF
 	EXISTS `user`;
 CREATE TABLE `user` (
-	`id` INT ( 11 ) NOT NULL AUTO_INCREMENT,
+	`id` BIGINT ( 20 ) NOT NULL COMMENT '由应用生成，见 IdGenerator',
 	`user_name` VARCHAR ( 255 ) COLLATE utf8_bin NOT NULL,
 	`password` VARCHAR ( 255 ) COLLATE utf8_bin NOT NULL,
 	`salt` VARCHAR ( 255 ) COLLATE utf8_bin NOT NULL,
 	PRIMARY KEY ( `id` ) 
 ) ENGINE = INNODB DEFAULT CHARSET = utf8 COLLATE = utf8_bin;
-SET FOREIGN_KEY_CHECKS = 1;
\ No newline at end of file
+
+-- 创建 user_event 表，用户事件的 outbox，与 user 表写在同一个事务中，投递后删除，见 UserEventRelay
+DROP TABLE
+IF
+	EXISTS `user_event`;
+CREATE TABLE `user_event` (
+	`id` BIGINT ( 20 ) NOT NULL AUTO_INCREMENT,
+	`type` VARCHAR ( 32 ) COLLATE utf8_bin NOT NULL COMMENT '见 UserEventType',
+	`user_id` BIGINT ( 20 ) NOT NULL,
+	`user_name` VARCHAR ( 255 ) COLLATE utf8_bin NOT NULL,
+	`create_time` DATETIME NOT NULL,
+	PRIMARY KEY ( `id` )
+) ENGINE = INNODB DEFAULT CHARSET = utf8 COLLATE = utf8_bin;
+SET FOREIGN_KEY_CHECKS = 1;
+
+-- 分库时，在每个分片的数据库上执行上面的建表语句，用户ID与分片的对应规则见 ShardRouter
+
+-- 从自增ID升级时，已有的ID保持不变
+-- ALTER TABLE `user` MODIFY `id` BIGINT ( 20 ) NOT NULL;
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.wqlm.boot.user.bloom;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LocalBloomFilterTest {
+
+    @Test
+    public void sizing() {
+        BloomFilterHash hash = new BloomFilterHash(10_000_000, 0.001);
+        // 约 1.44 * log2(1/0.001) 个 bit/元素，10 个哈希函数
+        assertEquals(143_775_875, hash.getBitSize(), 1000);
+        assertEquals(10, hash.getHashCount());
+    }
+
+    @Test
+    public void noFalseNegativesAndBoundedFalsePositives() {
+        int n = 100_000;
+        LocalBloomFilter filter = new LocalBloomFilter(new BloomFilterHash(n, 0.01));
+        for (int i = 0; i < n; i++) {
+            filter.put("user-" + i);
+        }
+        for (int i = 0; i < n; i++) {
+            assertTrue(filter.mightContain("user-" + i));
+        }
+        int falsePositives = 0;
+        for (int i = n; i < 2 * n; i++) {
+            if (filter.mightContain("user-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue("误判率 " + falsePositives / (double) n, falsePositives < n * 0.02);
+    }
+}
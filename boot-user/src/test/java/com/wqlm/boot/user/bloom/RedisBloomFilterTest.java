@@ -0,0 +1,104 @@
+package com.wqlm.boot.user.bloom;
+
+import com.wqlm.boot.user.util.redis.RedisOperator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RedisBloomFilterTest {
+
+    private static final int USERS = 1000;
+
+    private final InMemoryBits redis = new InMemoryBits();
+
+    private final RedisBloomFilter filter = new RedisBloomFilter(new BloomFilterHash(USERS, 0.001), redis, "bloom");
+
+    @Test
+    public void notReadyUntilMarked() {
+        load();
+        assertFalse(filter.isReady());
+        assertTrue(filter.mightContain("absent"));
+
+        filter.markReady();
+        assertTrue(filter.isReady());
+        assertTrue(filter.mightContain("user-1"));
+        assertFalse(filter.mightContain("absent"));
+    }
+
+    @Test
+    public void lostBitmapIsNotTrusted() {
+        load();
+        filter.markReady();
+
+        // key 被淘汰，加载完成标记随之消失，已注册的用户不会被误拒
+        redis.keys.clear();
+        assertFalse(filter.isReady());
+        for (int i = 0; i < USERS; i++) {
+            assertTrue(filter.mightContain("user-" + i));
+        }
+
+        // 之后注册的用户只写入了部分 bit，仍然不可信
+        filter.put("user-new");
+        assertFalse(filter.isReady());
+        assertTrue(filter.mightContain("user-1"));
+    }
+
+    @Test
+    public void invalidateStopsFiltering() {
+        load();
+        filter.markReady();
+        filter.invalidate();
+        assertFalse(filter.isReady());
+        assertTrue(filter.mightContain("absent"));
+    }
+
+    private void load() {
+        List<String> names = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            names.add("user-" + i);
+        }
+        filter.putAll(names);
+    }
+
+
+    /**
+     * 只实现 bit 相关命令的 RedisOperator
+     */
+    private static final class InMemoryBits extends RedisOperator {
+
+        private final Map<String, BitSet> keys = new HashMap<>();
+
+        @Override
+        public void setBits(String key, Collection<Long> offsets) {
+            for (Long offset : offsets) {
+                setBit(key, offset, true);
+            }
+        }
+
+        @Override
+        public Boolean setBit(String key, long offset, boolean value) {
+            BitSet bits = keys.computeIfAbsent(key, k -> new BitSet());
+            boolean old = bits.get((int) offset);
+            bits.set((int) offset, value);
+            return old;
+        }
+
+        @Override
+        public List<Boolean> getBits(String key, Collection<Long> offsets) {
+            BitSet bits = keys.getOrDefault(key, new BitSet());
+            List<Boolean> results = new ArrayList<>(offsets.size());
+            for (Long offset : offsets) {
+                results.add(bits.get(offset.intValue()));
+            }
+            return results;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.wqlm.boot.user.cache;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HotKeysTest {
+
+    @Test
+    public void topReturnsMostFrequentKeys() {
+        HotKeys hotKeys = new HotKeys(10, 1);
+        for (int i = 0; i < 5; i++) {
+            hotKeys.record(1L);
+        }
+        for (int i = 0; i < 3; i++) {
+            hotKeys.record(2L);
+        }
+        hotKeys.record(3L);
+
+        assertEquals(Arrays.asList("1", "2"), hotKeys.top(2));
+        assertEquals(Arrays.asList("1", "2", "3"), hotKeys.top(10));
+    }
+
+    @Test
+    public void decaysWhenFull() {
+        HotKeys hotKeys = new HotKeys(3, 1);
+        for (int i = 0; i < 4; i++) {
+            hotKeys.record("hot");
+        }
+        hotKeys.record("a");
+        hotKeys.record("b");
+        // 记满后减半，只访问过一次的 a、b 被移除
+        hotKeys.record("c");
+
+        assertEquals(Arrays.asList("hot", "c"), hotKeys.top(10));
+        assertTrue(hotKeys.size() <= 3);
+    }
+
+    @Test
+    public void ignoresNullKey() {
+        HotKeys hotKeys = new HotKeys(3, 1);
+        hotKeys.record(null);
+        assertEquals(Collections.emptyList(), hotKeys.top(10));
+    }
+}
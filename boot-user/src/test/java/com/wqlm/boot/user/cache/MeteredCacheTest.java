@@ -0,0 +1,54 @@
+package com.wqlm.boot.user.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.junit.Assert.assertEquals;
+
+public class MeteredCacheTest {
+
+    private MeterRegistry meterRegistry;
+
+    private MeteredCache cache;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new MeteredCacheManager(new ConcurrentMapCacheManager(), meterRegistry, "test").getCache("user");
+    }
+
+    @Test
+    public void countsGetsPutsAndEvictions() {
+        // 与 @Cacheable 的调用顺序一致 : 未命中 -> 执行方法 -> 写入
+        assertEquals(null, cache.get(1L));
+        cache.put(1L, "u1");
+        assertEquals("u1", cache.get(1L).get());
+        assertEquals("u1", cache.get(1L, () -> "other"));
+        assertEquals("u2", cache.get(2L, () -> "u2"));
+        cache.evict(1L);
+        cache.recordBatchGet(3, 2);
+
+        CacheStatistics.Snapshot snapshot = cache.getStatistics().snapshot();
+        assertEquals(5, snapshot.getHits());
+        assertEquals(4, snapshot.getMisses());
+        assertEquals(1, snapshot.getPuts());
+        assertEquals(1, snapshot.getEvictions());
+        // 未命中后写入同一个 key 以及 valueLoader 各算一次加载
+        assertEquals(2, snapshot.getLoads());
+
+        assertEquals(5, meterRegistry.get("cache.gets").tag("cache", "user").tag("result", "hit")
+                .functionCounter().count(), 0);
+        assertEquals(4, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count(), 0);
+        assertEquals(2, meterRegistry.get("cache.load").tag("cacheManager", "test").timer().count());
+    }
+
+    @Test
+    public void putOfOtherKeyIsNotALoad() {
+        cache.get(1L);
+        cache.put(2L, "u2");
+        assertEquals(0, cache.getStatistics().snapshot().getLoads());
+    }
+}
@@ -0,0 +1,124 @@
+package com.wqlm.boot.user.config;
+
+import com.wqlm.boot.user.datasource.ReadOnly;
+import com.wqlm.boot.user.datasource.ReadOnlyAspect;
+import com.wqlm.boot.user.datasource.ReadWriteRoutingDataSource;
+import com.wqlm.boot.user.trace.InMemorySpanExporter;
+import com.wqlm.boot.user.trace.Tracer;
+import com.zaxxer.hikari.HikariDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * async 模式下接口在 userExecutor 中执行，读写分离仍需按请求的 token 粘主库
+ */
+public class AsyncReadWriteRoutingTest {
+
+    private final ExecutionConfig executionConfig = new ExecutionConfig();
+
+    private ThreadPoolTaskExecutor userExecutor;
+
+    private ReadWriteRoutingDataSource dataSource;
+
+    private Repository repository;
+
+    @Before
+    public void setUp() {
+        ApplicationProperty applicationProperty = new ApplicationProperty();
+        ReflectionTestUtils.setField(applicationProperty, "executionPoolSize", 1);
+        ReflectionTestUtils.setField(applicationProperty, "executionQueueCapacity", 10);
+        ReflectionTestUtils.setField(executionConfig, "applicationProperty", applicationProperty);
+        ReflectionTestUtils.setField(executionConfig, "tracer", new Tracer(new InMemorySpanExporter(10), 1));
+        userExecutor = executionConfig.userExecutor();
+        userExecutor.initialize();
+
+        dataSource = new ReadWriteRoutingDataSource(pool("async-primary"),
+                Collections.singletonList(pool("async-replica")), 60000, 60000,
+                ReadWriteDataSourceConfig::currentToken);
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Repository(dataSource));
+        factory.addAspect(new ReadOnlyAspect());
+        repository = factory.getProxy();
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        userExecutor.shutdown();
+        dataSource.destroy();
+    }
+
+    @Test
+    public void readAfterWriteSticksToPrimaryInUserExecutor() throws Exception {
+        bindRequest("token-a");
+        assertEquals("async-primary", repository.write());
+
+        assertEquals("async-primary", userExecutor.submit(repository::read).get());
+        // 线程池中的 RequestAttributes 在任务结束后清除，不会被之后的非 web 任务读到
+        RequestContextHolder.resetRequestAttributes();
+        assertNull(userExecutor.submit(RequestContextHolder::getRequestAttributes).get());
+
+        // 其他请求仍然读从库
+        bindRequest("token-b");
+        assertEquals("async-replica", userExecutor.submit(repository::read).get());
+    }
+
+    private static void bindRequest(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("token", token);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private static HikariDataSource pool(String name) {
+        JdbcDataSource database = new JdbcDataSource();
+        database.setURL("jdbc:h2:mem:" + name);
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName("test-" + name);
+        pool.setDataSource(database);
+        pool.setMinimumIdle(0);
+        pool.setMaximumPoolSize(2);
+        return pool;
+    }
+
+
+    /**
+     * 模拟 service，读方法标注 @ReadOnly，返回本次获取的连接所在的数据库名
+     */
+    public static class Repository {
+
+        private final ReadWriteRoutingDataSource dataSource;
+
+        public Repository(ReadWriteRoutingDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        public String write() throws SQLException {
+            return database();
+        }
+
+        @ReadOnly
+        public String read() throws SQLException {
+            return database();
+        }
+
+        private String database() throws SQLException {
+            try (Connection connection = dataSource.getConnection()) {
+                return connection.getMetaData().getURL().substring("jdbc:h2:mem:".length());
+            }
+        }
+    }
+}
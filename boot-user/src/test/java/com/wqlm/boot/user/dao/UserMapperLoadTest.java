@@ -0,0 +1,127 @@
+package com.wqlm.boot.user.dao;
+
+import com.wqlm.boot.user.po.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * UserMapper 压测，需要可用的 mysql，默认跳过(在加载 spring 上下文之前判断)
+ * 运行 : mvn test -Dtest=UserMapperLoadTest -DloadTest=true [-DloadTest.threads=32] [-DloadTest.seconds=30]
+ * 对比连接池或驱动参数的效果时，通过 -D 覆盖对应的配置后分别运行，如
+ * -Dspring.datasource.hikari.data-source-properties.cachePrepStmts=false
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class UserMapperLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserMapperLoadTest.class);
+
+    private static final String USER_NAME_PREFIX = "load-test-";
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final int threads = Integer.getInteger("loadTest.threads", 32);
+
+    private final int seconds = Integer.getInteger("loadTest.seconds", 30);
+
+    /**
+     * SpringRunner 在创建测试实例时才加载上下文，在此之前跳过，不需要 mysql
+     */
+    @BeforeClass
+    public static void checkEnabled() {
+        assumeTrue("未指定 -DloadTest=true，跳过", Boolean.getBoolean("loadTest"));
+    }
+
+    @Test
+    public void selectPaths() throws Exception {
+        List<Long> ids = prepareUsers(1000);
+
+        run("selectUserVOById", () -> userMapper.selectUserVOById(randomOf(ids)));
+        run("selectByPrimaryKey", () -> userMapper.selectByPrimaryKey(randomOf(ids)));
+        run("selectOne(userName)", () -> {
+            User user = new User();
+            user.setUserName(USER_NAME_PREFIX + ThreadLocalRandom.current().nextInt(ids.size()));
+            userMapper.selectOne(user);
+        });
+        run("selectUserVOByIds(100)", () -> {
+            List<Long> batch = new ArrayList<>(100);
+            for (int i = 0; i < 100; i++) {
+                batch.add(randomOf(ids));
+            }
+            userMapper.selectUserVOByIds(batch);
+        });
+    }
+
+    /**
+     * 插入 count 个压测用户，已存在时直接复用
+     */
+    private List<Long> prepareUsers(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setUserName(USER_NAME_PREFIX + i);
+            User exist = userMapper.selectOne(user);
+            if (exist == null) {
+                user.setPassword("password");
+                user.setSalt("salt");
+                userMapper.insert(user);
+                exist = user;
+            }
+            ids.add(exist.getId());
+        }
+        return ids;
+    }
+
+    private void run(String name, Runnable task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicLong count = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+        long acquireCountBefore = acquire == null ? 0 : acquire.count();
+        double acquireTimeBefore = acquire == null ? 0 : acquire.totalTime(TimeUnit.MILLISECONDS);
+
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    task.run();
+                    count.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(seconds + 60, TimeUnit.SECONDS);
+
+        long acquireCount = acquire == null ? 0 : acquire.count() - acquireCountBefore;
+        double acquireTime = acquire == null ? 0 : acquire.totalTime(TimeUnit.MILLISECONDS) - acquireTimeBefore;
+        assertTrue(name + " 没有执行完成", executor.isTerminated());
+        assertTrue(name + " 没有执行任何操作", count.get() > 0);
+        logger.info(String.format("%-24s threads=%d ops=%d ops/s=%.1f connectionAcquire(avg)=%.3fms pending=%.0f",
+                name, threads, count.get(), count.get() / (double) seconds,
+                acquireCount == 0 ? 0 : acquireTime / acquireCount,
+                meterRegistry.get("hikaricp.connections.pending").gauge().value()));
+    }
+
+    private static Long randomOf(List<Long> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,159 @@
+package com.wqlm.boot.user.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    private final SwitchableDataSource replica0 = new SwitchableDataSource("replica0");
+
+    private final SwitchableDataSource replica1 = new SwitchableDataSource("replica1");
+
+    private volatile String stickyKey;
+
+    private ReadWriteRoutingDataSource dataSource;
+
+    @Before
+    public void setUp() {
+        // 健康检查由测试直接调用
+        dataSource = new ReadWriteRoutingDataSource(pool(new SwitchableDataSource("primary")),
+                Arrays.asList(pool(replica0), pool(replica1)), 60000, 60000, () -> stickyKey);
+    }
+
+    @After
+    public void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Test
+    public void writesUsePrimaryAndReadsRotateReplicas() throws SQLException {
+        assertEquals("primary", target());
+
+        List<String> reads = readTargets(4);
+        assertEquals(Arrays.asList("replica0", "replica1", "replica0", "replica1"), reads);
+    }
+
+    @Test
+    public void unhealthyReplicaIsSkippedUntilHealthCheckRecovers() throws SQLException {
+        // 连接池还没有建立连接，初始化时失败
+        replica0.down = true;
+
+        // 从库获取连接失败的这次读操作回到主库
+        assertEquals("primary", readTargets(1).get(0));
+        assertFalse(dataSource.isReplicaHealthy(0));
+        assertEquals(Arrays.asList("replica1", "replica1", "replica1"), readTargets(3));
+
+        // 仍不可用时健康检查不恢复
+        dataSource.checkHealth();
+        assertFalse(dataSource.isReplicaHealthy(0));
+
+        replica0.down = false;
+        dataSource.checkHealth();
+        assertTrue(dataSource.isReplicaHealthy(0));
+        assertTrue(readTargets(2).contains("replica0"));
+    }
+
+    @Test
+    public void readsStickToPrimaryAfterWriteWithSameKey() throws SQLException {
+        stickyKey = "token-a";
+        assertEquals("primary", target());
+        assertEquals(Arrays.asList("primary", "primary"), readTargets(2));
+
+        // 其他请求不受影响
+        stickyKey = "token-b";
+        assertTrue(readTargets(1).get(0).startsWith("replica"));
+        stickyKey = null;
+        assertTrue(readTargets(1).get(0).startsWith("replica"));
+    }
+
+    @Test
+    public void nestedReadOnlyExitsToPrimary() throws SQLException {
+        ReadWriteContext.enterReadOnly();
+        try {
+            ReadWriteContext.enterReadOnly();
+            ReadWriteContext.exitReadOnly();
+            assertTrue(target().startsWith("replica"));
+        } finally {
+            ReadWriteContext.exitReadOnly();
+        }
+        assertEquals("primary", target());
+    }
+
+    private List<String> readTargets(int count) throws SQLException {
+        List<String> targets = new ArrayList<>(count);
+        ReadWriteContext.enterReadOnly();
+        try {
+            for (int i = 0; i < count; i++) {
+                targets.add(target());
+            }
+        } finally {
+            ReadWriteContext.exitReadOnly();
+        }
+        return targets;
+    }
+
+    /**
+     * @return 本次获取的连接所在的数据库名
+     */
+    private String target() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            String url = connection.getMetaData().getURL();
+            return url.substring("jdbc:h2:mem:".length());
+        }
+    }
+
+    private static HikariDataSource pool(SwitchableDataSource database) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName("test-" + database.name);
+        pool.setDataSource(database);
+        pool.setMinimumIdle(0);
+        pool.setMaximumPoolSize(2);
+        pool.setConnectionTimeout(250);
+        return pool;
+    }
+
+
+    /**
+     * down 为 true 时无法建立新连接，模拟从库宕机
+     */
+    private static final class SwitchableDataSource extends JdbcDataSource {
+
+        private final String name;
+
+        private volatile boolean down;
+
+        SwitchableDataSource(String name) {
+            this.name = name;
+            setURL("jdbc:h2:mem:" + name);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException(name + " is down");
+            }
+            return super.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String user, String password) throws SQLException {
+            if (down) {
+                throw new SQLException(name + " is down");
+            }
+            return super.getConnection(user, password);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.wqlm.boot.user.mybatis;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class SlowStatementLogTest {
+
+    @Test
+    public void keepsLatestEntriesNewestFirst() {
+        SlowStatementLog log = new SlowStatementLog(3);
+        for (int i = 0; i < 5; i++) {
+            log.add(new SlowStatementLog.Entry("UserMapper.selectOne", "select " + i, Collections.emptyList(), i, 1));
+        }
+        List<SlowStatementLog.Entry> entries = log.list();
+        assertEquals(3, entries.size());
+        assertEquals("select 4", entries.get(0).getSql());
+        assertEquals("select 2", entries.get(2).getSql());
+
+        log.clear();
+        assertEquals(0, log.list().size());
+    }
+}
@@ -0,0 +1,82 @@
+package com.wqlm.boot.user.mybatis;
+
+import com.wqlm.boot.user.po.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class StatementMetricsInterceptorTest {
+
+    private final Configuration configuration = new Configuration();
+
+    private final SlowStatementLog slowStatementLog = new SlowStatementLog(10);
+
+    /**
+     * 阈值 1ms，SlowExecutor 每次执行 5ms，每条语句都是慢 sql
+     */
+    private final StatementMetricsInterceptor interceptor =
+            new StatementMetricsInterceptor(new SimpleMeterRegistry(), 1, slowStatementLog);
+
+    @Test
+    public void redactsPasswordAndSaltProperties() throws Throwable {
+        User user = new User();
+        user.setId(1L);
+        user.setUserName("alice");
+        user.setPassword("hashed-password");
+        user.setSalt("random-salt");
+
+        update("insert into user (id, user_name, password, salt)\n  values (?, ?, ?, ?)", user,
+                "id", "userName", "password", "salt");
+
+        SlowStatementLog.Entry entry = slowStatementLog.list().get(0);
+        assertEquals("UserMapper.insert", entry.getStatement());
+        assertEquals("insert into user (id, user_name, password, salt) values (?, ?, ?, ?)", entry.getSql());
+        assertEquals(Arrays.asList(1L, "alice", "******", "******"), entry.getParameters());
+    }
+
+    @Test
+    public void redactsByNameCaseInsensitively() throws Throwable {
+        Map<String, Object> parameter = new HashMap<>();
+        parameter.put("id", 1L);
+        parameter.put("newPassword", "new");
+        parameter.put("userSALT", "salt");
+
+        update("update user set password = ?, salt = ? where id = ?", parameter, "newPassword", "userSALT", "id");
+
+        assertEquals(Arrays.asList("******", "******", 1L), slowStatementLog.list().get(0).getParameters());
+    }
+
+    private void update(String sql, Object parameter, String... properties) throws Throwable {
+        List<ParameterMapping> mappings = new ArrayList<>(properties.length);
+        for (String property : properties) {
+            mappings.add(new ParameterMapping.Builder(configuration, property, Object.class).build());
+        }
+        MappedStatement ms = new MappedStatement.Builder(configuration, "com.wqlm.boot.user.dao.UserMapper.insert",
+                new StaticSqlSource(configuration, sql, mappings), SqlCommandType.UPDATE).build();
+        interceptor.intercept(new Invocation(new SlowExecutor(),
+                SlowExecutor.class.getMethod("update", MappedStatement.class, Object.class),
+                new Object[]{ms, parameter}));
+    }
+
+
+    public static final class SlowExecutor {
+
+        public int update(MappedStatement ms, Object parameter) throws InterruptedException {
+            Thread.sleep(5);
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.wqlm.boot.user.reactive;
+
+import com.wqlm.boot.user.po.User;
+import com.wqlm.boot.user.util.url.NoAuthUrlMatcher;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LoginWebFilterTest {
+
+    private final User user = new User();
+
+    private final LoginWebFilter filter = new LoginWebFilter();
+
+    private final AtomicBoolean chainCalled = new AtomicBoolean();
+
+    private final WebFilterChain chain = exchange -> {
+        chainCalled.set(true);
+        return Mono.empty();
+    };
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(filter, "noAuthUrlMatcher", new NoAuthUrlMatcher() {
+            @Override
+            public boolean matches(String path) {
+                return "/user/login".equals(path);
+            }
+        });
+        ReflectionTestUtils.setField(filter, "reactiveSessionTemplate", sessionTemplate());
+    }
+
+    @Test
+    public void validSessionPassesUserToHandler() {
+        MockServerWebExchange exchange = exchange("valid");
+        filter.filter(exchange, chain).block();
+        assertTrue(chainCalled.get());
+        assertSame(user, exchange.getAttribute(LoginWebFilter.USER_ATTRIBUTE));
+    }
+
+    @Test
+    public void missingSessionIsTokenInvalid() {
+        MockServerWebExchange exchange = exchange("expired");
+        filter.filter(exchange, chain).block();
+        assertFalse(chainCalled.get());
+        assertNull(exchange.getResponse().getStatusCode());
+        assertTrue(exchange.getResponse().getBodyAsString().block().contains("\"code\":\"4301\""));
+    }
+
+    @Test
+    public void redisErrorIsServiceBusyNotLogout() {
+        MockServerWebExchange exchange = exchange("redis-down");
+        filter.filter(exchange, chain).block();
+        assertFalse(chainCalled.get());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exchange.getResponse().getStatusCode());
+        assertTrue(exchange.getResponse().getBodyAsString().block().contains("\"code\":\"5002\""));
+    }
+
+    private static MockServerWebExchange exchange(String token) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/user/info").header("token", token));
+    }
+
+    /**
+     * session 的读取结果，按 token 返回
+     */
+    private Mono<User> session(String token) {
+        switch (token) {
+            case "valid":
+                return Mono.just(user);
+            case "redis-down":
+                return Mono.error(new RedisConnectionFailureException("connect refused"));
+            default:
+                return Mono.empty();
+        }
+    }
+
+    /**
+     * 只实现 opsForValue().get(token)
+     */
+    @SuppressWarnings("unchecked")
+    private ReactiveRedisTemplate<String, User> sessionTemplate() {
+        ReactiveValueOperations<String, User> operations = (ReactiveValueOperations<String, User>) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class[]{ReactiveValueOperations.class}, (proxy, method, args) -> {
+                    if ("get".equals(method.getName()) && args.length == 1) {
+                        return session((String) args[0]);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        ReactiveRedisConnectionFactory factory = (ReactiveRedisConnectionFactory) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class[]{ReactiveRedisConnectionFactory.class}, (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        RedisSerializationContext<String, User> context =
+                (RedisSerializationContext<String, User>) (RedisSerializationContext<?, ?>) RedisSerializationContext.string();
+        return new ReactiveRedisTemplate<String, User>(factory, context) {
+            @Override
+            public ReactiveValueOperations<String, User> opsForValue() {
+                return operations;
+            }
+        };
+    }
+}
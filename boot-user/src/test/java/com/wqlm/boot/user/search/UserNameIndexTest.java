@@ -0,0 +1,62 @@
+package com.wqlm.boot.user.search;
+
+import com.wqlm.boot.user.vo.UserVO;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class UserNameIndexTest {
+
+    private UserNameIndex index;
+
+    @Before
+    public void setUp() {
+        index = new UserNameIndex();
+        String[] names = {"alice", "Alice", "alicia", "albert", "bob", "bobby", "charlotte", "charlie", "wqlm"};
+        for (int i = 0; i < names.length; i++) {
+            index.add((long) i, names[i]);
+        }
+    }
+
+    @Test
+    public void prefixIgnoresCase() {
+        assertEquals(names("Alice", "alice", "alicia"), names(index.prefix("ALI", 10)));
+        assertEquals(names("Alice", "alice"), names(index.prefix("ali", 2)));
+        assertTrue(index.prefix("zzz", 10).isEmpty());
+    }
+
+    @Test
+    public void fuzzyToleratesTypos() {
+        // 替换一个字符
+        assertEquals(names("charlie", "charlotte"), names(index.fuzzy("chsrl", 10)));
+        // 多一个或少一个字符
+        assertEquals(names("bob", "bobby"), names(index.fuzzy("boby", 10)));
+        // 精确的前缀排在最前
+        assertEquals("albert", index.fuzzy("albe", 10).get(0).getUserName());
+    }
+
+    @Test
+    public void shortQueryFallsBackToPrefix() {
+        assertEquals(names("bob", "bobby"), names(index.fuzzy("bo", 10)));
+    }
+
+    @Test
+    public void prefixDistance() {
+        assertEquals(0, UserNameIndex.prefixDistance("char", "charlotte", 1));
+        assertEquals(1, UserNameIndex.prefixDistance("chsr", "charlotte", 1));
+        assertEquals(2, UserNameIndex.prefixDistance("xxxx", "charlotte", 1));
+    }
+
+    private static List<String> names(String... names) {
+        return java.util.Arrays.asList(names);
+    }
+
+    private static List<String> names(List<UserVO> vos) {
+        return vos.stream().map(UserVO::getUserName).collect(Collectors.toList());
+    }
+}
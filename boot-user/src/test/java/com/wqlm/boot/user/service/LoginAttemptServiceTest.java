@@ -0,0 +1,203 @@
+package com.wqlm.boot.user.service;
+
+import com.wqlm.boot.user.config.ApplicationProperty;
+import com.wqlm.boot.user.enums.ApplicationEnum;
+import com.wqlm.boot.user.exception.ApplicationException;
+import com.wqlm.boot.user.util.redis.RedisOperator;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class LoginAttemptServiceTest {
+
+    private static final long WINDOW = 900_000;
+
+    /**
+     * 某个窗口的开始时间
+     */
+    private static final long START = WINDOW * 1000;
+
+    private final InMemoryCounters redis = new InMemoryCounters();
+
+    private final LoginAttemptService service = new LoginAttemptService();
+
+    private long now = START;
+
+    @Before
+    public void setUp() {
+        // 与 application.properties 中的默认值相同
+        ApplicationProperty applicationProperty = new ApplicationProperty();
+        ReflectionTestUtils.setField(applicationProperty, "loginLimitEnabled", true);
+        ReflectionTestUtils.setField(applicationProperty, "loginWindow", (int) (WINDOW / 1000));
+        ReflectionTestUtils.setField(applicationProperty, "loginDelayAfter", 3);
+        ReflectionTestUtils.setField(applicationProperty, "loginDelayBase", 1000L);
+        ReflectionTestUtils.setField(applicationProperty, "loginDelayMax", 60000L);
+        ReflectionTestUtils.setField(applicationProperty, "loginUserLockThreshold", 10);
+        ReflectionTestUtils.setField(applicationProperty, "loginIpLockThreshold", 100);
+        ReflectionTestUtils.setField(service, "applicationProperty", applicationProperty);
+        ReflectionTestUtils.setField(service, "redisOperator", redis);
+        service.setClock(() -> now);
+    }
+
+    @Test
+    public void estimateWeightsPreviousWindowAndRoundsDown() {
+        assertEquals(3, LoginAttemptService.estimate(3L, 10L, 0));
+        assertEquals(13, LoginAttemptService.estimate(3L, 10L, 1));
+        assertEquals(7, LoginAttemptService.estimate(3L, 9L, 0.5));
+        assertEquals(9, LoginAttemptService.estimate(0L, 10L, 0.99));
+        // 计数不存在
+        assertEquals(0, LoginAttemptService.estimate(null, null, 1));
+    }
+
+    @Test
+    public void delayStartsAfterDelayAfterAndDoubles() {
+        for (int failures = 0; failures <= 3; failures++) {
+            assertEquals(0, service.delayOf(failures));
+        }
+        assertEquals(1000, service.delayOf(4));
+        assertEquals(2000, service.delayOf(5));
+        assertEquals(4000, service.delayOf(6));
+        assertEquals(32000, service.delayOf(9));
+        assertEquals(60000, service.delayOf(10));
+        // 不会溢出成负数
+        assertEquals(60000, service.delayOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void waitsForDelayBeforeNextAttempt() {
+        failLogin("alice", "1.1.1.1", 3);
+        // 3 次失败不需要等待
+        service.check("alice", "1.1.1.1");
+
+        failLogin("alice", "1.1.1.1", 1);
+        now += 999;
+        assertRejected(ApplicationEnum.REQUEST_FREQUENTLY, "alice", "1.1.1.1");
+        now += 1;
+        service.check("alice", "1.1.1.1");
+
+        // 其他用户不受影响
+        service.check("bob", "1.1.1.1");
+    }
+
+    @Test
+    public void locksUserAtThreshold() {
+        failLogin("alice", "1.1.1.1", 9);
+        now += 60000;
+        service.check("alice", "1.1.1.1");
+
+        failLogin("alice", "1.1.1.1", 1);
+        now += 60000;
+        assertRejected(ApplicationEnum.LOGIN_LOCKED, "alice", "1.1.1.1");
+        // 换 ip 也一样
+        assertRejected(ApplicationEnum.LOGIN_LOCKED, "alice", "2.2.2.2");
+    }
+
+    @Test
+    public void previousWindowSlidesOut() {
+        failLogin("alice", "1.1.1.1", 10);
+
+        // 刚进入下一个窗口，上一个窗口全部计入
+        now = START + WINDOW;
+        assertRejected(ApplicationEnum.LOGIN_LOCKED, "alice", "1.1.1.1");
+
+        // 上一个窗口只剩一半在滑动窗口内，10 * 0.5 = 5 次
+        now = START + WINDOW + WINDOW / 2;
+        service.check("alice", "1.1.1.1");
+
+        // 一分钟后上一个窗口只计入 10 * 0.43 = 4 次，再失败 6 次达到阈值
+        failLogin("alice", "1.1.1.1", 6);
+        now += 60000;
+        assertRejected(ApplicationEnum.LOGIN_LOCKED, "alice", "1.1.1.1");
+
+        // 再下一个窗口，第一个窗口的计数不再计入
+        now = START + 2 * WINDOW + WINDOW / 2;
+        service.check("alice", "1.1.1.1");
+    }
+
+    @Test
+    public void locksIpAtThreshold() {
+        for (int i = 0; i < 99; i++) {
+            failLogin("user-" + i, "1.1.1.1", 1);
+        }
+        service.check("other", "1.1.1.1");
+
+        failLogin("user-99", "1.1.1.1", 1);
+        assertRejected(ApplicationEnum.LOGIN_LOCKED, "other", "1.1.1.1");
+        service.check("other", "2.2.2.2");
+    }
+
+    @Test
+    public void successClearsUserButNotIp() {
+        failLogin("alice", "1.1.1.1", 10);
+        assertRejected(ApplicationEnum.LOGIN_LOCKED, "alice", "1.1.1.1");
+
+        service.onSuccess("alice");
+        service.check("alice", "1.1.1.1");
+        assertEquals(10L, redis.count("login:fail:ip:1.1.1.1:" + START / WINDOW).longValue());
+    }
+
+    private void failLogin(String userName, String ip, int times) {
+        for (int i = 0; i < times; i++) {
+            service.onFailure(userName, ip);
+        }
+    }
+
+    private void assertRejected(ApplicationEnum expected, String userName, String ip) {
+        try {
+            service.check(userName, ip);
+            fail("应当拒绝 " + userName + "@" + ip);
+        } catch (ApplicationException e) {
+            assertEquals(expected, e.getApplicationEnum());
+        }
+    }
+
+
+    /**
+     * 按 KEYS 的数量区分 LoginAttemptService 的两个脚本，不处理过期
+     */
+    private static final class InMemoryCounters extends RedisOperator {
+
+        private final Map<String, Long> values = new HashMap<>();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T eval(RedisScript<T> script, List<String> keys, Object... args) {
+            if (keys.size() == 5) {
+                List<Long> result = new ArrayList<>(keys.size());
+                for (String key : keys) {
+                    result.add(count(key));
+                }
+                return (T) result;
+            }
+            values.merge(keys.get(0), 1L, Long::sum);
+            values.merge(keys.get(1), 1L, Long::sum);
+            values.put(keys.get(2), ((Number) args[1]).longValue());
+            return (T) Long.valueOf(1);
+        }
+
+        @Override
+        public Long del(Collection<String> keys) {
+            long deleted = 0;
+            for (String key : keys) {
+                if (values.remove(key) != null) {
+                    deleted++;
+                }
+            }
+            return deleted;
+        }
+
+        Long count(String key) {
+            return values.getOrDefault(key, 0L);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.wqlm.boot.user.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wqlm.boot.user.enums.ExportFormat;
+import com.wqlm.boot.user.vo.UserVO;
+import org.junit.Test;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class UserExportServiceTest {
+
+    private final List<UserVO> users = Arrays.asList(
+            user(1L, "plain"),
+            user(2L, "with,comma"),
+            user(3L, "with\"quote"),
+            user(4L, "with\nnewline"),
+            user(1234567890123456789L, "中文"));
+
+    /**
+     * 不查询数据库，直接读取 users
+     */
+    private final UserExportService service = new UserExportService() {
+        @Override
+        public long forEachUser(Consumer<UserVO> action) {
+            users.forEach(action);
+            return users.size();
+        }
+    };
+
+    @Test
+    public void csvQuotesAndEscapesFields() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(5, service.export(ExportFormat.CSV, out));
+
+        assertEquals("id,user_name\n"
+                + "1,plain\n"
+                + "2,\"with,comma\"\n"
+                + "3,\"with\"\"quote\"\n"
+                + "4,\"with\nnewline\"\n"
+                + "1234567890123456789,中文\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void ndjsonWritesOneObjectPerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.export(ExportFormat.NDJSON, out);
+
+        String body = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(body.endsWith("\n"));
+        String[] lines = body.split("\n");
+        assertEquals(5, lines.length);
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("1", first.get("id").asText());
+        assertEquals("plain", first.get("userName").asText());
+        // 换行被转义，不会拆成两行
+        assertEquals("with\nnewline", objectMapper.readTree(lines[3]).get("userName").asText());
+        // id 以字符串输出，js 不丢失精度
+        assertTrue(objectMapper.readTree(lines[4]).get("id").isTextual());
+    }
+
+    @Test
+    public void gzipWritesHeadersAndCompressedBody() throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.export(ExportFormat.CSV, true, headers::put, out);
+
+        assertEquals("text/csv;charset=UTF-8", headers.get("Content-Type"));
+        assertEquals("attachment; filename=users.csv", headers.get("Content-Disposition"));
+        assertEquals("gzip", headers.get("Content-Encoding"));
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        service.export(ExportFormat.CSV, plain);
+        byte[] unzipped = StreamUtils.copyToByteArray(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())));
+        assertEquals(new String(plain.toByteArray(), StandardCharsets.UTF_8),
+                new String(unzipped, StandardCharsets.UTF_8));
+
+        headers.clear();
+        service.export(ExportFormat.NDJSON, false, headers::put, new ByteArrayOutputStream());
+        assertEquals("application/x-ndjson;charset=UTF-8", headers.get("Content-Type"));
+        assertNull(headers.get("Content-Encoding"));
+    }
+
+    @Test
+    public void negotiatesGzipFromParameterThenAcceptEncoding() {
+        // 参数优先
+        assertTrue(service.negotiateGzip(true, null));
+        assertFalse(service.negotiateGzip(false, "gzip"));
+
+        assertFalse(service.negotiateGzip(null, null));
+        assertFalse(service.negotiateGzip(null, "identity"));
+        assertTrue(service.negotiateGzip(null, "gzip, deflate, br"));
+        assertTrue(service.negotiateGzip(null, "deflate, GZIP;q=0.5"));
+        assertFalse(service.negotiateGzip(null, "gzip;q=0"));
+        assertTrue(service.negotiateGzip(null, "*"));
+        // 明确列出的 gzip 优先于 *
+        assertFalse(service.negotiateGzip(null, "*, gzip;q=0"));
+        assertTrue(service.negotiateGzip(null, "*;q=0, gzip"));
+        assertFalse(service.negotiateGzip(null, "gzip;q=abc"));
+    }
+
+    private static UserVO user(Long id, String userName) {
+        UserVO vo = new UserVO();
+        vo.setId(id);
+        vo.setUserName(userName);
+        return vo;
+    }
+}
@@ -0,0 +1,141 @@
+package com.wqlm.boot.user.shard;
+
+import com.wqlm.boot.user.dto.LoginDTO;
+import com.wqlm.boot.user.dto.RegisterDTO;
+import com.wqlm.boot.user.enums.UserEventType;
+import com.wqlm.boot.user.event.UserLifecycleEvent;
+import com.wqlm.boot.user.outbox.UserEventRelay;
+import com.wqlm.boot.user.po.User;
+import com.wqlm.boot.user.service.UserService;
+import com.wqlm.boot.user.vo.UserPageVO;
+import com.wqlm.boot.user.vo.UserVO;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 用两个内存 h2 数据库作为分片，验证用户按用户名写入分片，并能按用户名、用户ID定位到同一个分片，以及跨分片的分页和 outbox 的投递
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "shard.urls="
+        + "jdbc:h2:mem:shard0;MODE=MySQL;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:shard/shard0.sql',"
+        + "jdbc:h2:mem:shard1;MODE=MySQL;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:shard/shard1.sql'")
+public class ShardingTest {
+
+    private static final int USER_COUNT = 20;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UserEventRelay userEventRelay;
+
+    @Autowired
+    private EventCollector eventCollector;
+
+    @Test
+    public void routeByNameAndId() {
+        assertEquals(2, shardRouter.getShardCount());
+
+        List<Long> ids = new ArrayList<>();
+        int[] expectedRows = new int[2];
+        for (int i = 0; i < USER_COUNT; i++) {
+            String userName = "shard-test-" + i;
+            RegisterDTO register = new RegisterDTO();
+            register.setUserName(userName);
+            register.setPassword("password");
+            userService.register(register);
+
+            LoginDTO login = new LoginDTO();
+            login.setUserName(userName);
+            login.setPassword("password");
+            User user = userService.authenticate(login);
+
+            int shard = shardRouter.shardOfName(userName);
+            assertEquals(shard, shardRouter.shardOfId(user.getId()));
+            expectedRows[shard]++;
+            ids.add(user.getId());
+        }
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        for (int shard = 0; shard < 2; shard++) {
+            Integer rows = shardRouter.onShard(shard,
+                    () -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM `user`", Integer.class));
+            assertEquals(expectedRows[shard], rows.intValue());
+        }
+
+        List<UserVO> users = userService.getUsers(ids);
+        assertEquals(USER_COUNT, users.size());
+        for (int i = 0; i < USER_COUNT; i++) {
+            assertEquals(ids.get(i), users.get(i).getId());
+            assertEquals("shard-test-" + i, users.get(i).getUserName());
+        }
+
+        // 跨分片的键集分页与按id排序的结果一致
+        List<Long> listed = new ArrayList<>();
+        String cursor = null;
+        do {
+            UserPageVO page = userService.listUsers(cursor, 7, true);
+            assertEquals(USER_COUNT, page.getTotal());
+            page.getList().forEach(vo -> listed.add(vo.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        List<Long> sorted = new ArrayList<>(ids);
+        Collections.sort(sorted);
+        assertEquals(sorted, listed);
+        assertEquals(USER_COUNT, userService.listUsers(null, 1, false).getTotal());
+
+        // 每个注册都在用户所在的分片写入了 REGISTERED 事件，投递后从 outbox 中删除
+        // 事务提交后 relay 线程可能已经投递，这里再同步投递一次
+        userEventRelay.relay();
+        Set<Long> registered = new HashSet<>();
+        for (UserLifecycleEvent event : eventCollector.events) {
+            assertEquals(UserEventType.REGISTERED, event.getType());
+            assertEquals(shardRouter.shardOfId(event.getUserId()), event.getShard());
+            registered.add(event.getUserId());
+        }
+        assertEquals(new HashSet<>(ids), registered);
+        for (int shard = 0; shard < 2; shard++) {
+            Integer rows = shardRouter.onShard(shard,
+                    () -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM `user_event`", Integer.class));
+            assertEquals(0, rows.intValue());
+        }
+    }
+
+    @TestConfiguration
+    static class EventCollectorConfig {
+
+        @Bean
+        public EventCollector eventCollector() {
+            return new EventCollector();
+        }
+    }
+
+    static class EventCollector {
+
+        private final List<UserLifecycleEvent> events = new CopyOnWriteArrayList<>();
+
+        @EventListener
+        public void onEvent(UserLifecycleEvent event) {
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.wqlm.boot.user.startup;
+
+import org.junit.Test;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Role;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class SelectiveLazyInitPostProcessorTest {
+
+    private static final AtomicInteger created = new AtomicInteger();
+
+    @Test
+    public void onlyEagerBeansAreCreatedOnStartup() {
+        created.set(0);
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.addBeanFactoryPostProcessor(new SelectiveLazyInitPostProcessor(Collections.singleton("eager")));
+        context.register(Beans.class);
+        context.refresh();
+        try {
+            // eager、notLazy、callback、infrastructure
+            assertEquals(4, created.get());
+            context.getBean("lazy");
+            assertEquals(5, created.get());
+        } finally {
+            context.close();
+        }
+    }
+
+    @Configuration
+    static class Beans {
+
+        @Bean
+        public Object lazy() {
+            return new Counted();
+        }
+
+        @Bean
+        public Object eager() {
+            return new Counted();
+        }
+
+        @Bean
+        @Lazy(false)
+        public Object notLazy() {
+            return new Counted();
+        }
+
+        @Bean
+        public Callback callback() {
+            return new Callback();
+        }
+
+        @Bean
+        @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+        public Object infrastructure() {
+            return new Counted();
+        }
+    }
+
+    static class Counted {
+
+        Counted() {
+            created.incrementAndGet();
+        }
+    }
+
+    static class Callback extends Counted implements SmartInitializingSingleton {
+
+        @Override
+        public void afterSingletonsInstantiated() {
+        }
+    }
+}
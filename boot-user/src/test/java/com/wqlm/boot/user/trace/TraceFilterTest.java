@@ -0,0 +1,52 @@
+package com.wqlm.boot.user.trace;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TraceFilterTest {
+
+    private final TraceFilter filter = new TraceFilter(new Tracer(new InMemorySpanExporter(100), 0));
+
+    @Test
+    public void keepsValidUpstreamTraceId() throws Exception {
+        String w3c = "4bf92f3577b34da6a3ce929d0e0e4736";
+        assertEquals(w3c, filter(w3c));
+        assertEquals("req_1-A", filter("req_1-A"));
+        char[] max = new char[64];
+        Arrays.fill(max, 'a');
+        assertEquals(new String(max), filter(new String(max)));
+    }
+
+    @Test
+    public void replacesInvalidTraceId() throws Exception {
+        char[] tooLong = new char[65];
+        Arrays.fill(tooLong, 'a');
+        for (String invalid : Arrays.asList(null, "", new String(tooLong), "a b", "abc\r\nSet-Cookie: x=1",
+                "<script>", "中文")) {
+            String traceId = filter(invalid);
+            assertNotEquals(invalid, traceId);
+            assertTrue(traceId, traceId.matches("[0-9a-f]{16}"));
+        }
+    }
+
+    /**
+     * @return 响应头中的 traceId
+     */
+    private String filter(String traceId) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user/info");
+        if (traceId != null) {
+            request.addHeader(TraceFilter.TRACE_ID_HEADER, traceId);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getHeader(TraceFilter.TRACE_ID_HEADER);
+    }
+}
@@ -0,0 +1,55 @@
+package com.wqlm.boot.user.trace;
+
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TracerTest {
+
+    @Test
+    public void exportsNestedSpansWhenRootFinishes() {
+        InMemorySpanExporter exporter = new InMemorySpanExporter(100);
+        Tracer tracer = new Tracer(exporter, 1);
+
+        Span root = tracer.startTrace("GET /user", "abc");
+        assertEquals("abc", MDC.get(Tracer.MDC_KEY));
+        try (Span service = tracer.startSpan("UserService.login")) {
+            tracer.startSpan("redis.get").tag("key", "token").close();
+            assertSame(service, tracer.currentSpan());
+        }
+        assertTrue(exporter.getSpans().isEmpty());
+        root.close();
+
+        List<Span> spans = exporter.getSpans();
+        assertEquals(3, spans.size());
+        assertEquals("redis.get", spans.get(0).getName());
+        assertEquals(spans.get(1).getSpanId(), spans.get(0).getParentId());
+        assertEquals(root.getSpanId(), spans.get(1).getParentId());
+        assertEquals("abc", spans.get(0).getTraceId());
+        assertNull(tracer.currentSpan());
+        assertNull(MDC.get(Tracer.MDC_KEY));
+    }
+
+    @Test
+    public void unsampledTraceOnlyKeepsTraceId() {
+        InMemorySpanExporter exporter = new InMemorySpanExporter(100);
+        Tracer tracer = new Tracer(exporter, 0);
+
+        Span root = tracer.startTrace("GET /user", null);
+        assertNotNull(MDC.get(Tracer.MDC_KEY));
+        assertSame(Span.NOOP, tracer.startSpan("UserService.login"));
+        root.close();
+
+        assertTrue(exporter.getSpans().isEmpty());
+        assertNull(MDC.get(Tracer.MDC_KEY));
+    }
+
+    @Test
+    public void noSpanOutsideTrace() {
+        Tracer tracer = new Tracer(new InMemorySpanExporter(100), 1);
+        assertSame(Span.NOOP, tracer.startSpan("redis.get"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.wqlm.boot.user.util.id;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class SnowflakeIdGeneratorTest {
+
+    @Test
+    public void increasingAndMatchesResidue() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, 3, 5000);
+        for (int residue = 0; residue < 3; residue++) {
+            long prev = 0;
+            for (int i = 0; i < 10000; i++) {
+                long id = generator.nextId(residue);
+                assertTrue(id > prev);
+                assertEquals(residue, id % 3);
+                prev = id;
+            }
+        }
+    }
+
+    @Test
+    public void timestampOf() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0, 1, 5000);
+        long before = System.currentTimeMillis();
+        long timestamp = SnowflakeIdGenerator.timestampOf(generator.nextId(0));
+        assertTrue(timestamp >= before && timestamp <= System.currentTimeMillis());
+    }
+
+    @Test
+    public void uniqueAcrossThreads() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 2, 5000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int residue = t % 2;
+            futures.add(executor.submit(() -> {
+                List<Long> ids = new ArrayList<>(20000);
+                for (int i = 0; i < 20000; i++) {
+                    ids.add(generator.nextId(residue));
+                }
+                return ids;
+            }));
+        }
+        Set<Long> all = ConcurrentHashMap.newKeySet();
+        for (Future<List<Long>> future : futures) {
+            all.addAll(future.get());
+        }
+        executor.shutdown();
+        assertEquals(8 * 20000, all.size());
+    }
+
+    @Test
+    public void fallbackToSegment() {
+        IdGenerator snowflake = residue -> {
+            throw new IllegalStateException("系统时钟回拨");
+        };
+        IdGenerator generator = new FallbackIdGenerator(snowflake, new SegmentIdGenerator(new SegmentAllocator() {
+            private long counter;
+
+            @Override
+            public long allocate(int size) {
+                return counter += size;
+            }
+        }, 10, 2));
+        long first = generator.nextId(1);
+        assertEquals((1L << 31) * 2 + 1, first);
+        for (int i = 0; i < 100; i++) {
+            long id = generator.nextId(0);
+            assertEquals(0, id % 2);
+            assertTrue(id > first);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.wqlm.boot.user.util.ip;
+
+import com.wqlm.boot.user.config.ApplicationProperty;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ClientIpResolverTest {
+
+    private final ClientIpResolver resolver = new ClientIpResolver();
+
+    @Before
+    public void setUp() {
+        ApplicationProperty applicationProperty = new ApplicationProperty();
+        ReflectionTestUtils.setField(applicationProperty, "loginTrustedProxies", "10.0.0.0/8, 192.168.1.10, 172.16.0.0/12, ::1");
+        ReflectionTestUtils.setField(resolver, "applicationProperty", applicationProperty);
+        resolver.init();
+    }
+
+    @Test
+    public void directClientUsesRemoteAddr() {
+        assertEquals("203.0.113.7", resolver.resolve("203.0.113.7", null));
+        // 不是经过可信代理的请求，X-Forwarded-For 是客户端自己填的
+        assertEquals("203.0.113.7", resolver.resolve("203.0.113.7", "1.2.3.4"));
+    }
+
+    @Test
+    public void gatewayAppendsClientIp() {
+        assertEquals("203.0.113.7", resolver.resolve("10.0.0.5", "203.0.113.7"));
+        // 多级代理，跳过可信的代理
+        assertEquals("203.0.113.7", resolver.resolve("10.0.0.5", "203.0.113.7, 172.20.1.1, 192.168.1.10"));
+        assertEquals("203.0.113.7", resolver.resolve("::1", "203.0.113.7"));
+    }
+
+    @Test
+    public void spoofedLeftmostEntriesAreIgnored() {
+        assertEquals("203.0.113.7", resolver.resolve("10.0.0.5", "1.2.3.4, 10.9.9.9, 203.0.113.7"));
+        // 192.168.1.11 不在可信列表中
+        assertEquals("192.168.1.11", resolver.resolve("10.0.0.5", "203.0.113.7, 192.168.1.11"));
+    }
+
+    @Test
+    public void invalidEntryStopsAtLastTrustedProxy() {
+        assertEquals("10.0.0.6", resolver.resolve("10.0.0.5", "evil.example.com, 10.0.0.6"));
+        assertEquals("10.0.0.5", resolver.resolve("10.0.0.5", "unknown"));
+        assertEquals("10.0.0.5", resolver.resolve("10.0.0.5", "999.1.1.1"));
+        // 全部是可信代理时取最左边的
+        assertEquals("10.0.0.6", resolver.resolve("10.0.0.5", "10.0.0.6, 10.0.0.7"));
+    }
+
+    @Test
+    public void servletRequestJoinsHeaders() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.5");
+        request.addHeader(ClientIpResolver.FORWARDED_FOR_HEADER, "1.2.3.4");
+        request.addHeader(ClientIpResolver.FORWARDED_FOR_HEADER, "203.0.113.7");
+        assertEquals("203.0.113.7", resolver.resolve(request));
+    }
+
+    @Test
+    public void onlyLiteralAddressesAreParsed() {
+        assertEquals(4, ClientIpResolver.toBytes("127.0.0.1").length);
+        assertEquals(16, ClientIpResolver.toBytes("2001:db8::1").length);
+        assertNull(ClientIpResolver.toBytes("localhost"));
+        assertNull(ClientIpResolver.toBytes("1.2.3"));
+        assertNull(ClientIpResolver.toBytes("1.2.3.256"));
+        assertNull(ClientIpResolver.toBytes("2001:db8::zz"));
+    }
+}
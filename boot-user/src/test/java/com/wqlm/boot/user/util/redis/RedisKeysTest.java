@@ -0,0 +1,27 @@
+package com.wqlm.boot.user.util.redis;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RedisKeysTest {
+
+    @Test
+    public void keepsOnlyPrefix() {
+        assertEquals("user::*", RedisKeys.redact("user::123"));
+        assertEquals("login:*", RedisKeys.redact("login:fail:user:alice:1"));
+        assertEquals("session:*", RedisKeys.redact(UUID.randomUUID().toString()));
+    }
+
+    @Test
+    public void multipleKeysOnlyCount() {
+        assertEquals("[2 keys]", RedisKeys.redact(Arrays.asList("token-a", "token-b")));
+        assertEquals("[3 keys]", RedisKeys.redact(new String[]{"a", "b", "c"}));
+        assertEquals("Long", RedisKeys.redact(1L));
+        assertNull(RedisKeys.redact(null));
+    }
+}
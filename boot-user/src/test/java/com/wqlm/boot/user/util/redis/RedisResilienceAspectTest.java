@@ -0,0 +1,259 @@
+package com.wqlm.boot.user.util.redis;
+
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.RedisConnectionException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.SourceLocation;
+import org.aspectj.runtime.internal.AroundClosure;
+import org.junit.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.RedisSystemException;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class RedisResilienceAspectTest {
+
+    private static final long MAX_STALENESS = 60000;
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final RedisCircuitBreaker breaker = new RedisCircuitBreaker(3, 1000, now::get);
+
+    private final LocalFallbackCache fallbackCache = new LocalFallbackCache(100, MAX_STALENESS, now::get);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final RedisResilienceAspect aspect = new RedisResilienceAspect(breaker, 0, 0, fallbackCache, meterRegistry);
+
+    @Test
+    public void getServedFromLocalTierWhenRedisIsDown() throws Throwable {
+        assertEquals("user-1", call("get", () -> "user-1", "token"));
+
+        assertEquals("user-1", call("get", RedisResilienceAspectTest::connectionLost, "token"));
+        assertEquals(1, meterRegistry.get("redis.fallback").tag("reason", "error").tag("result", "hit")
+                .counter().count(), 0);
+
+        // 没有本地值的 key 和其他命令仍然失败
+        assertUnavailable("get", "other");
+        assertUnavailable("expire", "token");
+        assertEquals(RedisCircuitBreaker.State.OPEN, breaker.getState());
+
+        // 熔断期间不访问 redis
+        assertEquals("user-1", call("get", () -> {
+            throw new AssertionError("熔断期间不应访问 redis");
+        }, "token"));
+    }
+
+    @Test
+    public void deleteAndUnlinkInvalidateLocalTier() throws Throwable {
+        call("set", () -> null, "a", "1", 60L);
+        call("set", () -> null, "b", "2", 60L);
+        call("set", () -> null, "c", "3", 60L);
+        assertEquals(3, fallbackCache.size());
+
+        call("del", () -> 2L, Arrays.asList("a", "b"));
+        call("unlink", () -> 1L, (Object) new String[]{"c"});
+        assertEquals(0, fallbackCache.size());
+        assertUnavailable("get", "a");
+        assertUnavailable("get", "c");
+    }
+
+    @Test
+    public void setNotWrittenKeepsPreviousValue() throws Throwable {
+        call("set", () -> null, "lock", "owner-a", 60L);
+        // SET ... NX 没有写入
+        call("set", () -> false, "lock", "owner-b", 60L, true);
+        assertEquals("owner-a", fallbackCache.get("lock"));
+
+        call("set", () -> true, "lock", "owner-c", 60L, true);
+        assertEquals("owner-c", fallbackCache.get("lock"));
+
+        // GET 到 null 时移除
+        call("get", () -> null, "lock");
+        assertNull(fallbackCache.get("lock"));
+    }
+
+    @Test
+    public void staleValueIsNotServed() throws Throwable {
+        call("get", () -> "user-1", "token");
+
+        now.addAndGet(MAX_STALENESS);
+        assertEquals("user-1", call("get", RedisResilienceAspectTest::connectionLost, "token"));
+
+        now.addAndGet(1);
+        assertUnavailable("get", "token");
+        assertEquals(0, fallbackCache.size());
+    }
+
+    @Test
+    public void onlyUnavailableErrorsTripBreaker() throws Throwable {
+        RuntimeException scriptError = new RedisSystemException("ERR user_script",
+                new RedisCommandExecutionException("ERR Error running script"));
+        RuntimeException wrongType = new IllegalArgumentException("wrong type");
+        for (int i = 0; i < 5; i++) {
+            assertSame(scriptError, thrown("eval", () -> {
+                throw scriptError;
+            }));
+            assertSame(wrongType, thrown("get", () -> {
+                throw wrongType;
+            }));
+        }
+        assertEquals(RedisCircuitBreaker.State.CLOSED, breaker.getState());
+
+        // 连接断开、连接失败、超时
+        thrown("get", RedisResilienceAspectTest::connectionLost);
+        thrown("get", () -> {
+            throw new RedisConnectionFailureException("connect refused");
+        });
+        thrown("get", () -> {
+            throw new QueryTimeoutException("command timed out");
+        });
+        assertEquals(RedisCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        LocalFallbackCache cache = new LocalFallbackCache(2, MAX_STALENESS, now::get);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+
+    private Object call(String command, Callable<Object> redis, Object... args) throws Throwable {
+        return aspect.around(new StubJoinPoint(command, args, redis));
+    }
+
+    private void assertUnavailable(String command, Object... args) throws Throwable {
+        Throwable e = thrown(command, RedisResilienceAspectTest::connectionLost, args);
+        assertEquals(RedisUnavailableException.class, e.getClass());
+    }
+
+    private Throwable thrown(String command, Callable<Object> redis, Object... args) throws Throwable {
+        try {
+            call(command, redis, args.length == 0 ? new Object[]{"key"} : args);
+        } catch (RuntimeException e) {
+            return e;
+        }
+        fail(command + " 应当抛出异常");
+        return null;
+    }
+
+    /**
+     * lettuce 在连接断开期间拒绝执行命令
+     */
+    private static Object connectionLost() {
+        throw new RedisSystemException("Unable to connect", new RedisConnectionException("Connection closed"));
+    }
+
+
+    /**
+     * 只实现 RedisResilienceAspect 用到的 getSignature().getName()、getArgs() 和 proceed()
+     */
+    private static final class StubJoinPoint implements ProceedingJoinPoint, Signature {
+
+        private final String name;
+
+        private final Object[] args;
+
+        private final Callable<Object> redis;
+
+        StubJoinPoint(String name, Object[] args, Callable<Object> redis) {
+            this.name = name;
+            this.args = args;
+            this.redis = redis;
+        }
+
+        @Override
+        public Object proceed() throws Throwable {
+            return redis.call();
+        }
+
+        @Override
+        public Object proceed(Object[] args) throws Throwable {
+            return redis.call();
+        }
+
+        @Override
+        public Object[] getArgs() {
+            return args.clone();
+        }
+
+        @Override
+        public Signature getSignature() {
+            return this;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void set$AroundClosure(AroundClosure arc) {
+        }
+
+        @Override
+        public String toShortString() {
+            return name;
+        }
+
+        @Override
+        public String toLongString() {
+            return name + Arrays.toString(args);
+        }
+
+        @Override
+        public Object getThis() {
+            return null;
+        }
+
+        @Override
+        public Object getTarget() {
+            return null;
+        }
+
+        @Override
+        public SourceLocation getSourceLocation() {
+            return null;
+        }
+
+        @Override
+        public String getKind() {
+            return METHOD_EXECUTION;
+        }
+
+        @Override
+        public StaticPart getStaticPart() {
+            return null;
+        }
+
+        @Override
+        public int getModifiers() {
+            return 0;
+        }
+
+        @Override
+        public Class getDeclaringType() {
+            return RedisOperator.class;
+        }
+
+        @Override
+        public String getDeclaringTypeName() {
+            return RedisOperator.class.getName();
+        }
+    }
+}
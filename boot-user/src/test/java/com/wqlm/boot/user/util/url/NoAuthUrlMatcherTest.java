@@ -0,0 +1,76 @@
+package com.wqlm.boot.user.util.url;
+
+import com.wqlm.boot.user.config.ApplicationProperty;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NoAuthUrlMatcherTest {
+
+    private final NoAuthUrlMatcher matcher = new NoAuthUrlMatcher();
+
+    private final MockEnvironment environment = new MockEnvironment();
+
+    @Before
+    public void setUp() {
+        ApplicationProperty applicationProperty = new ApplicationProperty();
+        ReflectionTestUtils.setField(applicationProperty, "noAuthUrls", "/user/register,/user/login,/pub/**");
+        ReflectionTestUtils.setField(matcher, "applicationProperty", applicationProperty);
+        ReflectionTestUtils.setField(matcher, "environment", environment);
+        matcher.init();
+    }
+
+    @Test
+    public void dotDotSegmentDoesNotEscapeToProtectedUrl() {
+        // tomcat 将 servletPath 规范化为实际分发的路径，requestURI 保持原样
+        assertFalse(matcher.matches(request("/pub/..;/user/password", "/user/password")));
+        assertFalse(matcher.matches(request("/pub/%2e%2e/user/password", "/user/password")));
+        assertTrue(matcher.matches(request("/pub/a.js", "/pub/a.js")));
+    }
+
+    @Test
+    public void pathParametersAreIgnored() {
+        assertTrue(matcher.matches(request("/user/login;jsessionid=abc", "/user/login")));
+        // 路径参数只到下一个 / 为止，tomcat 分发到 /user/password/user/login
+        assertFalse(matcher.matches(request("/user/password;x=/user/login", "/user/password/user/login")));
+    }
+
+    @Test
+    public void contextPathIsRemoved() {
+        MockHttpServletRequest request = request("/app/user/login", "/user/login");
+        request.setContextPath("/app");
+        assertTrue(matcher.matches(request));
+    }
+
+    @Test
+    public void reloadReplacesUrls() {
+        assertTrue(matcher.matches("/pub/a.js"));
+
+        environment.setProperty("noAuthUrls", "/user/register, /user/login, /static/**");
+        assertEquals("/user/register, /user/login, /static/**", matcher.reload());
+        assertEquals("/user/register, /user/login, /static/**", matcher.getUrls());
+        assertFalse(matcher.matches("/pub/a.js"));
+        assertTrue(matcher.matches("/static/a.js"));
+        assertTrue(matcher.matches(request("/user/login", "/user/login")));
+
+        // 删除后所有 url 都需要认证
+        environment.setProperty("noAuthUrls", "");
+        matcher.reload();
+        assertFalse(matcher.matches("/user/login"));
+    }
+
+    /**
+     * DispatcherServlet 映射到 /，整个路径都是 servletPath
+     */
+    private static MockHttpServletRequest request(String requestUri, String servletPath) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", requestUri);
+        request.setServletPath(servletPath);
+        return request;
+    }
+}
@@ -0,0 +1,50 @@
+package com.wqlm.boot.user.util.url;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class UrlMatcherTest {
+
+    @Test
+    public void exactMatch() {
+        UrlMatcher matcher = UrlMatcher.compile("/user/register, /user/login");
+        assertTrue(matcher.matches("/user/register"));
+        assertTrue(matcher.matches("/user/login"));
+        assertFalse(matcher.matches("/user"));
+        assertFalse(matcher.matches("/user/login/x"));
+    }
+
+    @Test
+    public void prefixMatch() {
+        UrlMatcher matcher = UrlMatcher.compile("/static/**,/api/public/**");
+        assertTrue(matcher.matches("/static"));
+        assertTrue(matcher.matches("/static/js/app.js"));
+        assertTrue(matcher.matches("/api/public/a"));
+        assertFalse(matcher.matches("/api/private/a"));
+        assertFalse(matcher.matches("/staticx/a"));
+    }
+
+    @Test
+    public void patternMatch() {
+        UrlMatcher matcher = UrlMatcher.compile("/user/*/avatar,/**/*.html");
+        assertTrue(matcher.matches("/user/1/avatar"));
+        assertTrue(matcher.matches("/a/b/index.html"));
+        assertFalse(matcher.matches("/user/1/profile"));
+    }
+
+    @Test
+    public void emptyMatchesNothing() {
+        UrlMatcher matcher = UrlMatcher.compile("");
+        assertFalse(matcher.matches("/user/login"));
+        assertFalse(matcher.matches(null));
+    }
+
+    @Test
+    public void rootPrefixMatchesEverything() {
+        UrlMatcher matcher = UrlMatcher.compile("/**");
+        assertTrue(matcher.matches("/"));
+        assertTrue(matcher.matches("/user"));
+    }
+}
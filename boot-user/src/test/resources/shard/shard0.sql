@@ -0,0 +1,18 @@
+-- 分片 0 的 user 表，用户ID由应用生成
+CREATE TABLE IF NOT EXISTS `user` (
+	`id` BIGINT NOT NULL,
+	`user_name` VARCHAR ( 255 ) NOT NULL,
+	`password` VARCHAR ( 255 ) NOT NULL,
+	`salt` VARCHAR ( 255 ) NOT NULL,
+	PRIMARY KEY ( `id` )
+);
+
+-- 分片 0 的 outbox 表
+CREATE TABLE IF NOT EXISTS `user_event` (
+	`id` BIGINT NOT NULL AUTO_INCREMENT,
+	`type` VARCHAR ( 32 ) NOT NULL,
+	`user_id` BIGINT NOT NULL,
+	`user_name` VARCHAR ( 255 ) NOT NULL,
+	`create_time` DATETIME NOT NULL,
+	PRIMARY KEY ( `id` )
+);